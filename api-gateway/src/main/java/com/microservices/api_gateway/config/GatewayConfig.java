@@ -28,7 +28,7 @@ public class GatewayConfig {
         return builder.routes()
                 // Auth Service Routes (Public)
                 .route("auth-service-public", r -> r
-                        .path("/auth/login", "/auth/register", "/auth/refresh")
+                        .path("/auth/login", "/auth/register", "/auth/refresh", "/.well-known/jwks.json")
                         .filters(f -> f
                                 .filter(loggingFilter)
                                 .filter(rateLimitingFilter)
@@ -1,6 +1,8 @@
 package com.microservices.api_gateway.config;
 
+import com.microservices.common.core.security.VerificationKeyResolver;
 import com.microservices.common.core.util.JwtUtil;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,7 +14,11 @@ public class JwtConfig {
     public JwtUtil jwtUtil(
             @Value("${jwt.secret}") String secret,
             @Value("${jwt.expiration:86400000}") long jwtExpiration,
-            @Value("${jwt.refresh-expiration:604800000}") long refreshTokenExpiration) {
-        return new JwtUtil(secret, jwtExpiration, refreshTokenExpiration);
+            @Value("${jwt.refresh-expiration:604800000}") long refreshTokenExpiration,
+            ObjectProvider<VerificationKeyResolver> verificationKeyResolver) {
+        JwtUtil jwtUtil = new JwtUtil(secret, jwtExpiration, refreshTokenExpiration);
+        // ES256 tokens are verified against the auth-service JWKS when jwt.jwks-uri is set
+        verificationKeyResolver.ifAvailable(jwtUtil::setVerificationKeyResolver);
+        return jwtUtil;
     }
 }
\ No newline at end of file
@@ -34,6 +34,7 @@ public class AuthenticationFilter implements GatewayFilter {
             "/auth/login",
             "/auth/register",
             "/auth/refresh",
+            "/.well-known/jwks.json",
             "/swagger-ui",
             "/v3/api-docs",
             "/webjars",
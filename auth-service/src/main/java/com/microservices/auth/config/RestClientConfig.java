@@ -0,0 +1,24 @@
+package com.microservices.auth.config;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Eureka-aware client for service-to-service calls ({@code http://user-service/...}). Not a default candidate,
+ * so Boot's auto-configured builder stays in place for every other client; inject it with {@code @LoadBalanced}.
+ */
+@Configuration
+public class RestClientConfig {
+
+    @Bean(defaultCandidate = false)
+    @LoadBalanced
+    public RestClient.Builder loadBalancedRestClientBuilder() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(5000);
+        requestFactory.setReadTimeout(10000);
+        return RestClient.builder().requestFactory(requestFactory);
+    }
+}
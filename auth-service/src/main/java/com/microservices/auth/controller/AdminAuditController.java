@@ -0,0 +1,56 @@
+package com.microservices.auth.controller;
+
+import com.microservices.auth.entity.AuditEventType;
+import com.microservices.auth.entity.AuthAuditEvent;
+import com.microservices.auth.repository.AuthAuditEventRepository;
+import com.microservices.common.core.dto.ApiResponse;
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/auth/admin/audit")
+@RequiredArgsConstructor
+@Tag(name = "Audit", description = "Authentication audit log")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AdminAuditController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final AuthAuditEventRepository auditEventRepository;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Search audit events", description = "Time-range scan of authentication audit events, newest first")
+    public ResponseEntity<ApiResponse<List<AuthAuditEvent>>> searchAuditEvents(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) AuditEventType type,
+            @RequestParam(defaultValue = "100") int limit) {
+
+        LocalDateTime until = to != null ? to : LocalDateTime.now();
+        if (!from.isBefore(until)) {
+            throw new BusinessException(ResponseCode.BAD_REQUEST, "'from' must be before 'to'");
+        }
+
+        List<AuthAuditEvent> events = auditEventRepository.search(from, until, username, type,
+                PageRequest.of(0, Math.max(1, Math.min(limit, MAX_LIMIT))));
+
+        return ResponseEntity.ok(ApiResponse.success(events));
+    }
+}
@@ -0,0 +1,35 @@
+package com.microservices.auth.controller;
+
+import com.microservices.auth.service.OutboxService;
+import com.microservices.common.core.dto.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping("/auth/admin/outbox")
+@RequiredArgsConstructor
+@Tag(name = "Outbox", description = "User event outbox administration")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AdminOutboxController {
+
+    private final OutboxService outboxService;
+
+    @PostMapping("/requeue")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Requeue parked events",
+            description = "Hand every parked outbox event back to the relay, e.g. after the cause was fixed in user-service")
+    public ResponseEntity<ApiResponse<Integer>> requeue() {
+        int requeued = outboxService.requeueParked();
+        log.info("Requeued {} parked outbox events by admin request", requeued);
+        return ResponseEntity.ok(ApiResponse.success("Parked events requeued", requeued));
+    }
+}
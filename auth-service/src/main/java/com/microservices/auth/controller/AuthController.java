@@ -31,12 +31,14 @@ public class AuthController {
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Login successful"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Invalid credentials"),
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "423", description = "Account locked")
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "423", description = "Account locked"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "429", description = "Too many failed attempts")
     })
-    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody LoginRequest request,
+                                                           HttpServletRequest httpRequest) {
         log.info("Login request received for username: {}", request.getUsername());
 
-        AuthResponse authResponse = authService.login(request);
+        AuthResponse authResponse = authService.login(request, httpRequest.getRemoteAddr());
 
         return ResponseEntity.ok(ApiResponse.success("Login successful", authResponse));
     }
@@ -88,16 +90,34 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    @Operation(summary = "User logout", description = "Logout user (client-side token removal)")
+    @Operation(summary = "User logout", description = "Revoke the session of the given refresh token and remove tokens client-side")
     @SecurityRequirement(name = "Bearer Authentication")
-    public ResponseEntity<ApiResponse<String>> logout() {
-        // In a stateless JWT implementation, logout is typically handled client-side
-        // by removing the token. For more security, you could implement token blacklisting.
+    public ResponseEntity<ApiResponse<String>> logout(@RequestBody(required = false) RefreshTokenRequest request) {
         log.info("Logout request received");
 
+        if (request != null && StringUtils.hasText(request.getRefreshToken())) {
+            authService.logout(request.getRefreshToken());
+        }
+
         return ResponseEntity.ok(ApiResponse.success("Logged out successfully", "Please remove the token from client"));
     }
 
+    @PostMapping("/logout-all")
+    @Operation(summary = "Logout everywhere", description = "Revoke every refresh token of the authenticated user")
+    @SecurityRequirement(name = "Bearer Authentication")
+    public ResponseEntity<ApiResponse<String>> logoutAll(HttpServletRequest request) {
+        String token = getJwtFromRequest(request);
+
+        if (!StringUtils.hasText(token)) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Missing Authorization header", 400));
+        }
+
+        authService.logoutAll(token);
+
+        return ResponseEntity.ok(ApiResponse.success("Logged out from all sessions", null));
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
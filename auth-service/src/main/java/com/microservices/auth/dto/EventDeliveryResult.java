@@ -0,0 +1,19 @@
+package com.microservices.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * user-service's answer to a relayed batch; {@code failed} maps the ids of rejected events to the reason.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventDeliveryResult {
+    private int applied;
+    private int skipped;
+    private Map<Long, String> failed;
+}
@@ -0,0 +1,28 @@
+package com.microservices.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowResult {
+
+    public enum Status {
+        CREATED, REJECTED
+    }
+
+    private long line;
+    private String username;
+    private Status status;
+    private String message;
+
+    public static ImportRowResult created(long line, String username) {
+        return new ImportRowResult(line, username, Status.CREATED, null);
+    }
+
+    public static ImportRowResult rejected(long line, String username, String message) {
+        return new ImportRowResult(line, username, Status.REJECTED, message);
+    }
+}
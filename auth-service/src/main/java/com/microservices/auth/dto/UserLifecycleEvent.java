@@ -0,0 +1,28 @@
+package com.microservices.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Outbox payload and wire format of user lifecycle events; {@code eventId} and {@code type} are
+ * filled in from the outbox row when the event is relayed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserLifecycleEvent {
+    private Long eventId;
+    private String type;
+    private String username;
+    private String email;
+    private boolean enabled;
+    private boolean locked;
+    private Set<String> roles;
+    private LocalDateTime occurredAt;
+}
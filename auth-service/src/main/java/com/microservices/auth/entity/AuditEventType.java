@@ -0,0 +1,5 @@
+package com.microservices.auth.entity;
+
+public enum AuditEventType {
+    LOGIN_SUCCESS, LOGIN_FAILURE, LOCKOUT, UNLOCK, REFRESH, REFRESH_FAILURE, LOGOUT, LOGOUT_ALL
+}
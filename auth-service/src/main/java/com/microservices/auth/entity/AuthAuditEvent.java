@@ -0,0 +1,41 @@
+package com.microservices.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only audit record. Rows are inserted in batches by
+ * {@link com.microservices.auth.service.AuditLogService} and never updated.
+ */
+@Entity
+@Table(name = "auth_audit_events", indexes = {
+        @Index(name = "idx_auth_audit_occurred_at", columnList = "occurred_at"),
+        @Index(name = "idx_auth_audit_username_occurred_at", columnList = "username, occurred_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthAuditEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 30)
+    private AuditEventType eventType;
+
+    private String username;
+
+    @Column(name = "client_ip", length = 45)
+    private String clientIp;
+
+    private String detail;
+}
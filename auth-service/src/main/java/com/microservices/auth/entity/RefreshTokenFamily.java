@@ -0,0 +1,57 @@
+package com.microservices.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per login session. Every refresh rotates {@code currentTokenId}; presenting any other
+ * token id of the family is treated as reuse and revokes the whole family.
+ */
+@Entity
+@Table(name = "refresh_token_families", indexes = {
+        @Index(name = "idx_refresh_families_username", columnList = "username"),
+        @Index(name = "idx_refresh_families_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenFamily {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "current_token_id", nullable = false, length = 36)
+    private String currentTokenId;
+
+    @Column(name = "previous_token_id", length = 36)
+    private String previousTokenId;
+
+    @Column(nullable = false)
+    private int generation;
+
+    // Snapshot of User.tokenEpoch at login; a later epoch means "logged out everywhere"
+    @Column(name = "user_epoch", nullable = false)
+    private int userEpoch;
+
+    @Column(nullable = false)
+    private boolean revoked;
+
+    @Column(name = "rotated_at")
+    private LocalDateTime rotatedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
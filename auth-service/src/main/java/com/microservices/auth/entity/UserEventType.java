@@ -0,0 +1,5 @@
+package com.microservices.auth.entity;
+
+public enum UserEventType {
+    REGISTERED, ENABLED, DISABLED, LOCKED, UNLOCKED, ROLES_CHANGED
+}
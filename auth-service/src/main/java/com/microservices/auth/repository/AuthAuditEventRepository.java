@@ -0,0 +1,26 @@
+package com.microservices.auth.repository;
+
+import com.microservices.auth.entity.AuditEventType;
+import com.microservices.auth.entity.AuthAuditEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AuthAuditEventRepository extends JpaRepository<AuthAuditEvent, Long> {
+
+    @Query("SELECT e FROM AuthAuditEvent e WHERE e.occurredAt >= :from AND e.occurredAt < :to " +
+            "AND (:username IS NULL OR e.username = :username) " +
+            "AND (:eventType IS NULL OR e.eventType = :eventType) " +
+            "ORDER BY e.occurredAt DESC, e.id DESC")
+    List<AuthAuditEvent> search(@Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to,
+                                @Param("username") String username,
+                                @Param("eventType") AuditEventType eventType,
+                                Pageable pageable);
+}
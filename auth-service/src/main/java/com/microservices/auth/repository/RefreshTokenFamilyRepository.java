@@ -0,0 +1,35 @@
+package com.microservices.auth.repository;
+
+import com.microservices.auth.entity.RefreshTokenFamily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, String> {
+
+    /**
+     * Compare-and-set rotation: succeeds only if {@code currentTokenId} is still the presented token.
+     */
+    @Modifying
+    @Query("UPDATE RefreshTokenFamily f SET f.previousTokenId = f.currentTokenId, f.currentTokenId = :nextTokenId, " +
+            "f.generation = f.generation + 1, f.rotatedAt = :rotatedAt, f.expiresAt = :expiresAt " +
+            "WHERE f.id = :familyId AND f.currentTokenId = :currentTokenId AND f.revoked = false")
+    int rotate(@Param("familyId") String familyId,
+               @Param("currentTokenId") String currentTokenId,
+               @Param("nextTokenId") String nextTokenId,
+               @Param("rotatedAt") LocalDateTime rotatedAt,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE RefreshTokenFamily f SET f.revoked = true WHERE f.id = :familyId")
+    int revoke(@Param("familyId") String familyId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshTokenFamily f WHERE f.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
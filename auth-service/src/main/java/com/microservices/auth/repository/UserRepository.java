@@ -1,14 +1,20 @@
 package com.microservices.auth.repository;
 
 import com.microservices.auth.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -21,6 +27,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
 
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     @Modifying
     @Query("UPDATE User u SET u.lastLoginAt = :loginTime WHERE u.username = :username")
     void updateLastLoginTime(@Param("username") String username, @Param("loginTime") LocalDateTime loginTime);
@@ -32,4 +44,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Modifying
     @Query("UPDATE User u SET u.accountNonLocked = :locked, u.lockedAt = :lockedAt WHERE u.username = :username")
     void updateAccountLocked(@Param("username") String username, @Param("locked") boolean locked, @Param("lockedAt") LocalDateTime lockedAt);
+
+    // Row locks hold off concurrent logins and admin changes until the unlock commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.accountNonLocked = false AND u.lockedAt < :cutoff ORDER BY u.lockedAt")
+    List<User> findExpiredLocksForUpdate(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.accountNonLocked = true")
+    Set<Long> findUnlockedIds(@Param("ids") Collection<Long> ids);
+
+    // The lock condition is repeated so that an account re-locked since the scan stays locked
+    @Modifying
+    @Query("UPDATE User u SET u.accountNonLocked = true, u.lockedAt = null, u.loginAttempts = 0 " +
+            "WHERE u.id IN :ids AND u.accountNonLocked = false AND u.lockedAt < :cutoff")
+    int unlockExpired(@Param("ids") Collection<Long> ids, @Param("cutoff") LocalDateTime cutoff);
+
+    // Login's own unlock of an expired lock; clears the context so the caller re-reads the counter it reset
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.accountNonLocked = true, u.lockedAt = null, u.loginAttempts = 0 " +
+            "WHERE u.username = :username AND u.accountNonLocked = false AND u.lockedAt < :cutoff")
+    int unlockIfExpired(@Param("username") String username, @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("UPDATE User u SET u.tokenEpoch = u.tokenEpoch + 1 WHERE u.username = :username")
+    int incrementTokenEpoch(@Param("username") String username);
 }
@@ -0,0 +1,85 @@
+package com.microservices.auth.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fixed-size frequency sketch. {@link #estimate} never under-counts; with {@code width = e / epsilon}
+ * the over-count is at most {@code epsilon * totalCount} with probability {@code 1 - e^-depth}.
+ * <p>
+ * Updates are conservative (only the counters holding the current minimum are raised), which keeps
+ * the over-count well below the bound for skewed traffic. Rows are hashed with a per-instance seed so
+ * that colliding keys cannot be precomputed.
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final long seed;
+    private final AtomicIntegerArray counters;
+
+    public CountMinSketch(int width, int depth, long seed) {
+        if (width < 1 || depth < 1) {
+            throw new IllegalArgumentException("width and depth must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.seed = seed;
+        this.counters = new AtomicIntegerArray(width * depth);
+    }
+
+    public int add(String key) {
+        long hash = hash(key);
+        int[] slots = new int[depth];
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            slots[row] = slot(hash, row);
+            min = Math.min(min, counters.get(slots[row]));
+        }
+        int target = min + 1;
+        for (int slot : slots) {
+            counters.accumulateAndGet(slot, target, Math::max);
+        }
+        return target;
+    }
+
+    public int estimate(String key) {
+        long hash = hash(key);
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(slot(hash, row)));
+        }
+        return min;
+    }
+
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    public long memoryBytes() {
+        return (long) counters.length() * Integer.BYTES;
+    }
+
+    private int slot(long hash, int row) {
+        // Kirsch-Mitzenmacher double hashing: row i uses h1 + i * h2
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + Math.floorMod(h1 + row * h2, width);
+    }
+
+    private long hash(String key) {
+        long h = seed;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h = (h ^ b) * 0x100000001b3L;
+        }
+        // murmur3 finalizer
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,279 @@
+package com.microservices.auth.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks failed logins per username and per source IP in fixed memory.
+ * <p>
+ * Each dimension keeps a ring of count-min sketches, one per time window; the failure count of a key is
+ * the sum over the ring, so old windows age out as the ring rotates. A {@link HeavyHitters} per dimension
+ * names the current top offenders. {@link #acquire} runs before the password hash is computed and admits
+ * an attempt only while the failures plus the attempts still in flight stay under the threshold.
+ */
+@Slf4j
+@Component
+public class CredentialStuffingDetector {
+
+    public enum Dimension {USERNAME, IP}
+
+    public record Snapshot(long windowSeconds, int windows, Map<Dimension, Integer> thresholds,
+                           Map<Dimension, List<HeavyHitters.Entry>> topOffenders, long memoryBytes) {
+    }
+
+    private final Clock clock;
+    private final long windowMillis;
+    private final int windowCount;
+    private final boolean enabled;
+    private final Map<Dimension, Tracker> trackers = new EnumMap<>(Dimension.class);
+    private final Map<Dimension, Integer> thresholds = new EnumMap<>(Dimension.class);
+    private final Map<Dimension, Counter> blockedCounters = new EnumMap<>(Dimension.class);
+
+    @Autowired
+    public CredentialStuffingDetector(MeterRegistry meterRegistry,
+                                      @Value("${app.login-abuse.enabled:true}") boolean enabled,
+                                      @Value("${app.login-abuse.window-seconds:60}") long windowSeconds,
+                                      @Value("${app.login-abuse.windows:5}") int windowCount,
+                                      @Value("${app.login-abuse.sketch-width:16384}") int sketchWidth,
+                                      @Value("${app.login-abuse.sketch-depth:4}") int sketchDepth,
+                                      @Value("${app.login-abuse.top-k:50}") int topK,
+                                      @Value("${app.login-abuse.max-failures-per-username:20}") int maxPerUsername,
+                                      @Value("${app.login-abuse.max-failures-per-ip:100}") int maxPerIp) {
+        this(meterRegistry, Clock.systemUTC(), enabled, windowSeconds, windowCount, sketchWidth, sketchDepth,
+                topK, maxPerUsername, maxPerIp);
+    }
+
+    public CredentialStuffingDetector(MeterRegistry meterRegistry, Clock clock, boolean enabled,
+                                      long windowSeconds, int windowCount, int sketchWidth, int sketchDepth,
+                                      int topK, int maxPerUsername, int maxPerIp) {
+        this.clock = clock;
+        this.windowMillis = windowSeconds * 1000;
+        this.windowCount = windowCount;
+        this.enabled = enabled;
+
+        SecureRandom random = new SecureRandom();
+        long now = currentWindow();
+        for (Dimension dimension : Dimension.values()) {
+            trackers.put(dimension, new Tracker(windowCount, sketchWidth, sketchDepth, topK, random.nextLong(), now));
+            blockedCounters.put(dimension, Counter.builder("auth.login.abuse.blocked")
+                    .description("Logins rejected before password verification")
+                    .tag("dimension", dimension.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        thresholds.put(Dimension.USERNAME, maxPerUsername);
+        thresholds.put(Dimension.IP, maxPerIp);
+
+        Gauge.builder("auth.login.abuse.memory", this, CredentialStuffingDetector::memoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a login attempt unless the failure budget of its username or source IP is exhausted. An admitted
+     * attempt holds a slot in both budgets until {@link #release}, and the budget check and the slot are taken
+     * in one step per key, so concurrent attempts cannot all pass a check that only the first of them should.
+     *
+     * @return the exhausted dimension; empty if the attempt was admitted and must be released
+     */
+    public Optional<Dimension> acquire(String username, String clientIp) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        long window = currentWindow();
+        if (username != null && !trackers.get(Dimension.USERNAME)
+                .reserve(normalize(username), window, thresholds.get(Dimension.USERNAME))) {
+            blockedCounters.get(Dimension.USERNAME).increment();
+            return Optional.of(Dimension.USERNAME);
+        }
+        if (clientIp != null && !trackers.get(Dimension.IP).reserve(clientIp, window, thresholds.get(Dimension.IP))) {
+            if (username != null) {
+                trackers.get(Dimension.USERNAME).unreserve(normalize(username));
+            }
+            blockedCounters.get(Dimension.IP).increment();
+            return Optional.of(Dimension.IP);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Ends an attempt admitted by {@link #acquire}; a failed attempt is recorded before its slot is freed.
+     */
+    public void release(String username, String clientIp, boolean failed) {
+        if (!enabled) {
+            return;
+        }
+        if (failed) {
+            recordFailure(username, clientIp);
+        }
+        if (username != null) {
+            trackers.get(Dimension.USERNAME).unreserve(normalize(username));
+        }
+        if (clientIp != null) {
+            trackers.get(Dimension.IP).unreserve(clientIp);
+        }
+    }
+
+    /**
+     * Returns the dimension whose failure budget is exhausted, if any, counting attempts still in flight.
+     * Performs no writes.
+     */
+    public Optional<Dimension> check(String username, String clientIp) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        long window = currentWindow();
+        if (username != null && load(Dimension.USERNAME, normalize(username), window) >= thresholds.get(Dimension.USERNAME)) {
+            return Optional.of(Dimension.USERNAME);
+        }
+        if (clientIp != null && load(Dimension.IP, clientIp, window) >= thresholds.get(Dimension.IP)) {
+            return Optional.of(Dimension.IP);
+        }
+        return Optional.empty();
+    }
+
+    public void recordFailure(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long window = currentWindow();
+        if (username != null) {
+            trackers.get(Dimension.USERNAME).add(normalize(username), window);
+        }
+        if (clientIp != null) {
+            trackers.get(Dimension.IP).add(clientIp, window);
+        }
+    }
+
+    public int estimate(Dimension dimension, String key) {
+        return estimate(dimension, dimension == Dimension.USERNAME ? normalize(key) : key, currentWindow());
+    }
+
+    public Snapshot snapshot(int limit) {
+        long window = currentWindow();
+        Map<Dimension, List<HeavyHitters.Entry>> top = new EnumMap<>(Dimension.class);
+        trackers.forEach((dimension, tracker) -> {
+            tracker.rotateTo(window);
+            top.put(dimension, tracker.topKeys.top(limit));
+        });
+        return new Snapshot(windowMillis / 1000, windowCount, Map.copyOf(thresholds), top, memoryBytes());
+    }
+
+    public long memoryBytes() {
+        return trackers.values().stream().mapToLong(Tracker::memoryBytes).sum();
+    }
+
+    private int estimate(Dimension dimension, String key, long window) {
+        Tracker tracker = trackers.get(dimension);
+        tracker.rotateTo(window);
+        return tracker.estimate(key);
+    }
+
+    private int load(Dimension dimension, String key, long window) {
+        Tracker tracker = trackers.get(dimension);
+        tracker.rotateTo(window);
+        return tracker.load(key);
+    }
+
+    private long currentWindow() {
+        return clock.millis() / windowMillis;
+    }
+
+    // Attackers should not get a fresh budget by changing the case of a username
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Tracker {
+
+        private final CountMinSketch[] windows;
+        private final HeavyHitters topKeys;
+        // Admitted attempts without an outcome yet; bounded by the number of concurrent logins
+        private final ConcurrentHashMap<String, Integer> inFlight = new ConcurrentHashMap<>();
+        private volatile long currentWindow;
+
+        private Tracker(int windowCount, int width, int depth, int topK, long seed, long startWindow) {
+            this.windows = new CountMinSketch[windowCount];
+            for (int i = 0; i < windowCount; i++) {
+                windows[i] = new CountMinSketch(width, depth, seed + i);
+            }
+            this.topKeys = new HeavyHitters(topK);
+            this.currentWindow = startWindow;
+        }
+
+        void add(String key, long window) {
+            rotateTo(window);
+            windows[(int) (window % windows.length)].add(key);
+            topKeys.offer(key, estimate(key));
+        }
+
+        // compute() holds the key's bin, so the check and the reservation cannot interleave with another reserve
+        boolean reserve(String key, long window, int threshold) {
+            rotateTo(window);
+            boolean[] reserved = new boolean[1];
+            inFlight.compute(key, (k, pending) -> {
+                int current = pending == null ? 0 : pending;
+                if (estimate(k) + current >= threshold) {
+                    return pending;
+                }
+                reserved[0] = true;
+                return current + 1;
+            });
+            return reserved[0];
+        }
+
+        void unreserve(String key) {
+            inFlight.computeIfPresent(key, (k, pending) -> pending > 1 ? pending - 1 : null);
+        }
+
+        int load(String key) {
+            return estimate(key) + inFlight.getOrDefault(key, 0);
+        }
+
+        int estimate(String key) {
+            long total = 0;
+            for (CountMinSketch sketch : windows) {
+                total += sketch.estimate(key);
+            }
+            return (int) Math.min(Integer.MAX_VALUE, total);
+        }
+
+        void rotateTo(long window) {
+            if (window <= currentWindow) {
+                return;
+            }
+            synchronized (this) {
+                if (window <= currentWindow) {
+                    return;
+                }
+                long expired = Math.min(window - currentWindow, windows.length);
+                for (long w = window - expired + 1; w <= window; w++) {
+                    windows[(int) (w % windows.length)].clear();
+                }
+                currentWindow = window;
+            }
+            topKeys.rescore(this::estimate);
+        }
+
+        long memoryBytes() {
+            long bytes = 0;
+            for (CountMinSketch sketch : windows) {
+                bytes += sketch.memoryBytes();
+            }
+            return bytes;
+        }
+    }
+}
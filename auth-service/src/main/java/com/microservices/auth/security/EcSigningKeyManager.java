@@ -0,0 +1,138 @@
+package com.microservices.auth.security;
+
+import com.microservices.common.core.security.EcJwks;
+import com.microservices.common.core.security.SigningKeyProvider;
+import com.microservices.common.core.security.VerificationKeyResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Owns the ES256 key pairs used to sign tokens and publishes their public halves as a JWKS.
+ * <p>
+ * The signing key comes from configuration, so every instance signs with the same key and publishes the same
+ * JWKS, and tokens survive restarts. Rotation is a configuration change: the new pair replaces the old one, whose
+ * public key moves to {@code jwt.signing.retired-public-keys} and keeps verifying until
+ * {@code jwt.signing.rotated-at} plus the refresh token lifetime.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jwt.signing.algorithm", havingValue = "ES256")
+public class EcSigningKeyManager implements SigningKeyProvider, VerificationKeyResolver {
+
+    private final List<SigningKey> keys = new CopyOnWriteArrayList<>();
+    private final SigningKey activeKey;
+
+    public EcSigningKeyManager(@Value("${jwt.signing.private-key:}") String privateKey,
+                               @Value("${jwt.signing.public-key:}") String publicKey,
+                               @Value("${jwt.signing.retired-public-keys:}") List<String> retiredPublicKeys,
+                               @Value("${jwt.signing.rotated-at:}") String rotatedAt,
+                               @Value("${jwt.refresh-expiration:604800000}") long refreshTokenExpiration) {
+        // A key generated per instance would differ between replicas and be lost on every restart
+        if (!StringUtils.hasText(privateKey) || !StringUtils.hasText(publicKey)) {
+            throw new IllegalStateException("jwt.signing.algorithm=ES256 requires jwt.signing.private-key and "
+                    + "jwt.signing.public-key; use HS256 until a shared key pair is configured");
+        }
+        this.activeKey = signingKey(new KeyPair(decodePublicKey(publicKey), decodePrivateKey(privateKey)), null);
+        keys.add(activeKey);
+
+        Instant retiredUntil = StringUtils.hasText(rotatedAt)
+                ? Instant.parse(rotatedAt.trim()).plus(Duration.ofMillis(refreshTokenExpiration))
+                : null;
+        for (String retired : retiredPublicKeys) {
+            if (StringUtils.hasText(retired)) {
+                keys.add(signingKey(new KeyPair(decodePublicKey(retired.trim()), null), retiredUntil));
+            }
+        }
+        prune(Instant.now());
+        log.info("Loaded ES256 signing key {} and {} retired key(s)", activeKey.keyId(), keys.size() - 1);
+    }
+
+    @Override
+    public String currentKeyId() {
+        return activeKey.keyId();
+    }
+
+    @Override
+    public PrivateKey currentPrivateKey() {
+        return activeKey.keyPair().getPrivate();
+    }
+
+    @Override
+    public PublicKey resolve(String keyId) {
+        prune(Instant.now());
+        for (SigningKey key : keys) {
+            if (key.keyId().equals(keyId)) {
+                return key.keyPair().getPublic();
+            }
+        }
+        return null;
+    }
+
+    public Map<String, Object> jwks() {
+        prune(Instant.now());
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        for (SigningKey key : keys) {
+            jwks.add(EcJwks.toJwk(key.keyId(), (ECPublicKey) key.keyPair().getPublic()));
+        }
+        return Map.of("keys", jwks);
+    }
+
+    // Tokens signed with a key retired longer ago than the refresh token lifetime have all expired
+    private void prune(Instant now) {
+        if (keys.removeIf(key -> key.retiredUntil() != null && key.retiredUntil().isBefore(now))) {
+            log.info("Dropped expired retired signing keys, {} key(s) left", keys.size());
+        }
+    }
+
+    private static SigningKey signingKey(KeyPair keyPair, Instant retiredUntil) {
+        return new SigningKey(thumbprint(keyPair.getPublic()), keyPair, retiredUntil);
+    }
+
+    private static PrivateKey decodePrivateKey(String base64) {
+        try {
+            return KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(Base64.getMimeDecoder().decode(base64)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid jwt.signing.private-key", e);
+        }
+    }
+
+    private static PublicKey decodePublicKey(String base64) {
+        try {
+            return KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(Base64.getMimeDecoder().decode(base64)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid jwt.signing.public-key", e);
+        }
+    }
+
+    private static String thumbprint(PublicKey publicKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(publicKey.getEncoded());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 16);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record SigningKey(String keyId, KeyPair keyPair, Instant retiredUntil) {
+    }
+}
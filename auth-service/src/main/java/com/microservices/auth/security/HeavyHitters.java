@@ -0,0 +1,86 @@
+package com.microservices.auth.security;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded top-K of the keys with the highest sketch estimates. A key only enters when its estimate beats
+ * the smallest tracked one, so the structure never holds more than {@code capacity} keys however many
+ * distinct keys are offered.
+ */
+public class HeavyHitters {
+
+    public record Entry(String key, int count) {
+    }
+
+    private final int capacity;
+    private final Map<String, Integer> counts;
+    private String minKey;
+    private int minCount;
+
+    public HeavyHitters(int capacity) {
+        this.capacity = capacity;
+        this.counts = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void offer(String key, int estimate) {
+        if (counts.containsKey(key)) {
+            counts.put(key, estimate);
+            if (key.equals(minKey)) {
+                refreshMin();
+            }
+            return;
+        }
+        if (counts.size() < capacity) {
+            counts.put(key, estimate);
+            if (minKey == null || estimate < minCount) {
+                minKey = key;
+                minCount = estimate;
+            }
+            return;
+        }
+        if (estimate > minCount) {
+            counts.remove(minKey);
+            counts.put(key, estimate);
+            refreshMin();
+        }
+    }
+
+    /**
+     * Re-scores every tracked key (after a window rotation) and drops the ones that fell to zero.
+     */
+    public synchronized void rescore(ToIntFunction<String> estimator) {
+        counts.replaceAll((key, count) -> estimator.applyAsInt(key));
+        counts.values().removeIf(count -> count <= 0);
+        refreshMin();
+    }
+
+    public synchronized List<Entry> top(int limit) {
+        return counts.entrySet().stream()
+                .map(entry -> new Entry(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingInt(Entry::count).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public synchronized int size() {
+        return counts.size();
+    }
+
+    private void refreshMin() {
+        minKey = null;
+        minCount = Integer.MAX_VALUE;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() < minCount) {
+                minKey = entry.getKey();
+                minCount = entry.getValue();
+            }
+        }
+        if (minKey == null) {
+            minCount = 0;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.microservices.auth.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/loginabuse}: current top usernames and source IPs by failed logins.
+ */
+@Component
+@Endpoint(id = "loginabuse")
+@RequiredArgsConstructor
+public class LoginAbuseEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final CredentialStuffingDetector detector;
+
+    @ReadOperation
+    public CredentialStuffingDetector.Snapshot topOffenders(@Nullable Integer limit) {
+        return detector.snapshot(limit != null && limit > 0 ? limit : DEFAULT_LIMIT);
+    }
+}
@@ -0,0 +1,139 @@
+package com.microservices.auth.service;
+
+import com.microservices.auth.entity.AuditEventType;
+import com.microservices.auth.entity.User;
+import com.microservices.auth.entity.UserEventType;
+import com.microservices.auth.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Clears expired account locks in the background. Login clears an expired lock itself only when the account
+ * signs in before the next sweep.
+ * <p>
+ * Only the replica holding the {@value #LOCK_NAME} lease sweeps. Each batch locks the rows of expired
+ * accounts through {@code idx_users_locked_at} and unlocks them with one set-based UPDATE. Outbox events,
+ * audit records and cache evictions are produced only for the accounts that UPDATE actually unlocked.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.unlock-sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class AccountUnlockSweeper {
+
+    static final String LOCK_NAME = "account-unlock-sweeper";
+
+    private final UserRepository userRepository;
+    private final OutboxService outboxService;
+    private final AuditLogService auditLogService;
+    private final PrincipalCache principalCache;
+    private final SchedulerLockService schedulerLockService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration lockDuration;
+    private final Duration lease;
+    private final int batchSize;
+
+    private final DistributionSummary batchSizeSummary;
+    private final Timer sweepTimer;
+    private final Counter unlockedCounter;
+
+    public AccountUnlockSweeper(UserRepository userRepository,
+                                OutboxService outboxService,
+                                AuditLogService auditLogService,
+                                PrincipalCache principalCache,
+                                SchedulerLockService schedulerLockService,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.account-lock-duration-minutes:30}") long lockDurationMinutes,
+                                @Value("${app.unlock-sweeper.lease-ms:300000}") long leaseMillis,
+                                @Value("${app.unlock-sweeper.batch-size:500}") int batchSize) {
+        this.userRepository = userRepository;
+        this.outboxService = outboxService;
+        this.auditLogService = auditLogService;
+        this.principalCache = principalCache;
+        this.schedulerLockService = schedulerLockService;
+        this.transactionTemplate = transactionTemplate;
+        this.lockDuration = Duration.ofMinutes(lockDurationMinutes);
+        this.lease = Duration.ofMillis(leaseMillis);
+        this.batchSize = batchSize;
+
+        this.batchSizeSummary = DistributionSummary.builder("auth.unlock.sweep.batch.size")
+                .description("Accounts unlocked per sweeper batch")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("auth.unlock.sweep.duration")
+                .description("Time taken by one full unlock sweep")
+                .register(meterRegistry);
+        this.unlockedCounter = Counter.builder("auth.unlock.accounts").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.unlock-sweeper.interval-ms:60000}")
+    public void sweep() {
+        if (!schedulerLockService.tryAcquire(LOCK_NAME, lease)) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start();
+        LocalDateTime cutoff = LocalDateTime.now().minus(lockDuration);
+        int total = 0;
+        int unlocked;
+        do {
+            unlocked = unlockBatch(cutoff);
+            total += unlocked;
+        } while (unlocked == batchSize);
+        sample.stop(sweepTimer);
+
+        if (total > 0) {
+            log.info("Unlocked {} accounts with expired locks", total);
+        }
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        schedulerLockService.release(LOCK_NAME);
+    }
+
+    private int unlockBatch(LocalDateTime cutoff) {
+        List<User> users = transactionTemplate.execute(status -> {
+            List<User> expired = userRepository.findExpiredLocksForUpdate(cutoff, PageRequest.of(0, batchSize));
+            if (expired.isEmpty()) {
+                return List.<User>of();
+            }
+            List<Long> ids = expired.stream().map(User::getId).toList();
+            List<User> unlocked = expired;
+            if (userRepository.unlockExpired(ids, cutoff) != expired.size()) {
+                // Not expected under the row locks, but events must never claim an unlock that did not happen
+                Set<Long> unlockedIds = userRepository.findUnlockedIds(ids);
+                unlocked = expired.stream().filter(user -> unlockedIds.contains(user.getId())).toList();
+            }
+            if (!unlocked.isEmpty()) {
+                outboxService.recordAll(UserEventType.UNLOCKED, unlocked);
+            }
+            return unlocked;
+        });
+        if (users == null || users.isEmpty()) {
+            return 0;
+        }
+
+        for (User user : users) {
+            principalCache.invalidate(user.getUsername());
+            auditLogService.record(AuditEventType.UNLOCK, user.getUsername(), "Lock expired");
+        }
+        batchSizeSummary.record(users.size());
+        unlockedCounter.increment(users.size());
+        return users.size();
+    }
+}
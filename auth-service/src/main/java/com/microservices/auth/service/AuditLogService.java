@@ -0,0 +1,192 @@
+package com.microservices.auth.service;
+
+import com.microservices.auth.entity.AuditEventType;
+import com.microservices.auth.entity.AuthAuditEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentication audit trail that never adds a write to the request path.
+ * <p>
+ * {@link #record} only offers the event to a bounded queue; when the queue is full the event is dropped
+ * and counted in {@code auth.audit.events.dropped} rather than slowing logins down. A single writer thread
+ * drains the queue and appends batches to {@code auth_audit_events} with one JDBC batch insert.
+ */
+@Slf4j
+@Service
+public class AuditLogService implements SmartLifecycle {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO auth_audit_events (occurred_at, event_type, username, client_ip, detail) VALUES (?, ?, ?, ?, ?)";
+    private static final int MAX_DETAIL_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<AuthAuditEvent> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final int maxWriteAttempts;
+
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuditLogService(JdbcTemplate jdbcTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.audit.queue-capacity:10000}") int queueCapacity,
+                           @Value("${app.audit.batch-size:500}") int batchSize,
+                           @Value("${app.audit.flush-interval-ms:1000}") long flushIntervalMillis,
+                           @Value("${app.audit.max-write-attempts:3}") int maxWriteAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = Duration.ofMillis(flushIntervalMillis);
+        this.maxWriteAttempts = maxWriteAttempts;
+
+        Gauge.builder("auth.audit.queue.size", queue, BlockingQueue::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("auth.audit.events.dropped")
+                .description("Audit events discarded because the queue was full")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("auth.audit.events.written").register(meterRegistry);
+        this.failedCounter = Counter.builder("auth.audit.events.failed")
+                .description("Audit events discarded after repeated write failures")
+                .register(meterRegistry);
+    }
+
+    public void record(AuditEventType type, String username, String detail) {
+        record(type, username, null, detail);
+    }
+
+    public void record(AuditEventType type, String username, String clientIp, String detail) {
+        AuthAuditEvent event = new AuthAuditEvent();
+        event.setOccurredAt(LocalDateTime.now());
+        event.setEventType(type);
+        event.setUsername(username);
+        event.setClientIp(clientIp);
+        event.setDetail(detail != null && detail.length() > MAX_DETAIL_LENGTH ? detail.substring(0, MAX_DETAIL_LENGTH) : detail);
+
+        if (!queue.offer(event)) {
+            droppedCounter.increment();
+        }
+    }
+
+    /**
+     * Records an outcome that only happened if the surrounding transaction commits, e.g. a successful login whose
+     * token issue can still roll back. Without a transaction the event is recorded right away.
+     */
+    public void recordAfterCommit(AuditEventType type, String username, String clientIp, String detail) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(type, username, clientIp, detail);
+                }
+            });
+        } else {
+            record(type, username, clientIp, detail);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "auth-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(flushInterval.toMillis() * 5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Final flush of whatever is still queued
+        List<AuthAuditEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            write(remaining.subList(from, Math.min(remaining.size(), from + batchSize)));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drainLoop() {
+        List<AuthAuditEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                AuthAuditEvent first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Audit writer loop failed: {}", e.getMessage());
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuthAuditEvent> batch) {
+        for (int attempt = 1; attempt <= maxWriteAttempts; attempt++) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+                    ps.setTimestamp(1, Timestamp.valueOf(event.getOccurredAt()));
+                    ps.setString(2, event.getEventType().name());
+                    ps.setString(3, event.getUsername());
+                    ps.setString(4, event.getClientIp());
+                    ps.setString(5, event.getDetail());
+                });
+                writtenCounter.increment(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Writing {} audit events failed (attempt {}/{}): {}", batch.size(), attempt, maxWriteAttempts, e.getMessage());
+                if (attempt < maxWriteAttempts) {
+                    try {
+                        Thread.sleep(flushInterval.toMillis() * attempt);
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+        }
+        failedCounter.increment(batch.size());
+        log.error("Discarded {} audit events after {} failed write attempts", batch.size(), maxWriteAttempts);
+    }
+}
@@ -0,0 +1,133 @@
+package com.microservices.auth.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Keeps {@code auth_audit_events} partitioned by UTC day: splits the coming days off {@code pmax} ahead of time
+ * and drops the partitions of days older than the retention, which deletes them without a row-by-row DELETE.
+ * <p>
+ * Only the replica holding the {@value #LOCK_NAME} lease runs it. Does nothing when the table is not
+ * partitioned, e.g. when Hibernate created it instead of {@code scripts/mysql-init.sql}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.audit.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class AuditPartitionMaintainer {
+
+    static final String LOCK_NAME = "audit-partition-maintenance";
+
+    private static final String PARTITIONS_SQL =
+            "SELECT partition_name FROM information_schema.partitions " +
+            "WHERE table_schema = DATABASE() AND table_name = 'auth_audit_events' AND partition_name IS NOT NULL " +
+            "ORDER BY partition_ordinal_position";
+    private static final String MAX_PARTITION = "pmax";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchedulerLockService schedulerLockService;
+    private final int retentionDays;
+    private final int daysAhead;
+    private final Duration lease;
+
+    public AuditPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                    SchedulerLockService schedulerLockService,
+                                    @Value("${app.audit.retention-days:90}") int retentionDays,
+                                    @Value("${app.audit.partitions.days-ahead:7}") int daysAhead,
+                                    @Value("${app.audit.partitions.lease-ms:3600000}") long leaseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schedulerLockService = schedulerLockService;
+        this.retentionDays = retentionDays;
+        this.daysAhead = daysAhead;
+        this.lease = Duration.ofMillis(leaseMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${app.audit.partitions.interval-ms:3600000}")
+    public void maintain() {
+        if (!schedulerLockService.tryAcquire(LOCK_NAME, lease)) {
+            return;
+        }
+        List<String> partitions = jdbcTemplate.queryForList(PARTITIONS_SQL, String.class);
+        if (!partitions.contains(MAX_PARTITION)) {
+            log.debug("auth_audit_events has no {} partition, skipping partition maintenance", MAX_PARTITION);
+            return;
+        }
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        addPartitions(partitions, today);
+        dropPartitions(partitions, today.minusDays(retentionDays));
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        schedulerLockService.release(LOCK_NAME);
+    }
+
+    // One partition per day from the day after the newest existing one (or today) up to daysAhead from now
+    private void addPartitions(List<String> partitions, LocalDate today) {
+        LocalDate next = partitions.stream()
+                .map(AuditPartitionMaintainer::day)
+                .filter(Objects::nonNull)
+                .max(LocalDate::compareTo)
+                .map(newest -> newest.plusDays(1))
+                .orElse(today);
+        LocalDate last = today.plusDays(daysAhead);
+        if (next.isAfter(last)) {
+            return;
+        }
+
+        StringJoiner split = new StringJoiner(", ",
+                "ALTER TABLE auth_audit_events REORGANIZE PARTITION " + MAX_PARTITION + " INTO (",
+                ", PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE)");
+        for (LocalDate day = next; !day.isAfter(last); day = day.plusDays(1)) {
+            split.add("PARTITION p" + day.format(DAY) + " VALUES LESS THAN (" + startOf(day.plusDays(1)) + ")");
+        }
+        jdbcTemplate.execute(split.toString());
+        log.info("Added auth_audit_events partitions from {} to {}", next, last);
+    }
+
+    private void dropPartitions(List<String> partitions, LocalDate oldestKept) {
+        List<String> expired = partitions.stream()
+                .filter(name -> {
+                    LocalDate day = day(name);
+                    return day != null && day.isBefore(oldestKept);
+                })
+                .toList();
+        if (expired.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE auth_audit_events DROP PARTITION " + String.join(", ", expired));
+        log.info("Dropped {} auth_audit_events partitions older than {}", expired.size(), oldestKept);
+    }
+
+    // Bounds are epoch seconds like UNIX_TIMESTAMP(occurred_at), so they don't depend on the session time zone
+    private static long startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+    }
+
+    // pYYYYMMDD holds the rows of that UTC day; any other name is not a daily partition
+    private static LocalDate day(String partition) {
+        if (partition.length() != 9 || partition.charAt(0) != 'p') {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(1), DAY);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
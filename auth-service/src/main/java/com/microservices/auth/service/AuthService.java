@@ -1,24 +1,36 @@
 package com.microservices.auth.service;
 
 import com.microservices.auth.dto.*;
+import com.microservices.auth.entity.AuditEventType;
 import com.microservices.auth.entity.Role;
 import com.microservices.auth.entity.User;
+import com.microservices.auth.entity.UserEventType;
 import com.microservices.auth.repository.RoleRepository;
 import com.microservices.auth.repository.UserRepository;
+import com.microservices.auth.security.CredentialStuffingDetector;
 import com.microservices.common.core.dto.UserPrincipal;
 import com.microservices.common.core.enums.ResponseCode;
 import com.microservices.common.core.exception.AuthenticationException;
 import com.microservices.common.core.exception.BusinessException;
 import com.microservices.common.core.util.JwtUtil;
+import com.microservices.common.core.util.UniqueConstraints;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -26,10 +38,23 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AuthService {
 
+    private static final Map<String, ResponseCode> UNIQUE_CONSTRAINTS = Map.of(
+            User.UK_USERNAME, ResponseCode.USERNAME_ALREADY_EXISTS,
+            User.UK_EMAIL, ResponseCode.EMAIL_ALREADY_EXISTS);
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final PrincipalCache principalCache;
+    private final RefreshTokenService refreshTokenService;
+    private final OutboxService outboxService;
+    private final AuditLogService auditLogService;
+    private final CredentialStuffingDetector stuffingDetector;
+
+    // Duplicate submissions of one refresh token share its rotation only while it is in flight; once it has
+    // completed, the token is spent and a resubmission goes through reuse detection
+    private final Map<String, CompletableFuture<AuthResponse>> inFlightRefreshes = new ConcurrentHashMap<>();
 
     @Value("${app.max-login-attempts:5}")
     private int maxLoginAttempts;
@@ -37,79 +62,92 @@ public class AuthService {
     @Value("${app.account-lock-duration-minutes:30}")
     private long accountLockDurationMinutes;
 
-    @Transactional
+    @Transactional(noRollbackFor = AuthenticationException.class)
     public AuthResponse login(LoginRequest request) {
+        return login(request, null);
+    }
+
+    // Failed-attempt counters, locks and their outbox events must commit even though the login is rejected
+    @Transactional(noRollbackFor = AuthenticationException.class)
+    public AuthResponse login(LoginRequest request, String clientIp) {
         log.info("Login attempt for username: {}", request.getUsername());
 
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new AuthenticationException(ResponseCode. INVALID_CREDENTIALS, "Invalid username or password"));
-
-        // Check if account is locked
-        if (!user.isAccountNonLocked()) {
-            if (user.getLockedAt() != null &&
-                    user.getLockedAt().plusMinutes(accountLockDurationMinutes).isBefore(LocalDateTime.now())) {
-                // Unlock account after lock duration
-                unlockAccount(user);
-            } else {
-                throw new AuthenticationException(ResponseCode.ACCOUNT_LOCKED, "Account is locked due to multiple failed login attempts");
-            }
+        // Cheap sketch lookup first, so that stuffing traffic never reaches the database or BCrypt
+        Optional<CredentialStuffingDetector.Dimension> blocked = stuffingDetector.acquire(request.getUsername(), clientIp);
+        if (blocked.isPresent()) {
+            auditLogService.record(AuditEventType.LOGIN_FAILURE, request.getUsername(), clientIp,
+                    "Blocked: too many failures per " + blocked.get().name().toLowerCase(Locale.ROOT));
+            throw new BusinessException(ResponseCode.TOO_MANY_REQUESTS, "Too many failed login attempts, try again later");
         }
 
-        // Check if account is enabled
-        if (!user.isEnabled()) {
-            throw new AuthenticationException(ResponseCode.ACCOUNT_DISABLED, "Account is disabled");
-        }
+        // Only unknown usernames and wrong passwords count against the budget
+        boolean credentialsRejected = false;
+        try {
+            User user = userRepository.findByUsername(request.getUsername()).orElse(null);
+            if (user == null) {
+                credentialsRejected = true;
+                auditLogService.record(AuditEventType.LOGIN_FAILURE, request.getUsername(), clientIp, "Unknown username");
+                throw new AuthenticationException(ResponseCode.INVALID_CREDENTIALS, "Invalid username or password");
+            }
 
-        // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            handleFailedLogin(user);
-            throw new AuthenticationException(ResponseCode.INVALID_CREDENTIALS, "Invalid username or password");
-        }
+            if (!user.isAccountNonLocked()) {
+                user = unlockIfExpired(user, clientIp);
+            }
 
-        // Reset login attempts on successful login
-        if (user.getLoginAttempts() > 0) {
-            userRepository.updateLoginAttempts(user.getUsername(), 0);
-        }
+            // Check if account is enabled
+            if (!user.isEnabled()) {
+                auditLogService.record(AuditEventType.LOGIN_FAILURE, user.getUsername(), clientIp, "Account disabled");
+                throw new AuthenticationException(ResponseCode.ACCOUNT_DISABLED, "Account is disabled");
+            }
 
-        // Update last login time
-        userRepository.updateLastLoginTime(user.getUsername(), LocalDateTime.now());
+            // Verify password
+            if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+                credentialsRejected = true;
+                auditLogService.record(AuditEventType.LOGIN_FAILURE, user.getUsername(), clientIp, "Bad credentials");
+                handleFailedLogin(user);
+                throw new AuthenticationException(ResponseCode.INVALID_CREDENTIALS, "Invalid username or password");
+            }
 
-        // Generate tokens
-        Set<String> roles = user.getRoles().stream()
-                .map(Role::getName)
-                .collect(Collectors.toSet());
+            // Reset login attempts on successful login
+            if (user.getLoginAttempts() > 0) {
+                userRepository.updateLoginAttempts(user.getUsername(), 0);
+            }
 
-        String accessToken = jwtUtil.generateToken(user.getUsername(), roles);
-        String refreshToken = jwtUtil.generateRefreshToken(user.getUsername());
+            // Update last login time
+            userRepository.updateLastLoginTime(user.getUsername(), LocalDateTime.now());
+            principalCache.invalidate(user.getUsername());
 
-        log.info("Successful login for user: {}", user.getUsername());
+            // Generate tokens
+            Set<String> roles = user.getRoles().stream()
+                    .map(Role::getName)
+                    .collect(Collectors.toSet());
 
-        return AuthResponse.builder()
-                .accessToken(accessToken)
-                .refreshToken(refreshToken)
-                .tokenType("Bearer")
-                .expiresIn(86400) // 24 hours in seconds
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .roles(roles)
-                .loginTime(LocalDateTime.now())
-                .build();
+            String accessToken = jwtUtil.generateToken(user.getUsername(), roles);
+            String refreshToken = refreshTokenService.issue(user);
+
+            log.info("Successful login for user: {}", user.getUsername());
+            auditLogService.recordAfterCommit(AuditEventType.LOGIN_SUCCESS, user.getUsername(), clientIp, null);
+
+            return AuthResponse.builder()
+                    .accessToken(accessToken)
+                    .refreshToken(refreshToken)
+                    .tokenType("Bearer")
+                    .expiresIn(86400) // 24 hours in seconds
+                    .username(user.getUsername())
+                    .email(user.getEmail())
+                    .roles(roles)
+                    .loginTime(LocalDateTime.now())
+                    .build();
+        } finally {
+            stuffingDetector.release(request.getUsername(), clientIp, credentialsRejected);
+        }
     }
 
     @Transactional
     public UserDto register(RegisterRequest request) {
         log.info("Registration attempt for username: {}", request.getUsername());
 
-        // Check if username already exists
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new BusinessException(ResponseCode.USERNAME_ALREADY_EXISTS, "Username already exists");
-        }
-
-        // Check if email already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new BusinessException(ResponseCode.EMAIL_ALREADY_EXISTS, "Email already exists");
-        }
-
+        // Uniqueness is enforced by the uk_users_* constraints on insert, not by pre-checks
         // Create new user
         User user = new User();
         user.setUsername(request.getUsername());
@@ -128,7 +166,15 @@ public class AuthService {
                 });
         user.addRole(userRole);
 
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            ResponseCode code = UniqueConstraints.resolve(e, UNIQUE_CONSTRAINTS).orElseThrow(() -> e);
+            throw new BusinessException(code, code.getMessage());
+        }
+        outboxService.record(UserEventType.REGISTERED, savedUser);
+        principalCache.invalidate(savedUser.getUsername());
 
         log.info("User registered successfully: {}", savedUser.getUsername());
 
@@ -138,14 +184,50 @@ public class AuthService {
     public AuthResponse refreshToken(RefreshTokenRequest request) {
         log.info("Refresh token request");
 
+        String token = request.getRefreshToken();
+        CompletableFuture<AuthResponse> pending = new CompletableFuture<>();
+        CompletableFuture<AuthResponse> inFlight = inFlightRefreshes.putIfAbsent(token, pending);
+        if (inFlight != null) {
+            log.debug("Duplicate refresh request served from in-flight rotation");
+            return awaitRefresh(inFlight);
+        }
+
         try {
-            if (!jwtUtil.validateToken(request.getRefreshToken())) {
-                throw new AuthenticationException(ResponseCode.INVALID_TOKEN, "Invalid refresh token");
-            }
+            pending.complete(rotateRefreshToken(token));
+        } catch (RuntimeException e) {
+            pending.completeExceptionally(e);
+        } finally {
+            inFlightRefreshes.remove(token, pending);
+        }
+        return awaitRefresh(pending);
+    }
+
+    public void logout(String refreshToken) {
+        try {
+            Claims claims = jwtUtil.parseToken(refreshToken);
+            refreshTokenService.revokeFamily(claims);
+            auditLogService.record(AuditEventType.LOGOUT, claims.getSubject(), null);
+        } catch (AuthenticationException e) {
+            log.debug("Ignoring invalid refresh token on logout: {}", e.getMessage());
+        }
+    }
+
+    public void logoutAll(String accessToken) {
+        if (!jwtUtil.validateToken(accessToken)) {
+            throw new AuthenticationException(ResponseCode.INVALID_TOKEN, "Invalid token");
+        }
+        String username = jwtUtil.extractUsername(accessToken);
+        refreshTokenService.revokeAll(username);
+        auditLogService.record(AuditEventType.LOGOUT_ALL, username, null);
+    }
 
-            String username = jwtUtil.extractUsername(request.getRefreshToken());
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new AuthenticationException(ResponseCode.USER_NOT_FOUND, "User not found"));
+    private AuthResponse rotateRefreshToken(String token) {
+        String subject = null;
+        try {
+            Claims claims = jwtUtil.parseToken(token);
+            subject = claims.getSubject();
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotate(token, claims);
+            User user = rotation.user();
 
             if (!user.isEnabled()) {
                 throw new AuthenticationException(ResponseCode.ACCOUNT_DISABLED, "Account is disabled");
@@ -156,11 +238,11 @@ public class AuthService {
                     .collect(Collectors.toSet());
 
             String newAccessToken = jwtUtil.generateToken(user.getUsername(), roles);
-            String newRefreshToken = jwtUtil.generateRefreshToken(user.getUsername());
+            auditLogService.record(AuditEventType.REFRESH, user.getUsername(), null);
 
             return AuthResponse.builder()
                     .accessToken(newAccessToken)
-                    .refreshToken(newRefreshToken)
+                    .refreshToken(rotation.refreshToken())
                     .tokenType("Bearer")
                     .expiresIn(86400)
                     .username(user.getUsername())
@@ -169,12 +251,30 @@ public class AuthService {
                     .loginTime(LocalDateTime.now())
                     .build();
 
+        } catch (AuthenticationException e) {
+            log.warn("Refresh token rejected: {}", e.getMessage());
+            auditLogService.record(AuditEventType.REFRESH_FAILURE,
+                    subject != null ? subject : jwtUtil.extractVerifiedSubject(token), e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("Refresh token validation failed: {}", e.getMessage());
+            auditLogService.record(AuditEventType.REFRESH_FAILURE,
+                    subject != null ? subject : jwtUtil.extractVerifiedSubject(token), e.getMessage());
             throw new AuthenticationException(ResponseCode.INVALID_TOKEN, "Invalid refresh token");
         }
     }
 
+    private AuthResponse awaitRefresh(CompletableFuture<AuthResponse> refresh) {
+        try {
+            return refresh.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
     public UserPrincipal validateToken(String token) {
         if (!jwtUtil.validateToken(token)) {
             throw new AuthenticationException(ResponseCode.INVALID_TOKEN, "Invalid token");
@@ -183,17 +283,35 @@ public class AuthService {
         String username = jwtUtil.extractUsername(token);
         Set<String> roles = jwtUtil.extractRoles(token);
 
-        User user = userRepository.findByUsername(username)
+        return principalCache.get(username, roles)
                 .orElseThrow(() -> new AuthenticationException(ResponseCode.USER_NOT_FOUND, "User not found"));
+    }
+
+    /**
+     * Clears a lock that has run out instead of waiting for {@link AccountUnlockSweeper}, so that failures from
+     * here on count towards a new lock. Rejects the login while the lock still holds.
+     */
+    private User unlockIfExpired(User user, String clientIp) {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(accountLockDurationMinutes);
+        if (user.getLockedAt() == null || !user.getLockedAt().isBefore(cutoff)) {
+            auditLogService.record(AuditEventType.LOGIN_FAILURE, user.getUsername(), clientIp, "Account locked");
+            throw new AuthenticationException(ResponseCode.ACCOUNT_LOCKED, "Account is locked due to multiple failed login attempts");
+        }
 
-        return new UserPrincipal(
-                user.getId(),
-                user.getUsername(),
-                user.getEmail(),
-                roles,
-                user.isEnabled(),
-                user.getLastLoginAt()
-        );
+        boolean unlocked = userRepository.unlockIfExpired(user.getUsername(), cutoff) > 0;
+        // Zero rows means the sweeper got there first; either way the row now holds the reset counter
+        User current = userRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new AuthenticationException(ResponseCode.INVALID_CREDENTIALS, "Invalid username or password"));
+        if (unlocked) {
+            outboxService.record(UserEventType.UNLOCKED, current);
+            auditLogService.record(AuditEventType.UNLOCK, current.getUsername(), clientIp, "Lock expired");
+            principalCache.invalidate(current.getUsername());
+        } else if (!current.isAccountNonLocked()) {
+            // Locked again by a concurrent login since it was read
+            auditLogService.record(AuditEventType.LOGIN_FAILURE, current.getUsername(), clientIp, "Account locked");
+            throw new AuthenticationException(ResponseCode.ACCOUNT_LOCKED, "Account is locked due to multiple failed login attempts");
+        }
+        return current;
     }
 
     private void handleFailedLogin(User user) {
@@ -202,17 +320,13 @@ public class AuthService {
 
         if (attempts >= maxLoginAttempts) {
             userRepository.updateAccountLocked(user.getUsername(), false, LocalDateTime.now());
+            outboxService.record(UserEventType.LOCKED, user);
+            auditLogService.record(AuditEventType.LOCKOUT, user.getUsername(), attempts + " failed attempts");
+            principalCache.invalidate(user.getUsername());
             log.warn("Account locked for user: {} after {} failed attempts", user.getUsername(), attempts);
         }
     }
 
-    @Transactional
-    private void unlockAccount(User user) {
-        userRepository.updateAccountLocked(user.getUsername(), true, null);
-        userRepository.updateLoginAttempts(user.getUsername(), 0);
-        log.info("Account unlocked for user: {}", user.getUsername());
-    }
-
     private UserDto convertToUserDto(User user) {
         return UserDto.builder()
                 .id(user.getId())
@@ -0,0 +1,219 @@
+package com.microservices.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.auth.dto.EventDeliveryResult;
+import com.microservices.auth.dto.UserLifecycleEvent;
+import com.microservices.auth.entity.OutboxEvent;
+import com.microservices.auth.repository.OutboxEventRepository;
+import com.microservices.common.core.dto.ApiResponse;
+import com.microservices.common.core.util.JwtUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls the outbox and delivers events to user-service in id order, in batches.
+ * <p>
+ * Delivery is at-least-once: a batch is marked published only after user-service acknowledged it, and a
+ * failed batch is retried from its first event on the next poll. user-service skips events it has already
+ * applied, which also makes concurrent relays on several auth-service instances harmless.
+ * <p>
+ * After a failed batch, events go one at a time until the failing one is found. It is parked once it has
+ * failed {@code app.outbox.max-attempts} times, unless the failure says nothing about the event (user-service
+ * unreachable or unavailable, or the service token refused). Events user-service rejects and payloads that
+ * cannot be read are parked at once. Parked events stay in the table until requeued.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final String SERVICE_SUBJECT = "auth-service";
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final Set<Integer> NOT_EVENT_SPECIFIC_STATUSES = Set.of(401, 403, 429, 502, 503, 504);
+    private static final ParameterizedTypeReference<ApiResponse<EventDeliveryResult>> RESULT_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JwtUtil jwtUtil;
+    private final ObjectMapper objectMapper;
+    private final RestClient restClient;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retention;
+
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong parkedEvents = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Timer deliveryTimer;
+    private final Counter deliveredCounter;
+    private final Counter failureCounter;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       TransactionTemplate transactionTemplate,
+                       JwtUtil jwtUtil,
+                       ObjectMapper objectMapper,
+                       @LoadBalanced RestClient.Builder loadBalancedRestClientBuilder,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.user-service-url:http://user-service}") String userServiceUrl,
+                       @Value("${app.outbox.batch-size:100}") int batchSize,
+                       @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${app.outbox.retention-hours:24}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jwtUtil = jwtUtil;
+        this.objectMapper = objectMapper;
+        this.restClient = loadBalancedRestClientBuilder.clone().baseUrl(userServiceUrl).build();
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofHours(retentionHours);
+
+        Gauge.builder("outbox.events.pending", pendingEvents, AtomicLong::get)
+                .description("Outbox events not yet delivered to user-service")
+                .register(meterRegistry);
+        Gauge.builder("outbox.events.parked", parkedEvents, AtomicLong::get)
+                .description("Outbox events the relay gave up on")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest undelivered outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.deliveryTimer = Timer.builder("outbox.delivery")
+                .description("Time to deliver one outbox batch")
+                .register(meterRegistry);
+        this.deliveredCounter = Counter.builder("outbox.events.delivered").register(meterRegistry);
+        this.failureCounter = Counter.builder("outbox.delivery.failures").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        boolean more;
+        do {
+            List<OutboxEvent> pending = outboxEventRepository.findByPublishedAtIsNullAndParkedAtIsNullOrderByIdAsc(
+                    PageRequest.of(0, batchSize));
+            if (pending.isEmpty()) {
+                break;
+            }
+            // A batch that failed before is retried event by event, so one bad event cannot hold back the rest
+            List<OutboxEvent> batch = pending.get(0).getAttempts() > 0 ? pending.subList(0, 1) : pending;
+            more = deliver(batch) && (batch.size() < pending.size() || pending.size() == batchSize);
+        } while (more);
+
+        refreshLag();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-interval-ms:3600000}")
+    public void deletePublishedEvents() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} published outbox events", deleted);
+        }
+    }
+
+    private boolean deliver(List<OutboxEvent> batch) {
+        List<OutboxEvent> readable = new ArrayList<>(batch.size());
+        List<UserLifecycleEvent> wireEvents = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            try {
+                wireEvents.add(toWireEvent(event));
+                readable.add(event);
+            } catch (IOException e) {
+                park(List.of(event.getId()), "Unreadable payload: " + e.getMessage());
+            }
+        }
+        if (readable.isEmpty()) {
+            return true;
+        }
+
+        List<Long> ids = readable.stream().map(OutboxEvent::getId).toList();
+        ApiResponse<EventDeliveryResult> response;
+        try {
+            response = deliveryTimer.record(() -> restClient.post()
+                    .uri("/users/internal/auth-events")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken(SERVICE_SUBJECT, Set.of("SERVICE")))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(wireEvents)
+                    .retrieve()
+                    .body(RESULT_TYPE));
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.incrementAttempts(ids));
+            int attempts = readable.get(0).getAttempts() + 1;
+            if (ids.size() == 1 && attempts >= maxAttempts && !isNotEventSpecific(e)) {
+                // Out of the way now, so the events behind it can go
+                park(ids, "Delivery failed " + attempts + " times: " + e.getMessage());
+                return true;
+            }
+            log.warn("Outbox delivery of {} events (first id {}, attempt {}) failed: {}",
+                    ids.size(), ids.get(0), attempts, e.getMessage());
+            return false;
+        }
+
+        Map<Long, String> failed = response != null && response.getData() != null && response.getData().getFailed() != null
+                ? response.getData().getFailed()
+                : Map.of();
+        List<Long> published = ids.stream().filter(id -> !failed.containsKey(id)).toList();
+        if (!published.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markPublished(published, LocalDateTime.now()));
+        }
+        failed.forEach((id, reason) -> park(List.of(id), "Rejected by user-service: " + reason));
+        deliveredCounter.increment(published.size());
+        log.debug("Delivered {} outbox events up to id {}", published.size(), ids.get(ids.size() - 1));
+        return true;
+    }
+
+    private void park(List<Long> ids, String error) {
+        String reason = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.park(ids, LocalDateTime.now(), reason));
+        log.error("Parked outbox events {}: {}", ids, reason);
+    }
+
+    // Failures that would hit any event alike; they are retried without counting towards parking
+    private static boolean isNotEventSpecific(RuntimeException e) {
+        return e instanceof ResourceAccessException
+                || e instanceof RestClientResponseException response
+                && NOT_EVENT_SPECIFIC_STATUSES.contains(response.getStatusCode().value());
+    }
+
+    private UserLifecycleEvent toWireEvent(OutboxEvent event) throws IOException {
+        UserLifecycleEvent payload = objectMapper.readValue(event.getPayload(), UserLifecycleEvent.class);
+        payload.setEventId(event.getId());
+        payload.setType(event.getEventType().name());
+        return payload;
+    }
+
+    private void refreshLag() {
+        pendingEvents.set(outboxEventRepository.countByPublishedAtIsNullAndParkedAtIsNull());
+        parkedEvents.set(outboxEventRepository.countByParkedAtIsNotNull());
+        LocalDateTime oldest = outboxEventRepository.findOldestUnpublishedCreatedAt();
+        lagSeconds.set(oldest != null ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).toSeconds()) : 0);
+    }
+}
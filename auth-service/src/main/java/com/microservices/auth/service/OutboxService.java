@@ -0,0 +1,90 @@
+package com.microservices.auth.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.auth.dto.UserLifecycleEvent;
+import com.microservices.auth.entity.OutboxEvent;
+import com.microservices.auth.entity.Role;
+import com.microservices.auth.entity.User;
+import com.microservices.auth.entity.UserEventType;
+import com.microservices.auth.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Appends user lifecycle events to the outbox. Both append methods require an active transaction so the
+ * event commits or rolls back together with the change it describes.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO outbox_events (aggregate_id, event_type, payload, attempts, created_at) VALUES (?, ?, ?, 0, ?)";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(UserEventType type, User user) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateId(user.getUsername());
+        event.setEventType(type);
+        event.setPayload(payload(type, user, LocalDateTime.now()));
+        outboxEventRepository.save(event);
+    }
+
+    /**
+     * Batch variant for bulk operations that write users through JDBC.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(UserEventType type, List<User> users) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp createdAt = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, users, users.size(), (ps, user) -> {
+            ps.setString(1, user.getUsername());
+            ps.setString(2, type.name());
+            ps.setString(3, payload(type, user, now));
+            ps.setTimestamp(4, createdAt);
+        });
+    }
+
+    /**
+     * Hands parked events back to the relay with a fresh attempt count.
+     */
+    @Transactional
+    public int requeueParked() {
+        return outboxEventRepository.requeueParked();
+    }
+
+    private String payload(UserEventType type, User user, LocalDateTime occurredAt) {
+        // Lock changes are written with bulk updates, so the entity may still hold the previous state
+        boolean locked = switch (type) {
+            case LOCKED -> true;
+            case UNLOCKED -> false;
+            default -> !user.isAccountNonLocked();
+        };
+        UserLifecycleEvent event = UserLifecycleEvent.builder()
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .enabled(user.isEnabled())
+                .locked(locked)
+                .roles(user.getRoles().stream().map(Role::getName).collect(Collectors.toSet()))
+                .occurredAt(occurredAt)
+                .build();
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize user event for " + user.getUsername(), e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.microservices.auth.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.microservices.auth.entity.User;
+import com.microservices.auth.repository.UserRepository;
+import com.microservices.common.core.dto.UserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Caches the user columns needed to build a {@link UserPrincipal} for token validation.
+ * Roles are not cached; they always come from the validated token itself.
+ * Concurrent misses for the same username share a single database load.
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    private final LoadingCache<String, Optional<UserPrincipal>> cache;
+
+    public PrincipalCache(UserRepository userRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.principal-cache.ttl-seconds:60}") long ttlSeconds,
+                          @Value("${app.principal-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build(username -> userRepository.findByUsername(username).map(PrincipalCache::toPrincipal));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.principal");
+    }
+
+    /**
+     * Returns the principal for the given username with the supplied roles, or empty if no such user exists.
+     */
+    public Optional<UserPrincipal> get(String username, Set<String> roles) {
+        return cache.get(username).map(cached -> new UserPrincipal(
+                cached.getId(),
+                cached.getUsername(),
+                cached.getEmail(),
+                roles,
+                cached.isEnabled(),
+                cached.getLastLoginAt()
+        ));
+    }
+
+    /**
+     * Drops the cached entry; call whenever the account is disabled, locked, unlocked or its roles change.
+     * Inside a transaction the entry is dropped after commit, so a concurrent load cannot re-cache the state
+     * the transaction is about to replace.
+     */
+    public void invalidate(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(username);
+                }
+            });
+        } else {
+            evict(username);
+        }
+    }
+
+    private void evict(String username) {
+        cache.invalidate(username);
+        log.debug("Principal cache invalidated for user: {}", username);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static UserPrincipal toPrincipal(User user) {
+        return new UserPrincipal(
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                Set.of(),
+                user.isEnabled(),
+                user.getLastLoginAt()
+        );
+    }
+}
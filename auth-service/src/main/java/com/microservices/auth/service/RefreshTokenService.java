@@ -0,0 +1,148 @@
+package com.microservices.auth.service;
+
+import com.microservices.auth.entity.RefreshTokenFamily;
+import com.microservices.auth.entity.User;
+import com.microservices.auth.repository.RefreshTokenFamilyRepository;
+import com.microservices.auth.repository.UserRepository;
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.AuthenticationException;
+import com.microservices.common.core.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Server-side refresh token families: rotation on every use, reuse detection that revokes the
+ * whole family, and logout-everywhere through a per-user epoch (one UPDATE regardless of session count).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private final RefreshTokenFamilyRepository familyRepository;
+    private final UserRepository userRepository;
+    private final JwtUtil jwtUtil;
+
+    // A token rotated less than this long ago is treated as a concurrent duplicate, not as reuse
+    @Value("${app.refresh-token.reuse-grace-seconds:10}")
+    private long reuseGraceSeconds;
+
+    @Transactional
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    private String issue(User user, String familyId) {
+        String tokenId = UUID.randomUUID().toString();
+
+        RefreshTokenFamily family = new RefreshTokenFamily();
+        family.setId(familyId);
+        family.setUsername(user.getUsername());
+        family.setCurrentTokenId(tokenId);
+        family.setUserEpoch(user.getTokenEpoch());
+        family.setExpiresAt(expiresAt());
+        familyRepository.save(family);
+
+        return jwtUtil.generateRefreshToken(user.getUsername(), tokenId, familyId);
+    }
+
+    /**
+     * Validates the presented refresh token against its family and rotates it.
+     * Revocations performed here must survive the AuthenticationException thrown afterwards.
+     */
+    @Transactional(noRollbackFor = AuthenticationException.class)
+    public Rotation rotate(String token, Claims claims) {
+        String username = claims.getSubject();
+        String tokenId = claims.getId();
+        String familyId = claims.get(JwtUtil.FAMILY_ID_CLAIM, String.class);
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new AuthenticationException(ResponseCode.USER_NOT_FOUND, "User not found"));
+
+        if (familyId == null || tokenId == null) {
+            // Stateless token issued before rotation was introduced; only genuine refresh tokens
+            // (no roles claim) are migrated, into a family named after the token itself, so presenting
+            // the same legacy token a second time is reuse like any other
+            if (claims.get("roles") != null) {
+                throw new AuthenticationException(ResponseCode.INVALID_TOKEN, "Invalid refresh token");
+            }
+            String legacyFamilyId = UUID.nameUUIDFromBytes(token.getBytes(StandardCharsets.UTF_8)).toString();
+            if (familyRepository.existsById(legacyFamilyId)) {
+                familyRepository.revoke(legacyFamilyId);
+                log.warn("Legacy refresh token reuse detected for user: {}, family {} revoked", username, legacyFamilyId);
+                throw new AuthenticationException(ResponseCode.INVALID_TOKEN, "Refresh token has been revoked");
+            }
+            return new Rotation(user, issue(user, legacyFamilyId));
+        }
+
+        RefreshTokenFamily family = familyRepository.findById(familyId)
+                .orElseThrow(() -> new AuthenticationException(ResponseCode.INVALID_TOKEN, "Invalid refresh token"));
+
+        if (family.isRevoked() || family.getUserEpoch() != user.getTokenEpoch() || !family.getUsername().equals(username)) {
+            throw new AuthenticationException(ResponseCode.INVALID_TOKEN, "Refresh token has been revoked");
+        }
+
+        if (!tokenId.equals(family.getCurrentTokenId())) {
+            if (isRecentlyRotated(family, tokenId)) {
+                throw new AuthenticationException(ResponseCode.INVALID_TOKEN, "Refresh token already rotated");
+            }
+            familyRepository.revoke(familyId);
+            log.warn("Refresh token reuse detected for user: {}, family {} revoked", username, familyId);
+            throw new AuthenticationException(ResponseCode.INVALID_TOKEN, "Refresh token has been revoked");
+        }
+
+        String nextTokenId = UUID.randomUUID().toString();
+        if (familyRepository.rotate(familyId, tokenId, nextTokenId, LocalDateTime.now(), expiresAt()) == 0) {
+            // Lost a race with another replica rotating the same token
+            throw new AuthenticationException(ResponseCode.INVALID_TOKEN, "Refresh token already rotated");
+        }
+
+        return new Rotation(user, jwtUtil.generateRefreshToken(username, nextTokenId, familyId));
+    }
+
+    @Transactional
+    public void revokeFamily(Claims claims) {
+        String familyId = claims.get(JwtUtil.FAMILY_ID_CLAIM, String.class);
+        if (familyId != null) {
+            familyRepository.revoke(familyId);
+        }
+    }
+
+    @Transactional
+    public void revokeAll(String username) {
+        userRepository.incrementTokenEpoch(username);
+        log.info("All refresh tokens revoked for user: {}", username);
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${app.refresh-token.sweep-interval-ms:3600000}")
+    public void deleteExpiredFamilies() {
+        int deleted = familyRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh token families", deleted);
+        }
+    }
+
+    private boolean isRecentlyRotated(RefreshTokenFamily family, String tokenId) {
+        return tokenId.equals(family.getPreviousTokenId())
+                && family.getRotatedAt() != null
+                && family.getRotatedAt().plusSeconds(reuseGraceSeconds).isAfter(LocalDateTime.now());
+    }
+
+    private LocalDateTime expiresAt() {
+        return LocalDateTime.now().plus(jwtUtil.getRefreshTokenExpiration(), ChronoUnit.MILLIS);
+    }
+
+    public record Rotation(User user, String refreshToken) {
+    }
+}
@@ -0,0 +1,72 @@
+package com.microservices.auth.service;
+
+import com.microservices.auth.repository.SchedulerLockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Leader election for scheduled jobs through lease rows in {@code scheduler_locks}.
+ * <p>
+ * {@link #tryAcquire} claims or renews the lease with a single conditional UPDATE, so exactly one
+ * replica wins per lease; the current holder keeps renewing it on every run and a crashed holder is
+ * replaced once its lease expires.
+ */
+@Slf4j
+@Service
+public class SchedulerLockService {
+
+    private final SchedulerLockRepository lockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId;
+
+    public SchedulerLockService(SchedulerLockRepository lockRepository, TransactionTemplate transactionTemplate) {
+        this.lockRepository = lockRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.instanceId = hostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public boolean tryAcquire(String name, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(lease);
+
+        Integer claimed = transactionTemplate.execute(status -> lockRepository.claim(name, instanceId, now, until));
+        if (claimed != null && claimed > 0) {
+            return true;
+        }
+
+        if (lockRepository.existsById(name)) {
+            return false;
+        }
+        // First run against this database: the row does not exist yet and one replica gets to create it
+        try {
+            Integer inserted = transactionTemplate.execute(status -> lockRepository.insert(name, instanceId, until));
+            return inserted != null && inserted > 0;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        transactionTemplate.executeWithoutResult(status -> lockRepository.release(name, instanceId, LocalDateTime.now()));
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.microservices.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.auth.dto.ImportRowResult;
+import com.microservices.auth.dto.RegisterRequest;
+import com.microservices.auth.entity.Role;
+import com.microservices.auth.entity.User;
+import com.microservices.auth.entity.UserEventType;
+import com.microservices.auth.repository.RoleRepository;
+import com.microservices.auth.repository.UserRepository;
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+import com.microservices.common.core.util.RecordStreamReader;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk user import. Input is processed in chunks: rows are validated, checked for uniqueness with
+ * one set-based query per column, hashed in parallel on a bounded pool and inserted with a single
+ * JDBC batch plus one set-based role insert. Each chunk commits on its own, so a failure only
+ * affects the rows of that chunk.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private static final String DEFAULT_ROLE = "USER";
+
+    // Leading and trailing spaces are part of a password, so the CSV reader must not trim them away
+    private static final Set<String> VERBATIM_FIELDS = Set.of("password");
+
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (username, email, password, enabled, account_non_expired, account_non_locked, " +
+            "credentials_non_expired, login_attempts, token_epoch, created_at, updated_at) " +
+            "VALUES (?, ?, ?, TRUE, TRUE, TRUE, TRUE, 0, 0, ?, ?)";
+
+    private static final String INSERT_ROLES_SQL =
+            "INSERT INTO user_roles (user_id, role_id) " +
+            "SELECT u.id, :roleId FROM users u WHERE u.username IN (:usernames)";
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final OutboxService outboxService;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService hashingPool;
+    private final int chunkSize;
+
+    public UserImportService(UserRepository userRepository,
+                             RoleRepository roleRepository,
+                             PasswordEncoder passwordEncoder,
+                             PrincipalCache principalCache,
+                             OutboxService outboxService,
+                             JdbcTemplate jdbcTemplate,
+                             NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             @Value("${app.import.chunk-size:500}") int chunkSize,
+                             @Value("${app.import.hash-threads:0}") int hashThreads) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
+        this.outboxService = outboxService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+
+        // BCrypt is CPU bound: one thread per core by default. The bounded queue with caller-runs
+        // keeps concurrent imports from queueing unbounded work or starving request threads.
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.hashingPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(chunkSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "import-hash-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    /**
+     * Imports every record of the input and writes one NDJSON {@link ImportRowResult} per row to the output.
+     */
+    public void importUsers(InputStream input, RecordStreamReader.Format format, OutputStream output) throws IOException {
+        Role defaultRole = roleRepository.findByName(DEFAULT_ROLE)
+                .orElseThrow(() -> new BusinessException(ResponseCode.INTERNAL_SERVER_ERROR, "Default role not found"));
+
+        long started = System.nanoTime();
+        int created = 0;
+        int rejected = 0;
+
+        try (RecordStreamReader reader = new RecordStreamReader(input, format, VERBATIM_FIELDS)) {
+            List<RecordStreamReader.Record> chunk;
+            while (!(chunk = reader.nextChunk(chunkSize)).isEmpty()) {
+                List<ImportRowResult> results = importChunk(chunk, defaultRole);
+                results.sort(Comparator.comparingLong(ImportRowResult::getLine));
+                for (ImportRowResult result : results) {
+                    if (result.getStatus() == ImportRowResult.Status.CREATED) {
+                        created++;
+                    } else {
+                        rejected++;
+                    }
+                    output.write(objectMapper.writeValueAsBytes(result));
+                    output.write('\n');
+                }
+                output.flush();
+            }
+        }
+
+        log.info("User import finished: {} created, {} rejected in {} ms", created, rejected,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private List<ImportRowResult> importChunk(List<RecordStreamReader.Record> chunk, Role defaultRole) {
+        List<ImportRowResult> results = new ArrayList<>(chunk.size());
+        List<PendingUser> candidates = new ArrayList<>(chunk.size());
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+
+        for (RecordStreamReader.Record record : chunk) {
+            String username = trim(record.get("username"));
+            if (!record.isValid()) {
+                results.add(ImportRowResult.rejected(record.line(), username, record.error()));
+                continue;
+            }
+
+            RegisterRequest request = new RegisterRequest(username, trim(record.get("email")), record.get("password"));
+            Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                results.add(ImportRowResult.rejected(record.line(), username, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "))));
+            } else if (!usernames.add(request.getUsername())) {
+                results.add(ImportRowResult.rejected(record.line(), username, "Duplicate username in import"));
+            } else if (!emails.add(request.getEmail())) {
+                usernames.remove(request.getUsername());
+                results.add(ImportRowResult.rejected(record.line(), username, "Duplicate email in import"));
+            } else {
+                candidates.add(new PendingUser(record.line(), request));
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return results;
+        }
+
+        Set<String> existingUsernames = userRepository.findExistingUsernames(usernames);
+        Set<String> existingEmails = userRepository.findExistingEmails(emails);
+
+        List<PendingUser> accepted = new ArrayList<>(candidates.size());
+        for (PendingUser candidate : candidates) {
+            if (existingUsernames.contains(candidate.request().getUsername())) {
+                results.add(ImportRowResult.rejected(candidate.line(), candidate.request().getUsername(), "Username already exists"));
+            } else if (existingEmails.contains(candidate.request().getEmail())) {
+                results.add(ImportRowResult.rejected(candidate.line(), candidate.request().getUsername(), "Email already exists"));
+            } else {
+                accepted.add(candidate);
+            }
+        }
+
+        if (accepted.isEmpty()) {
+            return results;
+        }
+
+        List<CompletableFuture<String>> hashes = accepted.stream()
+                .map(pending -> CompletableFuture.supplyAsync(
+                        () -> passwordEncoder.encode(pending.request().getPassword()), hashingPool))
+                .toList();
+        List<HashedUser> hashed = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            hashed.add(new HashedUser(accepted.get(i), hashes.get(i).join()));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(hashed, defaultRole));
+            hashed.forEach(user -> results.add(ImportRowResult.created(user.pending().line(), user.username())));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent registration took one of the names after the uniqueness check;
+            // retry row by row so only the conflicting rows are rejected
+            log.warn("Batch insert conflicted, retrying {} rows individually: {}", hashed.size(), e.getMostSpecificCause().getMessage());
+            for (HashedUser user : hashed) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(user), defaultRole));
+                    results.add(ImportRowResult.created(user.pending().line(), user.username()));
+                } catch (DataIntegrityViolationException rowFailure) {
+                    results.add(ImportRowResult.rejected(user.pending().line(), user.username(), "Username or email already exists"));
+                }
+            }
+        }
+
+        hashed.forEach(user -> principalCache.invalidate(user.username()));
+        return results;
+    }
+
+    private void insert(List<HashedUser> users, Role defaultRole) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_USER_SQL, users, users.size(), (ps, user) -> {
+            ps.setString(1, user.username());
+            ps.setString(2, user.pending().request().getEmail());
+            ps.setString(3, user.passwordHash());
+            ps.setTimestamp(4, now);
+            ps.setTimestamp(5, now);
+        });
+
+        // Generated ids are resolved by the database instead of being read back row by row
+        namedParameterJdbcTemplate.update(INSERT_ROLES_SQL, new MapSqlParameterSource()
+                .addValue("roleId", defaultRole.getId())
+                .addValue("usernames", users.stream().map(HashedUser::username).toList()));
+
+        outboxService.recordAll(UserEventType.REGISTERED, users.stream()
+                .map(user -> {
+                    User registered = new User();
+                    registered.setUsername(user.username());
+                    registered.setEmail(user.pending().request().getEmail());
+                    registered.addRole(defaultRole);
+                    return registered;
+                })
+                .toList());
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+
+    private record PendingUser(long line, RegisterRequest request) {
+    }
+
+    private record HashedUser(PendingUser pending, String passwordHash) {
+
+        String username() {
+            return pending.request().getUsername();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.microservices.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.auth.entity.AuditEventType;
+import com.microservices.auth.entity.OutboxEvent;
+import com.microservices.auth.entity.User;
+import com.microservices.auth.entity.UserEventType;
+import com.microservices.auth.repository.OutboxEventRepository;
+import com.microservices.auth.repository.SchedulerLockRepository;
+import com.microservices.auth.repository.UserRepository;
+import com.microservices.auth.service.AccountUnlockSweeper;
+import com.microservices.auth.service.AuditLogService;
+import com.microservices.auth.service.OutboxService;
+import com.microservices.auth.service.PrincipalCache;
+import com.microservices.auth.service.SchedulerLockService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Expired locks are cleared in batches, each unlocked account gets exactly one UNLOCKED outbox event, audit
+ * record and cache eviction, and accounts whose lock has not run out yet stay locked.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class AccountUnlockSweeperTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private SchedulerLockRepository schedulerLockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final AuditLogService auditLogService = mock(AuditLogService.class);
+    private final PrincipalCache principalCache = mock(PrincipalCache.class);
+
+    private AccountUnlockSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        sweeper = new AccountUnlockSweeper(userRepository,
+                new OutboxService(outboxEventRepository, jdbcTemplate, new ObjectMapper().findAndRegisterModules()),
+                auditLogService, principalCache, new SchedulerLockService(schedulerLockRepository, transactionTemplate),
+                transactionTemplate, new SimpleMeterRegistry(), 30, 60_000, 2);
+    }
+
+    @Test
+    void sweep_ShouldUnlockOnlyExpiredLocksAndEmitOneEventEach() {
+        LocalDateTime now = LocalDateTime.now();
+        user("alice", now.minusHours(3));
+        user("bob", now.minusHours(2));
+        user("carol", now.minusHours(1));
+        user("dave", now.minusMinutes(5));
+        entityManager.flush();
+        entityManager.clear();
+
+        sweeper.sweep();
+
+        entityManager.clear();
+        assertThat(userRepository.findByUsername("alice").orElseThrow().isAccountNonLocked()).isTrue();
+        assertThat(userRepository.findByUsername("carol").orElseThrow().getLockedAt()).isNull();
+        assertThat(userRepository.findByUsername("dave").orElseThrow().isAccountNonLocked()).isFalse();
+        assertThat(outboxEventRepository.findAll())
+                .allMatch(event -> event.getEventType() == UserEventType.UNLOCKED)
+                .extracting(OutboxEvent::getAggregateId)
+                .containsExactlyInAnyOrder("alice", "bob", "carol");
+        verify(auditLogService, times(3)).record(eq(AuditEventType.UNLOCK), anyString(), eq("Lock expired"));
+        verify(principalCache).invalidate("carol");
+        verify(principalCache, never()).invalidate("dave");
+    }
+
+    @Test
+    void sweep_WhenAnotherReplicaHoldsTheLease_ShouldDoNothing() {
+        user("alice", LocalDateTime.now().minusHours(3));
+        new SchedulerLockService(schedulerLockRepository, new TransactionTemplate(transactionManager))
+                .tryAcquire("account-unlock-sweeper", Duration.ofMinutes(5));
+
+        sweeper.sweep();
+
+        entityManager.clear();
+        assertThat(userRepository.findByUsername("alice").orElseThrow().isAccountNonLocked()).isFalse();
+        assertThat(outboxEventRepository.findAll()).isEmpty();
+    }
+
+    private void user(String username, LocalDateTime lockedAt) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("hash");
+        user.setAccountNonLocked(false);
+        user.setLockedAt(lockedAt);
+        user.setLoginAttempts(5);
+        userRepository.save(user);
+    }
+}
@@ -0,0 +1,93 @@
+package com.microservices.auth;
+
+import com.microservices.auth.entity.AuditEventType;
+import com.microservices.auth.service.AuditLogService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The writer thread is never started, so the queue only drains on {@link AuditLogService#stop()}.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditLogServiceTest {
+
+    private static final int CAPACITY = 3;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AuditLogService auditLogService;
+
+    @BeforeEach
+    void setUp() {
+        auditLogService = new AuditLogService(jdbcTemplate, meterRegistry, CAPACITY, 500, 10, 1);
+    }
+
+    @Test
+    void record_WhenQueueIsFull_ShouldDropAndCountInsteadOfBlocking() {
+        for (int i = 0; i < CAPACITY + 2; i++) {
+            auditLogService.record(AuditEventType.LOGIN_FAILURE, "user" + i, "10.0.0.1", "Bad credentials");
+        }
+
+        assertThat(meterRegistry.get("auth.audit.queue.size").gauge().value()).isEqualTo(CAPACITY);
+        assertThat(meterRegistry.get("auth.audit.events.dropped").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void recordAfterCommit_ShouldOnlyQueueOnceTheTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            auditLogService.recordAfterCommit(AuditEventType.LOGIN_SUCCESS, "alice", "10.0.0.1", null);
+            assertThat(meterRegistry.get("auth.audit.queue.size").gauge().value()).isZero();
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(meterRegistry.get("auth.audit.queue.size").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void stop_ShouldFlushQueuedEvents() {
+        auditLogService.record(AuditEventType.LOGIN_SUCCESS, "alice", null);
+        auditLogService.record(AuditEventType.LOGOUT, "alice", null);
+
+        auditLogService.stop();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList(), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(meterRegistry.get("auth.audit.events.written").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("auth.audit.queue.size").gauge().value()).isZero();
+    }
+
+    @Test
+    void stop_WhenWritesKeepFailing_ShouldCountEventsAsFailed() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("database down"));
+        auditLogService.record(AuditEventType.LOGIN_SUCCESS, "alice", null);
+
+        auditLogService.stop();
+
+        assertThat(meterRegistry.get("auth.audit.events.failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("auth.audit.events.written").counter().count()).isZero();
+    }
+}
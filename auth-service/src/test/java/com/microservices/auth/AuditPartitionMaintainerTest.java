@@ -0,0 +1,76 @@
+package com.microservices.auth;
+
+import com.microservices.auth.service.AuditPartitionMaintainer;
+import com.microservices.auth.service.SchedulerLockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AuditPartitionMaintainerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    private AuditPartitionMaintainer maintainer;
+
+    @BeforeEach
+    void setUp() {
+        maintainer = new AuditPartitionMaintainer(jdbcTemplate, schedulerLockService, 30, 2, 60_000);
+        when(schedulerLockService.tryAcquire(anyString(), any())).thenReturn(true);
+    }
+
+    @Test
+    void maintain_ShouldSplitComingDaysOffPmaxAndDropExpiredDays() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of(partition(today.minusDays(31)), partition(today.minusDays(30)), partition(today), "pmax"));
+
+        maintainer.maintain();
+
+        ArgumentCaptor<String> ddl = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(2)).execute(ddl.capture());
+        assertThat(ddl.getAllValues().get(0))
+                .startsWith("ALTER TABLE auth_audit_events REORGANIZE PARTITION pmax INTO (")
+                .contains("PARTITION " + partition(today.plusDays(1)) + " VALUES LESS THAN (" + today.plusDays(2).atStartOfDay(ZoneOffset.UTC).toEpochSecond() + ")")
+                .contains("PARTITION " + partition(today.plusDays(2)))
+                .doesNotContain("PARTITION " + partition(today) + " ")
+                .endsWith("PARTITION pmax VALUES LESS THAN MAXVALUE)");
+        assertThat(ddl.getAllValues().get(1))
+                .isEqualTo("ALTER TABLE auth_audit_events DROP PARTITION " + partition(today.minusDays(31)));
+    }
+
+    @Test
+    void maintain_ShouldLeaveUnpartitionedTableAlone() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+
+        maintainer.maintain();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    private static String partition(LocalDate day) {
+        return "p" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+}
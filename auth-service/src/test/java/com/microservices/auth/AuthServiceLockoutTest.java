@@ -0,0 +1,126 @@
+package com.microservices.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.auth.dto.LoginRequest;
+import com.microservices.auth.entity.OutboxEvent;
+import com.microservices.auth.entity.User;
+import com.microservices.auth.entity.UserEventType;
+import com.microservices.auth.repository.OutboxEventRepository;
+import com.microservices.auth.repository.RoleRepository;
+import com.microservices.auth.repository.UserRepository;
+import com.microservices.auth.security.CredentialStuffingDetector;
+import com.microservices.auth.service.AuditLogService;
+import com.microservices.auth.service.AuthService;
+import com.microservices.auth.service.OutboxService;
+import com.microservices.auth.service.PrincipalCache;
+import com.microservices.auth.service.RefreshTokenService;
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.AuthenticationException;
+import com.microservices.common.core.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Failed logins after a lock has expired, before the sweeper has cleared it, count towards a new lock. Each
+ * login commits on its own, as it does behind the controller.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuthServiceLockoutTest {
+
+    private static final int MAX_LOGIN_ATTEMPTS = 3;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    private AuthService authService;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        authService = new AuthService(userRepository, roleRepository, passwordEncoder, mock(JwtUtil.class),
+                mock(PrincipalCache.class), mock(RefreshTokenService.class),
+                new OutboxService(outboxEventRepository, jdbcTemplate, new ObjectMapper().findAndRegisterModules()),
+                mock(AuditLogService.class), mock(CredentialStuffingDetector.class));
+        ReflectionTestUtils.setField(authService, "maxLoginAttempts", MAX_LOGIN_ATTEMPTS);
+        ReflectionTestUtils.setField(authService, "accountLockDurationMinutes", 30L);
+
+        User alice = new User();
+        alice.setUsername("alice");
+        alice.setEmail("alice@example.com");
+        alice.setPassword(passwordEncoder.encode("secret"));
+        alice.setAccountNonLocked(false);
+        alice.setLockedAt(LocalDateTime.now().minusHours(1));
+        alice.setLoginAttempts(MAX_LOGIN_ATTEMPTS);
+        userRepository.save(alice);
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void login_AfterAnExpiredLock_ShouldLockAgainOnceTheFailuresAddUp() {
+        for (int i = 1; i < MAX_LOGIN_ATTEMPTS; i++) {
+            assertThat(login("wrong")).isEqualTo(ResponseCode.INVALID_CREDENTIALS);
+            User alice = userRepository.findByUsername("alice").orElseThrow();
+            assertThat(alice.isAccountNonLocked()).isTrue();
+            assertThat(alice.getLoginAttempts()).isEqualTo(i);
+        }
+
+        assertThat(login("wrong")).isEqualTo(ResponseCode.INVALID_CREDENTIALS);
+
+        User alice = userRepository.findByUsername("alice").orElseThrow();
+        assertThat(alice.isAccountNonLocked()).isFalse();
+        assertThat(alice.getLockedAt()).isAfter(LocalDateTime.now().minusMinutes(1));
+        assertThat(login("secret")).isEqualTo(ResponseCode.ACCOUNT_LOCKED);
+        assertThat(outboxEventRepository.findAll()).extracting(OutboxEvent::getEventType)
+                .containsExactlyInAnyOrder(UserEventType.UNLOCKED, UserEventType.LOCKED);
+    }
+
+    private ResponseCode login(String password) {
+        return transactionTemplate.execute(status -> {
+            try {
+                authService.login(new LoginRequest("alice", password), "10.0.0.1");
+                return ResponseCode.SUCCESS;
+            } catch (AuthenticationException e) {
+                return e.getResponseCode();
+            }
+        });
+    }
+}
@@ -4,23 +4,37 @@ package com.microservices.auth;
 import com.microservices.auth.dto.LoginRequest;
 import com.microservices.auth.dto.RegisterRequest;
 import com.microservices.auth.dto.AuthResponse;
+import com.microservices.auth.dto.RefreshTokenRequest;
 import com.microservices.auth.dto.UserDto;
+import com.microservices.auth.entity.AuditEventType;
 import com.microservices.auth.entity.Role;
 import com.microservices.auth.entity.User;
+import com.microservices.auth.entity.UserEventType;
 import com.microservices.auth.repository.RoleRepository;
 import com.microservices.auth.repository.UserRepository;
+import com.microservices.auth.security.CredentialStuffingDetector;
+import com.microservices.auth.service.AuditLogService;
 import com.microservices.auth.service.AuthService;
+import com.microservices.auth.service.OutboxService;
+import com.microservices.auth.service.PrincipalCache;
+import com.microservices.auth.service.RefreshTokenService;
+import com.microservices.common.core.dto.UserPrincipal;
+import com.microservices.common.core.enums.ResponseCode;
 import com.microservices.common.core.exception.AuthenticationException;
 import com.microservices.common.core.exception.BusinessException;
 import com.microservices.common.core.util.JwtUtil;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.Set;
@@ -45,6 +59,21 @@ class AuthenticationServiceTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private AuditLogService auditLogService;
+
+    @Mock
+    private CredentialStuffingDetector stuffingDetector;
+
     @InjectMocks
     private AuthService authService;
 
@@ -75,7 +104,7 @@ class AuthenticationServiceTest {
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(passwordEncoder.matches("password", "encodedPassword")).thenReturn(true);
         when(jwtUtil.generateToken(eq("testuser"), any())).thenReturn("accessToken");
-        when(jwtUtil.generateRefreshToken("testuser")).thenReturn("refreshToken");
+        when(refreshTokenService.issue(testUser)).thenReturn("refreshToken");
 
         // When
         AuthResponse response = authService.login(request);
@@ -89,6 +118,42 @@ class AuthenticationServiceTest {
         verify(userRepository).updateLastLoginTime(eq("testuser"), any(LocalDateTime.class));
     }
 
+    @Test
+    void login_WithExpiredLock_ShouldClearTheLockAndSucceed() {
+        // Given
+        testUser.setAccountNonLocked(false);
+        testUser.setLockedAt(LocalDateTime.now().minusHours(1));
+        LoginRequest request = new LoginRequest("testuser", "password");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(userRepository.unlockIfExpired(eq("testuser"), any(LocalDateTime.class))).thenReturn(1);
+        when(passwordEncoder.matches("password", "encodedPassword")).thenReturn(true);
+        when(jwtUtil.generateToken(eq("testuser"), any())).thenReturn("accessToken");
+        when(refreshTokenService.issue(testUser)).thenReturn("refreshToken");
+
+        // When
+        AuthResponse response = authService.login(request);
+
+        // Then
+        assertThat(response.getAccessToken()).isEqualTo("accessToken");
+        verify(outboxService).record(UserEventType.UNLOCKED, testUser);
+        verify(userRepository, never()).updateAccountLocked(any(), anyBoolean(), any());
+    }
+
+    @Test
+    void login_WithActiveLock_ShouldRejectWithoutUnlocking() {
+        // Given
+        testUser.setAccountNonLocked(false);
+        testUser.setLockedAt(LocalDateTime.now().minusMinutes(5));
+        ReflectionTestUtils.setField(authService, "accountLockDurationMinutes", 30L);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        // When & Then
+        assertThatThrownBy(() -> authService.login(new LoginRequest("testuser", "password")))
+                .isInstanceOf(AuthenticationException.class)
+                .extracting("responseCode").isEqualTo(ResponseCode.ACCOUNT_LOCKED);
+        verify(userRepository, never()).unlockIfExpired(any(), any());
+    }
+
     @Test
     void login_WithInvalidUsername_ShouldThrowException() {
         // Given
@@ -120,8 +185,6 @@ class AuthenticationServiceTest {
     void register_WithValidData_ShouldReturnUserDto() {
         // Given
         RegisterRequest request = new RegisterRequest("newuser", "new@example.com", "Password@123");
-        when(userRepository.existsByUsername("newuser")).thenReturn(false);
-        when(userRepository.existsByEmail("new@example.com")).thenReturn(false);
         when(passwordEncoder.encode("Password@123")).thenReturn("encodedPassword");
         when(roleRepository.findByName("USER")).thenReturn(Optional.of(userRole));
 
@@ -134,12 +197,15 @@ class AuthenticationServiceTest {
         savedUser.setRoles(Set.of(userRole));
         savedUser.setCreatedAt(LocalDateTime.now());
 
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(savedUser);
 
         // When
         UserDto result = authService.register(request);
 
         // Then
+        verify(outboxService).record(UserEventType.REGISTERED, savedUser);
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
         assertThat(result).isNotNull();
         assertThat(result.getUsername()).isEqualTo("newuser");
         assertThat(result.getEmail()).isEqualTo("new@example.com");
@@ -151,24 +217,125 @@ class AuthenticationServiceTest {
     void register_WithExistingUsername_ShouldThrowException() {
         // Given
         RegisterRequest request = new RegisterRequest("existinguser", "new@example.com", "Password@123");
-        when(userRepository.existsByUsername("existinguser")).thenReturn(true);
+        when(passwordEncoder.encode("Password@123")).thenReturn("encodedPassword");
+        when(roleRepository.findByName("USER")).thenReturn(Optional.of(userRole));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicateKey("users.uk_users_username"));
 
         // When & Then
         assertThatThrownBy(() -> authService.register(request))
                 .isInstanceOf(BusinessException.class)
-                .hasMessageContaining("Username already exists");
+                .hasMessageContaining("Username already exists")
+                .extracting("responseCode").isEqualTo(ResponseCode.USERNAME_ALREADY_EXISTS);
     }
 
     @Test
     void register_WithExistingEmail_ShouldThrowException() {
         // Given
         RegisterRequest request = new RegisterRequest("newuser", "existing@example.com", "Password@123");
-        when(userRepository.existsByUsername("newuser")).thenReturn(false);
-        when(userRepository.existsByEmail("existing@example.com")).thenReturn(true);
+        when(passwordEncoder.encode("Password@123")).thenReturn("encodedPassword");
+        when(roleRepository.findByName("USER")).thenReturn(Optional.of(userRole));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicateKey("users.uk_users_email"));
 
         // When & Then
         assertThatThrownBy(() -> authService.register(request))
                 .isInstanceOf(BusinessException.class)
-                .hasMessageContaining("Email already exists");
+                .hasMessageContaining("Email already exists")
+                .extracting("responseCode").isEqualTo(ResponseCode.EMAIL_ALREADY_EXISTS);
+    }
+
+    @Test
+    void register_WithUnrelatedIntegrityViolation_ShouldRethrow() {
+        // Given
+        RegisterRequest request = new RegisterRequest("newuser", "new@example.com", "Password@123");
+        when(passwordEncoder.encode("Password@123")).thenReturn("encodedPassword");
+        when(roleRepository.findByName("USER")).thenReturn(Optional.of(userRole));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicateKey("PRIMARY"));
+
+        // When & Then
+        assertThatThrownBy(() -> authService.register(request))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private static DataIntegrityViolationException duplicateKey(String key) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException("Duplicate entry 'x' for key '" + key + "'"));
+    }
+
+    @Test
+    void validateToken_ShouldBuildPrincipalFromCacheWithTokenRoles() {
+        // Given
+        UserPrincipal cached = new UserPrincipal(1L, "testuser", "test@example.com", Set.of("USER"), true, null);
+        when(jwtUtil.validateToken("token")).thenReturn(true);
+        when(jwtUtil.extractUsername("token")).thenReturn("testuser");
+        when(jwtUtil.extractRoles("token")).thenReturn(Set.of("USER"));
+        when(principalCache.get("testuser", Set.of("USER"))).thenReturn(Optional.of(cached));
+
+        // When
+        UserPrincipal result = authService.validateToken("token");
+
+        // Then
+        assertThat(result.getUsername()).isEqualTo("testuser");
+        assertThat(result.getRoles()).containsExactly("USER");
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void validateToken_WithUnknownUser_ShouldThrowException() {
+        // Given
+        when(jwtUtil.validateToken("token")).thenReturn(true);
+        when(jwtUtil.extractUsername("token")).thenReturn("ghost");
+        when(jwtUtil.extractRoles("token")).thenReturn(Set.of());
+        when(principalCache.get("ghost", Set.of())).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> authService.validateToken("token"))
+                .isInstanceOf(AuthenticationException.class)
+                .hasMessageContaining("User not found");
+    }
+
+    @Test
+    void refreshToken_RejectedRotation_ShouldAuditTokenSubject() {
+        // Given
+        when(jwtUtil.parseToken("refresh")).thenReturn(Jwts.claims().setSubject("testuser"));
+        when(refreshTokenService.rotate(eq("refresh"), any()))
+                .thenThrow(new AuthenticationException(ResponseCode.INVALID_TOKEN, "Refresh token has been revoked"));
+
+        // When & Then
+        assertThatThrownBy(() -> authService.refreshToken(new RefreshTokenRequest("refresh")))
+                .isInstanceOf(AuthenticationException.class);
+        verify(auditLogService).record(AuditEventType.REFRESH_FAILURE, "testuser", "Refresh token has been revoked");
+    }
+
+    @Test
+    void refreshToken_ResubmittedAfterRotation_ShouldGoThroughReuseDetection() {
+        // Given
+        when(jwtUtil.parseToken("refresh")).thenReturn(Jwts.claims().setSubject("testuser"));
+        when(jwtUtil.generateToken(eq("testuser"), any())).thenReturn("accessToken");
+        when(refreshTokenService.rotate(eq("refresh"), any()))
+                .thenReturn(new RefreshTokenService.Rotation(testUser, "rotated"))
+                .thenThrow(new AuthenticationException(ResponseCode.INVALID_TOKEN, "Refresh token reuse detected"));
+
+        // When
+        AuthResponse first = authService.refreshToken(new RefreshTokenRequest("refresh"));
+
+        // Then
+        assertThat(first.getRefreshToken()).isEqualTo("rotated");
+        assertThatThrownBy(() -> authService.refreshToken(new RefreshTokenRequest("refresh")))
+                .isInstanceOf(AuthenticationException.class)
+                .hasMessageContaining("reuse");
+        verify(refreshTokenService, times(2)).rotate(eq("refresh"), any());
+    }
+
+    @Test
+    void refreshToken_ExpiredToken_ShouldAuditVerifiedSubject() {
+        // Given
+        when(jwtUtil.parseToken("expired"))
+                .thenThrow(new AuthenticationException(ResponseCode.EXPIRED_TOKEN, "JWT token is expired"));
+        when(jwtUtil.extractVerifiedSubject("expired")).thenReturn("testuser");
+
+        // When & Then
+        assertThatThrownBy(() -> authService.refreshToken(new RefreshTokenRequest("expired")))
+                .isInstanceOf(AuthenticationException.class);
+        verify(auditLogService).record(AuditEventType.REFRESH_FAILURE, "testuser", "JWT token is expired");
     }
 }
@@ -0,0 +1,227 @@
+package com.microservices.auth;
+
+import com.microservices.auth.security.CredentialStuffingDetector;
+import com.microservices.auth.security.CredentialStuffingDetector.Dimension;
+import com.microservices.auth.security.HeavyHitters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replays a synthetic attack (a few brute-forced usernames and a few spraying IPs hidden in a large volume
+ * of ordinary typos) through the detector and checks detection, error bounds and the fixed memory footprint.
+ */
+@Slf4j
+class CredentialStuffingReplayTest {
+
+    // The shipped app.login-abuse.sketch-width
+    private static final int WIDTH = 16384;
+    private static final int DEPTH = 4;
+    private static final int WINDOWS = 5;
+    private static final long WINDOW_SECONDS = 60;
+    private static final int MAX_PER_USERNAME = 20;
+    private static final int MAX_PER_IP = 100;
+
+    private static final int BACKGROUND_USERS = 200_000;
+    private static final int BACKGROUND_IPS = 50_000;
+    private static final List<String> HOT_USERNAMES = List.of("admin", "root", "alice", "bob", "support");
+    private static final List<String> HOT_IPS = List.of("203.0.113.7", "198.51.100.23", "192.0.2.99");
+
+    private MutableClock clock;
+    private CredentialStuffingDetector detector;
+    private Map<String, Integer> trueUsernameCounts;
+    private Map<String, Integer> trueIpCounts;
+    private long totalFailures;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        detector = new CredentialStuffingDetector(new SimpleMeterRegistry(), clock, true, WINDOW_SECONDS, WINDOWS,
+                WIDTH, DEPTH, 50, MAX_PER_USERNAME, MAX_PER_IP);
+        trueUsernameCounts = new HashMap<>();
+        trueIpCounts = new HashMap<>();
+        totalFailures = 0;
+    }
+
+    @Test
+    void replay_ShouldFlagAttackersWithinBoundsInFixedMemory() {
+        long memoryBefore = detector.memoryBytes();
+
+        replay(new Random(42));
+
+        // Every attacker is caught by the pre-check
+        HOT_USERNAMES.forEach(username ->
+                assertThat(detector.check(username, null)).contains(Dimension.USERNAME));
+        HOT_IPS.forEach(ip ->
+                assertThat(detector.check("someone-new", ip)).contains(Dimension.IP));
+
+        // ...and named by the top-K
+        CredentialStuffingDetector.Snapshot snapshot = detector.snapshot(10);
+        assertThat(keys(snapshot.topOffenders().get(Dimension.USERNAME))).containsAll(HOT_USERNAMES);
+        assertThat(keys(snapshot.topOffenders().get(Dimension.IP))).containsAll(HOT_IPS);
+
+        // Estimates never under-count and stay within epsilon * N of the truth
+        double bound = Math.E / WIDTH * totalFailures;
+        int falsePositives = 0;
+        for (Map.Entry<String, Integer> entry : trueUsernameCounts.entrySet()) {
+            int estimate = detector.estimate(Dimension.USERNAME, entry.getKey());
+            assertThat(estimate).isGreaterThanOrEqualTo(entry.getValue());
+            assertThat((double) estimate - entry.getValue()).isLessThanOrEqualTo(bound);
+            if (!HOT_USERNAMES.contains(entry.getKey()) && estimate >= MAX_PER_USERNAME) {
+                falsePositives++;
+            }
+        }
+        for (Map.Entry<String, Integer> entry : trueIpCounts.entrySet()) {
+            assertThat(detector.estimate(Dimension.IP, entry.getKey())).isGreaterThanOrEqualTo(entry.getValue());
+        }
+        assertThat(falsePositives).isLessThan(BACKGROUND_USERS / 1000);
+
+        // Memory is fixed by the sketch dimensions, not by the number of distinct keys
+        assertThat(detector.memoryBytes())
+                .isEqualTo(memoryBefore)
+                .isEqualTo(2L * WINDOWS * WIDTH * DEPTH * Integer.BYTES);
+
+        log.info("replayed {} failures over {} usernames / {} IPs: {} false positives, bound {}, {} KiB",
+                totalFailures, trueUsernameCounts.size(), trueIpCounts.size(), falsePositives,
+                String.format("%.1f", bound), detector.memoryBytes() / 1024);
+    }
+
+    @Test
+    void replay_ShouldForgetFailuresOnceAllWindowsRotated() {
+        replay(new Random(7));
+        assertThat(detector.check("admin", null)).isPresent();
+
+        clock.advanceSeconds(WINDOW_SECONDS * WINDOWS);
+
+        assertThat(detector.check("admin", null)).isEmpty();
+        assertThat(detector.check("someone", HOT_IPS.get(0))).isEmpty();
+        assertThat(detector.snapshot(10).topOffenders().get(Dimension.USERNAME)).isEmpty();
+    }
+
+    @Test
+    void check_ShouldIgnoreUsernameCase() {
+        IntStream.range(0, MAX_PER_USERNAME).forEach(i -> detector.recordFailure(i % 2 == 0 ? "Admin" : "ADMIN", null));
+
+        assertThat(detector.check("admin", null)).contains(Dimension.USERNAME);
+    }
+
+    @Test
+    void acquire_ShouldAdmitNoMoreConcurrentAttemptsThanTheBudget() throws Exception {
+        int threads = 4 * MAX_PER_USERNAME;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    return detector.acquire("admin", null).isEmpty();
+                }));
+            }
+            start.countDown();
+            int admitted = 0;
+            for (Future<Boolean> attempt : attempts) {
+                admitted += attempt.get() ? 1 : 0;
+            }
+            assertThat(admitted).isEqualTo(MAX_PER_USERNAME);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Successful attempts free their slots, failed ones turn into recorded failures
+        detector.release("admin", null, true);
+        IntStream.range(1, MAX_PER_USERNAME).forEach(i -> detector.release("admin", null, false));
+        assertThat(detector.estimate(Dimension.USERNAME, "admin")).isEqualTo(1);
+        assertThat(detector.acquire("admin", null)).isEmpty();
+    }
+
+    private void replay(Random random) {
+        List<Runnable> failures = new ArrayList<>();
+
+        // Background noise: one or two typos per user from a large pool of addresses
+        for (int i = 0; i < BACKGROUND_USERS; i++) {
+            String username = "user" + i;
+            int typos = 1 + random.nextInt(2);
+            for (int t = 0; t < typos; t++) {
+                String ip = "10." + (i % BACKGROUND_IPS / 256 % 256) + "." + (i % BACKGROUND_IPS % 256) + "." + t;
+                failures.add(() -> fail(username, ip));
+            }
+        }
+        // Brute force against a few popular usernames from rotating addresses
+        for (String username : HOT_USERNAMES) {
+            for (int i = 0; i < 2 * MAX_PER_USERNAME; i++) {
+                String ip = "172.16." + random.nextInt(256) + "." + random.nextInt(256);
+                failures.add(() -> fail(username, ip));
+            }
+        }
+        // Password spraying: a few addresses trying one password against many usernames
+        for (String ip : HOT_IPS) {
+            for (int i = 0; i < 5 * MAX_PER_IP; i++) {
+                String username = "spray-" + ip + "-" + i;
+                failures.add(() -> fail(username, ip));
+            }
+        }
+
+        // Interleave everything within the first window
+        Collections.shuffle(failures, random);
+        failures.forEach(Runnable::run);
+    }
+
+    private void fail(String username, String ip) {
+        detector.recordFailure(username, ip);
+        trueUsernameCounts.merge(username, 1, Integer::sum);
+        trueIpCounts.merge(ip, 1, Integer::sum);
+        totalFailures++;
+    }
+
+    private static List<String> keys(List<HeavyHitters.Entry> entries) {
+        return entries.stream().map(HeavyHitters.Entry::key).toList();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advanceSeconds(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.microservices.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.auth.entity.OutboxEvent;
+import com.microservices.auth.entity.UserEventType;
+import com.microservices.auth.repository.OutboxEventRepository;
+import com.microservices.auth.service.OutboxRelay;
+import com.microservices.common.core.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final String EVENTS_URL = "http://user-service/users/internal/auth-events";
+    private static final String PAYLOAD = "{\"username\":\"alice\",\"email\":\"alice@example.com\"}";
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    private MockRestServiceServer userService;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder restClientBuilder = RestClient.builder();
+        userService = MockRestServiceServer.bindTo(restClientBuilder).build();
+        when(jwtUtil.generateToken(anyString(), anySet())).thenReturn("service-token");
+        relay = new OutboxRelay(outboxEventRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                jwtUtil, new ObjectMapper().findAndRegisterModules(), restClientBuilder, new SimpleMeterRegistry(),
+                "http://user-service", 100, 3, 24);
+    }
+
+    @Test
+    void relay_ShouldPublishAcknowledgedEventsAndParkRejectedOnes() {
+        pending(List.of(event(1, 0), event(2, 0)), List.of());
+        userService.expect(requestTo(EVENTS_URL)).andRespond(withSuccess(
+                "{\"success\":true,\"data\":{\"applied\":1,\"skipped\":0,\"failed\":{\"2\":\"Email owned by another profile\"}}}",
+                MediaType.APPLICATION_JSON));
+
+        relay.relay();
+
+        userService.verify();
+        verify(outboxEventRepository).markPublished(eq(List.of(1L)), any());
+        verify(outboxEventRepository).park(eq(List.of(2L)), any(), startsWith("Rejected by user-service"));
+    }
+
+    @Test
+    void relay_ShouldRetryFailedBatchOneEventAtATimeAndParkThePoisonedEvent() {
+        // The batch failed twice before; the head event is sent alone and fails for the third time
+        pending(List.of(event(1, 2), event(2, 2)), List.of(event(2, 2)));
+        userService.expect(requestTo(EVENTS_URL)).andRespond(withStatus(HttpStatus.BAD_REQUEST));
+        userService.expect(requestTo(EVENTS_URL)).andRespond(withSuccess("{\"success\":true}", MediaType.APPLICATION_JSON));
+
+        relay.relay();
+
+        userService.verify();
+        verify(outboxEventRepository).incrementAttempts(List.of(1L));
+        verify(outboxEventRepository).park(eq(List.of(1L)), any(), startsWith("Delivery failed 3 times"));
+        verify(outboxEventRepository).markPublished(eq(List.of(2L)), any());
+    }
+
+    @Test
+    void relay_ShouldNotParkWhileUserServiceIsUnavailable() {
+        pending(List.of(event(1, 5)), List.of());
+        userService.expect(requestTo(EVENTS_URL)).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        relay.relay();
+
+        verify(outboxEventRepository).incrementAttempts(List.of(1L));
+        verify(outboxEventRepository, never()).park(anyCollection(), any(), anyString());
+    }
+
+    @Test
+    void relay_ShouldParkUnreadablePayloadWithoutSendingIt() {
+        OutboxEvent unreadable = event(1, 0);
+        unreadable.setPayload("not json");
+        pending(List.of(unreadable, event(2, 0)), List.of());
+        userService.expect(requestTo(EVENTS_URL)).andRespond(withSuccess("{\"success\":true}", MediaType.APPLICATION_JSON));
+
+        relay.relay();
+
+        userService.verify();
+        verify(outboxEventRepository).park(eq(List.of(1L)), any(), startsWith("Unreadable payload"));
+        verify(outboxEventRepository).markPublished(eq(List.of(2L)), any());
+    }
+
+    @Test
+    void relay_ShouldStopAtTheFirstFailedBatch() {
+        pending(List.of(event(1, 0), event(2, 0)), List.of());
+        userService.expect(requestTo(EVENTS_URL)).andRespond(withServerError());
+
+        relay.relay();
+
+        userService.verify();
+        verify(outboxEventRepository).incrementAttempts(List.of(1L, 2L));
+        verify(outboxEventRepository, never()).markPublished(anyCollection(), any());
+        verify(outboxEventRepository, never()).park(anyCollection(), any(), anyString());
+    }
+
+    @SafeVarargs
+    private void pending(List<OutboxEvent> first, List<OutboxEvent>... then) {
+        when(outboxEventRepository.findByPublishedAtIsNullAndParkedAtIsNullOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(first, then);
+    }
+
+    private static OutboxEvent event(long id, int attempts) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setAggregateId("alice");
+        event.setEventType(UserEventType.REGISTERED);
+        event.setPayload(PAYLOAD);
+        event.setAttempts(attempts);
+        return event;
+    }
+}
@@ -0,0 +1,82 @@
+package com.microservices.auth;
+
+import com.microservices.auth.entity.RefreshTokenFamily;
+import com.microservices.auth.entity.User;
+import com.microservices.auth.repository.RefreshTokenFamilyRepository;
+import com.microservices.auth.repository.UserRepository;
+import com.microservices.auth.service.RefreshTokenService;
+import com.microservices.common.core.exception.AuthenticationException;
+import com.microservices.common.core.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    private static final String LEGACY_TOKEN = "legacy.refresh.token";
+
+    @Mock
+    private RefreshTokenFamilyRepository familyRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    private Claims legacyClaims;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        legacyClaims = Jwts.claims().setSubject("testuser");
+    }
+
+    @Test
+    void rotate_LegacyToken_ShouldMigrateIntoFamilyNamedAfterToken() {
+        when(familyRepository.existsById(anyString())).thenReturn(false);
+        when(jwtUtil.generateRefreshToken(eq("testuser"), anyString(), anyString())).thenReturn("rotated");
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(LEGACY_TOKEN, legacyClaims);
+
+        assertThat(rotation.refreshToken()).isEqualTo("rotated");
+        ArgumentCaptor<RefreshTokenFamily> family = ArgumentCaptor.forClass(RefreshTokenFamily.class);
+        verify(familyRepository).save(family.capture());
+        verify(familyRepository).existsById(family.getValue().getId());
+    }
+
+    @Test
+    void rotate_LegacyTokenPresentedAgain_ShouldRevokeItsFamily() {
+        when(familyRepository.existsById(anyString())).thenReturn(true);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(LEGACY_TOKEN, legacyClaims))
+                .isInstanceOf(AuthenticationException.class)
+                .hasMessageContaining("revoked");
+
+        verify(familyRepository).revoke(anyString());
+        verify(familyRepository, never()).save(any());
+    }
+}
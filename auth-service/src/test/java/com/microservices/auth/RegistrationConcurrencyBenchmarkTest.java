@@ -0,0 +1,173 @@
+package com.microservices.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.auth.dto.RegisterRequest;
+import com.microservices.auth.entity.Role;
+import com.microservices.auth.repository.OutboxEventRepository;
+import com.microservices.auth.repository.RoleRepository;
+import com.microservices.auth.repository.UserRepository;
+import com.microservices.auth.security.CredentialStuffingDetector;
+import com.microservices.auth.service.AuditLogService;
+import com.microservices.auth.service.AuthService;
+import com.microservices.auth.service.OutboxService;
+import com.microservices.auth.service.PrincipalCache;
+import com.microservices.auth.service.RefreshTokenService;
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+import com.microservices.common.core.util.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Concurrent signups with overlapping usernames through {@link AuthService#register} on H2, once as shipped
+ * (the unique constraints detect duplicates) and once preceded by the exists checks the old path ran.
+ * Every attempt commits in its own transaction, as it would behind the controller.
+ */
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RegistrationConcurrencyBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS = 2_000;
+    private static final int DISTINCT_USERS = 500;
+    private static final String PASSWORD = "Secret1!pass";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private AuthService authService;
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        roleRepository.save(new Role("USER", "Default user role"));
+        authService = new AuthService(userRepository, roleRepository, new BCryptPasswordEncoder(4),
+                mock(JwtUtil.class), mock(PrincipalCache.class), mock(RefreshTokenService.class),
+                new OutboxService(outboxEventRepository, jdbcTemplate, new ObjectMapper().findAndRegisterModules()),
+                mock(AuditLogService.class), mock(CredentialStuffingDetector.class));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        jdbcTemplate.update("DELETE FROM user_roles");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("DELETE FROM roles");
+    }
+
+    @Test
+    void constraintDriven_ShouldMapEveryDuplicateWithFewerStatements() throws Exception {
+        Map<String, Integer> withPreChecks = run("exists-then-insert", this::registerWithPreChecks);
+        long preCheckStatements = statistics.getPrepareStatementCount();
+        tearDown();
+        setUp();
+
+        Map<String, Integer> constraintDriven = run("constraint-driven", authService::register);
+        long constraintStatements = statistics.getPrepareStatementCount();
+
+        assertThat(constraintDriven.get("CREATED")).isEqualTo(DISTINCT_USERS);
+        assertThat(constraintDriven).doesNotContainKey("UNMAPPED");
+        assertThat(withPreChecks.get("CREATED")).isEqualTo(DISTINCT_USERS);
+        assertThat(constraintStatements).isLessThan(preCheckStatements);
+    }
+
+    private void registerWithPreChecks(RegisterRequest request) {
+        if (userRepository.existsByUsername(request.getUsername())) {
+            throw new BusinessException(ResponseCode.USERNAME_ALREADY_EXISTS);
+        }
+        if (userRepository.existsByEmail(request.getEmail())) {
+            throw new BusinessException(ResponseCode.EMAIL_ALREADY_EXISTS);
+        }
+        authService.register(request);
+    }
+
+    private Map<String, Integer> run(String strategy, Registration registration) throws Exception {
+        statistics.clear();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        Map<String, Integer> outcomes = new ConcurrentHashMap<>();
+        List<Future<?>> futures = new ArrayList<>(ATTEMPTS);
+        long started = System.nanoTime();
+        try {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                int user = i % DISTINCT_USERS;
+                RegisterRequest request = new RegisterRequest("user" + user, "user" + user + "@example.com", PASSWORD);
+                futures.add(executor.submit(() -> outcomes.merge(register(registration, request), 1, Integer::sum)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        long statements = statistics.getPrepareStatementCount();
+        log.info("{}: {} attempts, {} statements ({}/attempt), {} ms, outcomes={}", strategy, ATTEMPTS, statements,
+                String.format("%.2f", (double) statements / ATTEMPTS), elapsedMillis, outcomes);
+        return outcomes;
+    }
+
+    private String register(Registration registration, RegisterRequest request) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> registration.register(request));
+            return "CREATED";
+        } catch (BusinessException e) {
+            return e.getResponseCode().name();
+        } catch (DataIntegrityViolationException e) {
+            return "UNMAPPED";
+        }
+    }
+
+    @FunctionalInterface
+    private interface Registration {
+        void register(RegisterRequest request);
+    }
+}
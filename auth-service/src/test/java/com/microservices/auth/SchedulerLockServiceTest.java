@@ -0,0 +1,59 @@
+package com.microservices.auth;
+
+import com.microservices.auth.repository.SchedulerLockRepository;
+import com.microservices.auth.service.SchedulerLockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two services stand in for two replicas sharing the {@code scheduler_locks} table.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class SchedulerLockServiceTest {
+
+    private static final String JOB = "test-job";
+
+    @Autowired
+    private SchedulerLockRepository lockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SchedulerLockService first;
+    private SchedulerLockService second;
+
+    @BeforeEach
+    void setUp() {
+        first = new SchedulerLockService(lockRepository, new TransactionTemplate(transactionManager));
+        second = new SchedulerLockService(lockRepository, new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void tryAcquire_ShouldGrantTheLeaseToOneInstanceAndLetItRenew() {
+        assertThat(first.tryAcquire(JOB, Duration.ofMinutes(5))).isTrue();
+        assertThat(second.tryAcquire(JOB, Duration.ofMinutes(5))).isFalse();
+        assertThat(first.tryAcquire(JOB, Duration.ofMinutes(5))).isTrue();
+        assertThat(lockRepository.findById(JOB).orElseThrow().getLockedBy()).isEqualTo(first.getInstanceId());
+    }
+
+    @Test
+    void tryAcquire_ShouldHandOverAfterReleaseOrExpiry() {
+        first.tryAcquire(JOB, Duration.ofMinutes(5));
+        first.release(JOB);
+        assertThat(second.tryAcquire(JOB, Duration.ofMinutes(5))).isTrue();
+
+        // A lease of zero length has run out as soon as it is taken, as if its holder had crashed
+        second.tryAcquire(JOB, Duration.ZERO);
+        assertThat(first.tryAcquire(JOB, Duration.ofMinutes(5))).isTrue();
+    }
+}
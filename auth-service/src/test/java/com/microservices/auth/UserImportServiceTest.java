@@ -0,0 +1,212 @@
+package com.microservices.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.auth.dto.RegisterRequest;
+import com.microservices.auth.entity.Role;
+import com.microservices.auth.entity.User;
+import com.microservices.auth.repository.OutboxEventRepository;
+import com.microservices.auth.repository.RoleRepository;
+import com.microservices.auth.repository.UserRepository;
+import com.microservices.auth.security.CredentialStuffingDetector;
+import com.microservices.auth.service.AuditLogService;
+import com.microservices.auth.service.AuthService;
+import com.microservices.auth.service.OutboxService;
+import com.microservices.auth.service.PrincipalCache;
+import com.microservices.auth.service.RefreshTokenService;
+import com.microservices.auth.service.UserImportService;
+import com.microservices.common.core.util.JwtUtil;
+import com.microservices.common.core.util.RecordStreamReader;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Import validates, deduplicates and checks uniqueness per chunk, inserts accepted rows with their default
+ * role and outbox event, and reports every row. H2 stands in for MySQL.
+ */
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class UserImportServiceTest {
+
+    private static final String HEADER = "username,email,password\n";
+    private static final String PASSWORD = "Secret1!pass";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // Minimum cost keeps the tests fast; the benchmark uses the production strength
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    private final PrincipalCache principalCache = mock(PrincipalCache.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        Role userRole = roleRepository.save(new Role("USER", "Default user role"));
+
+        User existing = new User();
+        existing.setUsername("dave");
+        existing.setEmail("dave@example.com");
+        existing.setPassword(passwordEncoder.encode(PASSWORD));
+        existing.addRole(userRole);
+        userRepository.saveAndFlush(existing);
+        entityManager.clear();
+
+        importService = importService(passwordEncoder, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    @Test
+    void importUsers_ShouldCreateValidRowsAndReportRejects() throws Exception {
+        String csv = HEADER +
+                "alice,alice@example.com,\"Secret1!pass  \"\n" +
+                "bob,not-an-email," + PASSWORD + "\n" +
+                "alice,alice2@example.com," + PASSWORD + "\n" +
+                "carol,alice@example.com," + PASSWORD + "\n" +
+                "dave,dave2@example.com," + PASSWORD + "\n" +
+                "erin,erin@example.com,short\n" +
+                " frank , frank@example.com ," + PASSWORD + "\n";
+
+        List<String> report = run(csv, RecordStreamReader.Format.CSV);
+
+        assertThat(report).hasSize(7);
+        assertThat(report.get(0)).contains("\"line\":2", "CREATED");
+        assertThat(report.get(6)).contains("\"line\":8", "CREATED");
+        assertThat(String.join("\n", report))
+                .contains("Email should be valid", "Duplicate username in import", "Duplicate email in import",
+                        "Username already exists", "Password must be at least 8 characters");
+
+        entityManager.clear();
+        User alice = userRepository.findByUsername("alice").orElseThrow();
+        // Trailing spaces are part of the password; the other columns are trimmed
+        assertThat(passwordEncoder.matches("Secret1!pass  ", alice.getPassword())).isTrue();
+        assertThat(passwordEncoder.matches(PASSWORD, alice.getPassword())).isFalse();
+        assertThat(alice.getRoles()).extracting(Role::getName).containsExactly("USER");
+        assertThat(userRepository.findByUsername("frank").orElseThrow().getEmail()).isEqualTo("frank@example.com");
+        assertThat(outboxEventRepository.findAll()).extracting("aggregateId")
+                .containsExactlyInAnyOrder("alice", "frank");
+        verify(principalCache).invalidate("alice");
+        verify(principalCache).invalidate("frank");
+    }
+
+    @Test
+    void importUsers_ShouldReadNdjson() throws Exception {
+        String ndjson = "{\"username\":\"gina\",\"email\":\"gina@example.com\",\"password\":\"" + PASSWORD + "\"}\n" +
+                "not json\n";
+
+        List<String> report = run(ndjson, RecordStreamReader.Format.NDJSON);
+
+        assertThat(report).hasSize(2);
+        assertThat(report.get(0)).contains("\"line\":1", "CREATED");
+        assertThat(report.get(1)).contains("\"line\":2", "Malformed JSON");
+        entityManager.clear();
+        assertThat(userRepository.findByUsername("gina")).isPresent();
+    }
+
+    /**
+     * Rows per second through the import against one {@link AuthService#register} call per row, both with
+     * the production BCrypt strength. Run with {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_ImportVersusRegisterPerRow() throws Exception {
+        PasswordEncoder productionEncoder = new BCryptPasswordEncoder();
+
+        int rows = 2_000;
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < rows; i++) {
+            csv.append("bulk").append(i).append(",bulk").append(i).append("@example.com,").append(PASSWORD).append('\n');
+        }
+        UserImportService bulk = importService(productionEncoder, 500);
+        long start = System.nanoTime();
+        try {
+            run(bulk, csv.toString(), RecordStreamReader.Format.CSV);
+        } finally {
+            bulk.shutdown();
+        }
+        double importRate = report("import", rows, System.nanoTime() - start);
+
+        AuthService authService = new AuthService(userRepository, roleRepository, productionEncoder,
+                mock(JwtUtil.class), principalCache, mock(RefreshTokenService.class), outboxService(),
+                mock(AuditLogService.class), mock(CredentialStuffingDetector.class));
+        int singleRows = 200;
+        start = System.nanoTime();
+        for (int i = 0; i < singleRows; i++) {
+            authService.register(new RegisterRequest("single" + i, "single" + i + "@example.com", PASSWORD));
+        }
+        double registerRate = report("register per row", singleRows, System.nanoTime() - start);
+
+        log.info("import speedup: {}x on {} cores", String.format("%.1f", importRate / registerRate),
+                Runtime.getRuntime().availableProcessors());
+        assertThat(userRepository.count()).isEqualTo(1 + rows + singleRows);
+    }
+
+    private UserImportService importService(PasswordEncoder encoder, int chunkSize) {
+        return new UserImportService(userRepository, roleRepository, encoder, principalCache, outboxService(),
+                jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate), new TransactionTemplate(transactionManager),
+                Validation.buildDefaultValidatorFactory().getValidator(), objectMapper, chunkSize, 0);
+    }
+
+    private OutboxService outboxService() {
+        return new OutboxService(outboxEventRepository, jdbcTemplate, objectMapper);
+    }
+
+    private List<String> run(String input, RecordStreamReader.Format format) throws Exception {
+        return run(importService, input, format);
+    }
+
+    private static List<String> run(UserImportService service, String input, RecordStreamReader.Format format) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.importUsers(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), format, output);
+        return output.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private static double report(String label, int rows, long nanos) {
+        double rate = rows / (nanos / 1e9);
+        log.info("{} {} rows {} rows/s", String.format("%-16s", label), rows, String.format("%.0f", rate));
+        return rate;
+    }
+}
@@ -7,6 +7,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Data
 @Builder
@@ -23,6 +25,9 @@ public class ApiResponse<T> {
     private LocalDateTime timestamp;
     private String path;
 
+    // Optional details about the data, e.g. how the total of a page was computed
+    private Map<String, Object> meta;
+
     public static <T> ApiResponse<T> success(T data) {
         return ApiResponse.<T>builder()
                 .success(true)
@@ -42,6 +47,14 @@ public class ApiResponse<T> {
                 .build();
     }
 
+    public ApiResponse<T> withMeta(String key, Object value) {
+        if (meta == null) {
+            meta = new LinkedHashMap<>();
+        }
+        meta.put(key, value);
+        return this;
+    }
+
     public static <T> ApiResponse<T> error(String error) {
         return ApiResponse.<T>builder()
                 .success(false)
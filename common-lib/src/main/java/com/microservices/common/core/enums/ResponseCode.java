@@ -17,6 +17,7 @@ public enum ResponseCode {
     NOT_FOUND(404, "Resource not found"),
     METHOD_NOT_ALLOWED(405, "Method not allowed"),
     CONFLICT(409, "Resource conflict"),
+    PRECONDITION_FAILED(412, "Precondition failed"),
     VALIDATION_FAILED(422, "Validation failed"),
     TOO_MANY_REQUESTS(429, "Too many requests"),
 
@@ -252,6 +252,7 @@ public class GlobalExceptionHandler {
                 case 404, 4101 -> HttpStatus.NOT_FOUND;
                 case 405 -> HttpStatus.METHOD_NOT_ALLOWED;
                 case 409, 4102, 4104, 4105 -> HttpStatus.CONFLICT;
+                case 412 -> HttpStatus.PRECONDITION_FAILED;
                 case 422 -> HttpStatus.UNPROCESSABLE_ENTITY;
                 case 429 -> HttpStatus.TOO_MANY_REQUESTS;
                 default -> HttpStatus.BAD_REQUEST;
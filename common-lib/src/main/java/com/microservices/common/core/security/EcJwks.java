@@ -0,0 +1,74 @@
+package com.microservices.common.core.security;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Conversions between P-256 public keys and their JSON Web Key (RFC 7517/7518) representation.
+ */
+public final class EcJwks {
+
+    public static final String ALGORITHM = "ES256";
+    public static final String CURVE = "P-256";
+
+    private static final int COORDINATE_LENGTH = 32;
+
+    private EcJwks() {
+    }
+
+    public static Map<String, Object> toJwk(String keyId, ECPublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", CURVE);
+        jwk.put("kid", keyId);
+        jwk.put("use", "sig");
+        jwk.put("alg", ALGORITHM);
+        jwk.put("x", encodeCoordinate(publicKey.getW().getAffineX()));
+        jwk.put("y", encodeCoordinate(publicKey.getW().getAffineY()));
+        return jwk;
+    }
+
+    public static PublicKey toPublicKey(Map<String, ?> jwk) {
+        if (!"EC".equals(jwk.get("kty")) || !CURVE.equals(jwk.get("crv"))) {
+            throw new IllegalArgumentException("Unsupported JWK: kty=" + jwk.get("kty") + ", crv=" + jwk.get("crv"));
+        }
+
+        try {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec("secp256r1"));
+            ECParameterSpec curve = parameters.getParameterSpec(ECParameterSpec.class);
+
+            ECPoint point = new ECPoint(decodeCoordinate((String) jwk.get("x")), decodeCoordinate((String) jwk.get("y")));
+            return KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, curve));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid EC JWK: " + e.getMessage(), e);
+        }
+    }
+
+    private static String encodeCoordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[COORDINATE_LENGTH];
+        if (bytes.length > COORDINATE_LENGTH) {
+            // Strip the sign byte added by BigInteger
+            bytes = Arrays.copyOfRange(bytes, bytes.length - COORDINATE_LENGTH, bytes.length);
+        }
+        System.arraycopy(bytes, 0, fixed, COORDINATE_LENGTH - bytes.length, bytes.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    private static BigInteger decodeCoordinate(String value) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(value));
+    }
+}
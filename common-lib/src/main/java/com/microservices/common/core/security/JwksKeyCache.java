@@ -0,0 +1,144 @@
+package com.microservices.common.core.security;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * kid -> public key cache backed by the issuer's JWKS endpoint.
+ * <p>
+ * The key set is fetched once at startup and then refreshed on a background thread, so
+ * {@link #resolve(String)} is a plain map lookup and never blocks a request on I/O. An unknown
+ * kid schedules an early refresh and fails verification for that token; at most one such refresh is queued
+ * at a time and none within the minimum gap of the last one, so forged kids cannot flood the scheduler.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jwt.jwks-uri")
+public class JwksKeyCache implements VerificationKeyResolver {
+
+    private static final TypeReference<Map<String, List<Map<String, Object>>>> JWKS_TYPE = new TypeReference<>() {
+    };
+
+    private final URI jwksUri;
+    private final Duration refreshInterval;
+    private final Duration minRefreshGap;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong lastRefreshAttempt = new AtomicLong();
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+
+    public JwksKeyCache(@Value("${jwt.jwks-uri}") String jwksUri,
+                        @Value("${jwt.jwks-refresh-interval-seconds:300}") long refreshIntervalSeconds,
+                        @Value("${jwt.jwks-min-refresh-gap-seconds:10}") long minRefreshGapSeconds) {
+        this.jwksUri = URI.create(jwksUri);
+        this.refreshInterval = Duration.ofSeconds(refreshIntervalSeconds);
+        this.minRefreshGap = Duration.ofSeconds(minRefreshGapSeconds);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        // Pre-warm synchronously so the first requests after startup can be verified
+        refresh();
+        scheduler.scheduleWithFixedDelay(this::refresh,
+                refreshInterval.toSeconds(), refreshInterval.toSeconds(), TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public PublicKey resolve(String keyId) {
+        PublicKey key = keys.get(keyId);
+        if (key == null && isStale() && refreshPending.compareAndSet(false, true)) {
+            log.warn("Unknown JWT key id '{}', scheduling JWKS refresh", keyId);
+            scheduler.execute(() -> {
+                try {
+                    if (isStale()) {
+                        refresh();
+                    }
+                } finally {
+                    refreshPending.set(false);
+                }
+            });
+        }
+        return key;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    private boolean isStale() {
+        return System.nanoTime() - lastRefreshAttempt.get() >= minRefreshGap.toNanos();
+    }
+
+    private void refresh() {
+        lastRefreshAttempt.set(System.nanoTime());
+        try {
+            HttpRequest request = HttpRequest.newBuilder(jwksUri)
+                    .timeout(Duration.ofSeconds(5))
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                log.warn("JWKS fetch from {} returned HTTP {}", jwksUri, response.statusCode());
+                return;
+            }
+
+            Map<String, PublicKey> refreshed = new HashMap<>();
+            for (Map<String, Object> jwk : objectMapper.readValue(response.body(), JWKS_TYPE).getOrDefault("keys", List.of())) {
+                String keyId = (String) jwk.get("kid");
+                if (keyId == null) {
+                    continue;
+                }
+                try {
+                    refreshed.put(keyId, EcJwks.toPublicKey(jwk));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Skipping JWK {}: {}", keyId, e.getMessage());
+                }
+            }
+            keys = Map.copyOf(refreshed);
+            log.debug("Loaded {} verification keys from {}", refreshed.size(), jwksUri);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Keep serving the previous key set; the next scheduled refresh retries
+            log.error("Failed to refresh JWKS from {}: {}", jwksUri, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.microservices.common.core.security;
+
+import java.security.PrivateKey;
+
+/**
+ * Supplies the key currently used to sign JWTs. Only the issuing service (auth-service) provides one.
+ */
+public interface SigningKeyProvider {
+
+    String currentKeyId();
+
+    PrivateKey currentPrivateKey();
+}
@@ -0,0 +1,14 @@
+package com.microservices.common.core.security;
+
+import java.security.PublicKey;
+
+/**
+ * Resolves the public key used to verify an asymmetrically signed JWT from its {@code kid} header.
+ */
+public interface VerificationKeyResolver {
+
+    /**
+     * @return the verification key for the given key id, or {@code null} if the key id is unknown
+     */
+    PublicKey resolve(String keyId);
+}
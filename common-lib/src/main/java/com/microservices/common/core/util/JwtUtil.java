@@ -2,15 +2,19 @@ package com.microservices.common.core.util;
 
 import com.microservices.common.core.exception.AuthenticationException;
 import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.security.SigningKeyProvider;
+import com.microservices.common.core.security.VerificationKeyResolver;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.security.Key;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
@@ -21,9 +25,17 @@ import java.util.stream.Collectors;
 @Component
 public class JwtUtil {
 
+    public static final String FAMILY_ID_CLAIM = "fid";
+
     private final SecretKey secretKey;
     private final long jwtExpiration;
     private final long refreshTokenExpiration;
+    private final JwtParser parser;
+
+    // ES256 signing is enabled only where a SigningKeyProvider bean exists (auth-service)
+    private SigningKeyProvider signingKeyProvider;
+    private VerificationKeyResolver verificationKeyResolver;
+    private boolean legacyHmacEnabled = true;
 
     public JwtUtil(@Value("${jwt.secret:mySecretKey123456789012345678901234567890}") String secret,
                    @Value("${jwt.expiration:86400000}") long jwtExpiration,
@@ -31,6 +43,29 @@ public class JwtUtil {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes());
         this.jwtExpiration = jwtExpiration;
         this.refreshTokenExpiration = refreshTokenExpiration;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveVerificationKey(header);
+                    }
+                })
+                .build();
+    }
+
+    @Autowired(required = false)
+    public void setSigningKeyProvider(SigningKeyProvider signingKeyProvider) {
+        this.signingKeyProvider = signingKeyProvider;
+    }
+
+    @Autowired(required = false)
+    public void setVerificationKeyResolver(VerificationKeyResolver verificationKeyResolver) {
+        this.verificationKeyResolver = verificationKeyResolver;
+    }
+
+    @Value("${jwt.legacy-hs256-enabled:true}")
+    public void setLegacyHmacEnabled(boolean legacyHmacEnabled) {
+        this.legacyHmacEnabled = legacyHmacEnabled;
     }
 
     public String generateToken(String username, Set<String> roles) {
@@ -38,22 +73,59 @@ public class JwtUtil {
     }
 
     public String generateRefreshToken(String username) {
-        return Jwts.builder()
+        return sign(Jwts.builder()
+                .setSubject(username)
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + refreshTokenExpiration)));
+    }
+
+    /**
+     * Issues a refresh token that belongs to a server-side rotation family ({@code jti} + {@code fid} claims).
+     */
+    public String generateRefreshToken(String username, String tokenId, String familyId) {
+        return sign(Jwts.builder()
                 .setSubject(username)
+                .setId(tokenId)
+                .claim(FAMILY_ID_CLAIM, familyId)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + refreshTokenExpiration))
-                .signWith(secretKey, SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + refreshTokenExpiration)));
+    }
+
+    public long getRefreshTokenExpiration() {
+        return refreshTokenExpiration;
     }
 
     private String createToken(String subject, Set<String> roles, long expiration) {
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .setSubject(subject)
                 .claim("roles", roles)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(secretKey, SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + expiration)));
+    }
+
+    private String sign(JwtBuilder builder) {
+        if (signingKeyProvider != null) {
+            return builder
+                    .setHeaderParam(JwsHeader.KEY_ID, signingKeyProvider.currentKeyId())
+                    .signWith(signingKeyProvider.currentPrivateKey(), SignatureAlgorithm.ES256)
+                    .compact();
+        }
+        return builder.signWith(secretKey, SignatureAlgorithm.HS256).compact();
+    }
+
+    private Key resolveVerificationKey(JwsHeader<?> header) {
+        String keyId = header.getKeyId();
+        if (keyId != null) {
+            Key key = verificationKeyResolver != null ? verificationKeyResolver.resolve(keyId) : null;
+            if (key == null) {
+                throw new io.jsonwebtoken.security.SignatureException("Unknown signing key id: " + keyId);
+            }
+            return key;
+        }
+        if (!legacyHmacEnabled) {
+            throw new UnsupportedJwtException("HS256 tokens are no longer accepted");
+        }
+        return secretKey;
     }
 
     public String extractUsername(String token) {
@@ -64,15 +136,22 @@ public class JwtUtil {
         return extractClaim(token, Claims::getExpiration);
     }
 
-    @SuppressWarnings("unchecked")
     public Set<String> extractRoles(String token) {
-        Claims claims = extractAllClaims(token);
+        return extractRoles(extractAllClaims(token));
+    }
+
+    @SuppressWarnings("unchecked")
+    public Set<String> extractRoles(Claims claims) {
         List<String> roles = claims.get("roles", List.class);
         return roles != null ? Set.copyOf(roles) : Set.of();
     }
 
     public List<GrantedAuthority> extractAuthorities(String token) {
-        return extractRoles(token).stream()
+        return extractAuthorities(extractAllClaims(token));
+    }
+
+    public List<GrantedAuthority> extractAuthorities(Claims claims) {
+        return extractRoles(claims).stream()
                 .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
                 .collect(Collectors.toList());
     }
@@ -82,13 +161,17 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verifies the token once and returns its claims, so callers needing several claims
+     * do not pay for repeated signature verification.
+     */
+    public Claims parseToken(String token) {
+        return extractAllClaims(token);
+    }
+
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return parser.parseClaimsJws(token).getBody();
         } catch (ExpiredJwtException e) {
             log.error("JWT token is expired: {}", e.getMessage());
             throw new AuthenticationException(ResponseCode.EXPIRED_TOKEN, "JWT token is expired");
@@ -98,12 +181,30 @@ public class JwtUtil {
         } catch (MalformedJwtException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
             throw new AuthenticationException(ResponseCode.INVALID_TOKEN, "Invalid JWT token");
-        } catch (SignatureException e) {
+        } catch (io.jsonwebtoken.security.SecurityException e) {
             log.error("Invalid JWT signature: {}", e.getMessage());
             throw new AuthenticationException(ResponseCode.INVALID_TOKEN, "Invalid JWT signature");
         } catch (IllegalArgumentException e) {
             log.error("JWT claims string is empty: {}", e.getMessage());
             throw new AuthenticationException(ResponseCode.INVALID_TOKEN, "JWT claims string is empty");
+        } catch (JwtException e) {
+            log.error("JWT validation failed: {}", e.getMessage());
+            throw new AuthenticationException(ResponseCode.INVALID_TOKEN, "Invalid JWT token");
+        }
+    }
+
+    /**
+     * Subject of a token whose signature verifies, even if it has expired; {@code null} for any other token.
+     * Meant for attributing rejected tokens in audit records, never for authentication.
+     */
+    public String extractVerifiedSubject(String token) {
+        try {
+            return parser.parseClaimsJws(token).getBody().getSubject();
+        } catch (ExpiredJwtException e) {
+            // Expiry is checked after the signature, so these claims are authentic
+            return e.getClaims().getSubject();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
         }
     }
 
@@ -126,8 +227,9 @@ public class JwtUtil {
 
     public Boolean validateToken(String token) {
         try {
+            // The parser already rejects expired tokens, so one verification is enough
             extractAllClaims(token);
-            return !isTokenExpired(token);
+            return true;
         } catch (AuthenticationException e) {
             return false;
         }
@@ -0,0 +1,207 @@
+package com.microservices.common.core.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Streams flat records from NDJSON (one JSON object per line) or CSV (header row first) input,
+ * one line at a time, so arbitrarily large uploads can be processed in constant memory.
+ * Malformed lines are returned as records with an {@link Record#error()} rather than aborting the stream.
+ * CSV values are trimmed unless their column is named as verbatim, so secrets keep their surrounding spaces.
+ * Other CSV values lose the leading {@code '} that {@link #escapeFormula} adds to cells a spreadsheet would
+ * evaluate as a formula.
+ */
+public class RecordStreamReader implements Iterator<RecordStreamReader.Record>, Closeable {
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format fromContentType(String contentType) {
+            if (contentType != null && (contentType.contains("csv") || contentType.contains("comma-separated"))) {
+                return CSV;
+            }
+            return NDJSON;
+        }
+    }
+
+    public record Record(long line, Map<String, String> fields, String error) {
+
+        public String get(String field) {
+            return fields.get(field);
+        }
+
+        public boolean isValid() {
+            return error == null;
+        }
+    }
+
+    // Leading characters that make a spreadsheet evaluate a CSV cell as a formula
+    private static final String FORMULA_TRIGGERS = "=+-@\t\r";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final Set<String> verbatimFields;
+    private List<String> header;
+    private long lineNumber;
+    private Record next;
+
+    public RecordStreamReader(InputStream inputStream, Format format) {
+        this(inputStream, format, Set.of());
+    }
+
+    public RecordStreamReader(InputStream inputStream, Format format, Set<String> verbatimFields) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.format = format;
+        this.verbatimFields = verbatimFields;
+    }
+
+    /**
+     * Reads up to {@code size} records; an empty list means the input is exhausted.
+     */
+    public List<Record> nextChunk(int size) {
+        List<Record> chunk = new ArrayList<>(size);
+        while (chunk.size() < size && hasNext()) {
+            chunk.add(next());
+        }
+        return chunk;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readRecord();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Record next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Record record = next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Record readRecord() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && header == null) {
+                    header = parseCsvLine(line).stream().map(String::trim).toList();
+                    continue;
+                }
+                return format == Format.CSV ? csvRecord(line) : jsonRecord(line);
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Record jsonRecord(String line) {
+        try {
+            JsonNode node = OBJECT_MAPPER.readTree(line);
+            if (!node.isObject()) {
+                return new Record(lineNumber, Map.of(), "Expected a JSON object");
+            }
+            Map<String, String> fields = new LinkedHashMap<>();
+            node.fields().forEachRemaining(entry ->
+                    fields.put(entry.getKey(), entry.getValue().isNull() ? null : entry.getValue().asText()));
+            return new Record(lineNumber, fields, null);
+        } catch (IOException e) {
+            return new Record(lineNumber, Map.of(), "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Record csvRecord(String line) {
+        List<String> values = parseCsvLine(line);
+        if (values.size() != header.size()) {
+            return new Record(lineNumber, Map.of(),
+                    "Expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String value = verbatimFields.contains(header.get(i)) ? values.get(i) : unescapeFormula(values.get(i).trim());
+            fields.put(header.get(i), value.isEmpty() ? null : value);
+        }
+        return new Record(lineNumber, fields, null);
+    }
+
+    /**
+     * Prefixes a CSV cell with {@code '} if a spreadsheet would evaluate it as a formula. Cells that already
+     * start with quotes in front of such a character get one more, so reading the cell back is exact.
+     */
+    public static String escapeFormula(String value) {
+        return formulaStart(value) >= 0 ? "'" + value : value;
+    }
+
+    private static String unescapeFormula(String value) {
+        return formulaStart(value) > 0 ? value.substring(1) : value;
+    }
+
+    // Index of the formula character behind any leading quotes, or -1 if the value would not be evaluated
+    private static int formulaStart(String value) {
+        int index = 0;
+        while (index < value.length() && value.charAt(index) == '\'') {
+            index++;
+        }
+        return index < value.length() && FORMULA_TRIGGERS.indexOf(value.charAt(index)) >= 0 ? index : -1;
+    }
+
+    // RFC 4180 subset: quoted fields with doubled quotes, no embedded line breaks
+    private static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
@@ -0,0 +1,38 @@
+package com.microservices.common.core.util;
+
+import com.microservices.common.core.enums.ResponseCode;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maps a duplicate-key failure to a response code by the name of the violated unique constraint.
+ * <p>
+ * Drivers report the name differently (MySQL {@code for key 'users.uk_users_email'}, PostgreSQL
+ * {@code violates unique constraint "uk_users_email"}, H2 {@code "PUBLIC.UK_USERS_EMAIL_INDEX_4 ..."}),
+ * so the whole cause chain is searched case-insensitively. Constraint names must therefore not be
+ * prefixes of one another. MySQL names only the key, never the column, so databases whose unique
+ * indexes still carry generated names are renamed by {@code scripts/mysql-init.sql} and {@code postgres-init.sql}.
+ */
+public final class UniqueConstraints {
+
+    private UniqueConstraints() {
+    }
+
+    public static Optional<ResponseCode> resolve(Throwable error, Map<String, ResponseCode> constraints) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            String message = current.getMessage();
+            if (message == null) {
+                continue;
+            }
+            String normalized = message.toLowerCase(Locale.ROOT);
+            for (Map.Entry<String, ResponseCode> constraint : constraints.entrySet()) {
+                if (normalized.contains(constraint.getKey().toLowerCase(Locale.ROOT))) {
+                    return Optional.of(constraint.getValue());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+}
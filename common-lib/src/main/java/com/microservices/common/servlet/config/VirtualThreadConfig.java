@@ -0,0 +1,71 @@
+package com.microservices.common.servlet.config;
+
+import com.microservices.common.servlet.concurrent.ConnectionLimitingDataSource;
+import com.microservices.common.servlet.concurrent.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Opt-in virtual-thread mode for the servlet services, switched on with {@code spring.threads.virtual.enabled=true}
+ * on a JDK 21+ runtime. On older runtimes the property has no effect and none of this is set up.
+ * <p>
+ * Spring Boot then runs Tomcat request handling, the {@code applicationTaskExecutor} behind {@code @Async} and
+ * scheduled tasks on virtual threads; Feign clients are called on the request thread and inherit it. This
+ * configuration adds what Boot does not: a connection limiter in front of the pool, sized like the Hikari pool,
+ * and JFR-based pinning diagnostics.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment,
+                                                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        int maxConnections = environment.getProperty("app.virtual-threads.max-db-connections", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        Duration acquireTimeout = Duration.ofMillis(environment.getProperty("app.virtual-threads.db-acquire-timeout-ms",
+                Long.class, environment.getProperty("spring.datasource.hikari.connection-timeout", Long.class, 30_000L)));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+                ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource(dataSource, maxConnections, acquireTimeout);
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("db.connections.limiter.active", limited, ConnectionLimitingDataSource::getActiveConnections)
+                            .tag("datasource", beanName)
+                            .register(registry);
+                    Gauge.builder("db.connections.limiter.waiting", limited, ConnectionLimitingDataSource::getWaitingThreads)
+                            .tag("datasource", beanName)
+                            .register(registry);
+                });
+                log.info("DataSource '{}' limited to {} concurrent connections for virtual threads", beanName, maxConnections);
+                return limited;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.virtual-threads.pinning-monitor.enabled", havingValue = "true", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(Environment environment, MeterRegistry meterRegistry) {
+        long thresholdMillis = environment.getProperty("app.virtual-threads.pinning-monitor.threshold-ms", Long.class, 20L);
+        return new VirtualThreadPinningMonitor(Duration.ofMillis(thresholdMillis), meterRegistry);
+    }
+}
@@ -2,6 +2,7 @@ package com.microservices.common.servlet.security;
 
 import com.microservices.common.core.exception.AuthenticationException;
 import com.microservices.common.core.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -36,9 +37,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
-                String username = jwtUtil.extractUsername(jwt);
-                List<GrantedAuthority> authorities = jwtUtil.extractAuthorities(jwt);
+            if (StringUtils.hasText(jwt)) {
+                // Verify once and read every claim from the same parse result
+                Claims claims = jwtUtil.parseToken(jwt);
+                String username = claims.getSubject();
+                List<GrantedAuthority> authorities = jwtUtil.extractAuthorities(claims);
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(username, null, authorities);
@@ -66,13 +69,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
 
+    // Streaming responses complete on an async dispatch, which needs the principal again
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
         String path = request.getRequestURI();
-        return path.startsWith("/auth/") ||
-                path.startsWith("/actuator/") ||
+        return (path.startsWith("/auth/") && !path.startsWith("/auth/admin/")) ||
+                path.startsWith("/actuator/health") ||
+                path.equals("/actuator/info") ||
+                path.equals("/actuator/prometheus") ||
                 path.startsWith("/swagger-ui/") ||
                 path.startsWith("/v3/api-docs/") ||
+                path.startsWith("/.well-known/") ||
                 path.equals("/favicon.ico");
     }
 }
\ No newline at end of file
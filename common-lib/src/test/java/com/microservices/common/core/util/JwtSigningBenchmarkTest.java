@@ -0,0 +1,122 @@
+package com.microservices.common.core.util;
+
+import com.microservices.common.core.security.EcJwks;
+import com.microservices.common.core.security.SigningKeyProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Round-trip checks for HS256 and ES256 tokens plus a rough sign/verify cost comparison
+ * (logged; not a substitute for a JMH run).
+ */
+@Slf4j
+class JwtSigningBenchmarkTest {
+
+    private static final String SECRET = "mySecretKey123456789012345678901234567890";
+    private static final int WARMUP = 500;
+    private static final int ITERATIONS = 2_000;
+
+    private JwtUtil hmacJwtUtil;
+    private JwtUtil ecJwtUtil;
+    private KeyPair keyPair;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        keyPair = generator.generateKeyPair();
+
+        hmacJwtUtil = new JwtUtil(SECRET, 60_000, 120_000);
+
+        ecJwtUtil = new JwtUtil(SECRET, 60_000, 120_000);
+        ecJwtUtil.setSigningKeyProvider(new SigningKeyProvider() {
+            @Override
+            public String currentKeyId() {
+                return "test-key";
+            }
+
+            @Override
+            public PrivateKey currentPrivateKey() {
+                return keyPair.getPrivate();
+            }
+        });
+        ecJwtUtil.setVerificationKeyResolver(kid -> "test-key".equals(kid) ? keyPair.getPublic() : null);
+    }
+
+    @Test
+    void es256Token_ShouldRoundTripThroughJwk() {
+        String token = ecJwtUtil.generateToken("testuser", Set.of("USER"));
+
+        PublicKey fromJwk = EcJwks.toPublicKey(EcJwks.toJwk("test-key", (ECPublicKey) keyPair.getPublic()));
+        JwtUtil verifier = new JwtUtil(SECRET, 60_000, 120_000);
+        verifier.setVerificationKeyResolver(kid -> fromJwk);
+
+        assertThat(verifier.validateToken(token)).isTrue();
+        assertThat(verifier.extractUsername(token)).isEqualTo("testuser");
+        assertThat(verifier.extractRoles(token)).containsExactly("USER");
+    }
+
+    @Test
+    void es256Token_WithUnknownKeyId_ShouldBeRejected() {
+        String token = ecJwtUtil.generateToken("testuser", Set.of("USER"));
+
+        JwtUtil verifier = new JwtUtil(SECRET, 60_000, 120_000);
+        verifier.setVerificationKeyResolver(kid -> null);
+
+        assertThat(verifier.validateToken(token)).isFalse();
+    }
+
+    @Test
+    void legacyHs256Token_ShouldStillVerifyWhenEnabled() {
+        String token = hmacJwtUtil.generateToken("testuser", Set.of("USER"));
+
+        assertThat(ecJwtUtil.validateToken(token)).isTrue();
+
+        ecJwtUtil.setLegacyHmacEnabled(false);
+        assertThat(ecJwtUtil.validateToken(token)).isFalse();
+    }
+
+    @Test
+    void compareSignAndVerifyCost() {
+        report("HS256", hmacJwtUtil);
+        report("ES256", ecJwtUtil);
+    }
+
+    private void report(String algorithm, JwtUtil jwtUtil) {
+        for (int i = 0; i < WARMUP; i++) {
+            jwtUtil.validateToken(jwtUtil.generateToken("user" + i, Set.of("USER")));
+        }
+
+        String[] tokens = new String[ITERATIONS];
+        long signStart = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            tokens[i] = jwtUtil.generateToken("user" + i, Set.of("USER"));
+        }
+        long signNanos = System.nanoTime() - signStart;
+
+        long verifyStart = System.nanoTime();
+        int valid = 0;
+        for (String token : tokens) {
+            if (jwtUtil.validateToken(token)) {
+                valid++;
+            }
+        }
+        long verifyNanos = System.nanoTime() - verifyStart;
+
+        assertThat(valid).isEqualTo(ITERATIONS);
+        log.info("{}: sign {} us/op, verify {} us/op", algorithm,
+                String.format("%.1f", signNanos / 1_000.0 / ITERATIONS),
+                String.format("%.1f", verifyNanos / 1_000.0 / ITERATIONS));
+    }
+}
@@ -0,0 +1,129 @@
+package com.microservices.common.servlet.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Simulated I/O-bound request load (remote call + short query) on a 200-thread platform pool, the Tomcat
+ * default, versus one virtual thread per request. Throughput is logged; the assertions only cover
+ * the connection limiter. The virtual-thread run is skipped on runtimes older than Java 21.
+ */
+@Slf4j
+class VirtualThreadLoadBenchmarkTest {
+
+    private static final int REQUESTS = 4_000;
+    private static final int POOL_SIZE = 10;
+    private static final long REMOTE_CALL_MILLIS = 50;
+    private static final long QUERY_MILLIS = 2;
+
+    private AtomicInteger open;
+    private AtomicInteger maxOpen;
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        open = new AtomicInteger();
+        maxOpen = new AtomicInteger();
+        dataSource = new ConnectionLimitingDataSource(fakePool(), POOL_SIZE, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void platformThreads_ShouldNeverExceedConnectionLimit() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(200);
+
+        long elapsed = run(executor);
+
+        report("platform (200)", elapsed);
+        assertThat(maxOpen.get()).isLessThanOrEqualTo(POOL_SIZE);
+        assertThat(dataSource.getActiveConnections()).isZero();
+    }
+
+    @Test
+    void virtualThreads_ShouldNeverExceedConnectionLimit() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads require Java 21");
+        ExecutorService executor = (ExecutorService) Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor")
+                .invoke(null);
+
+        long elapsed = run(executor);
+
+        report("virtual", elapsed);
+        assertThat(maxOpen.get()).isLessThanOrEqualTo(POOL_SIZE);
+        assertThat(dataSource.getActiveConnections()).isZero();
+    }
+
+    @Test
+    void getConnection_WhenLimitReached_ShouldTimeOut() throws Exception {
+        ConnectionLimitingDataSource single = new ConnectionLimitingDataSource(fakePool(), 1, Duration.ofMillis(50));
+
+        try (Connection ignored = single.getConnection()) {
+            assertThatThrownBy(single::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        }
+        try (Connection connection = single.getConnection()) {
+            assertThat(connection).isNotNull();
+        }
+    }
+
+    private long run(ExecutorService executor) throws Exception {
+        List<Future<?>> futures = new ArrayList<>(REQUESTS);
+        long started = System.nanoTime();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                futures.add(executor.submit(() -> {
+                    Thread.sleep(REMOTE_CALL_MILLIS);
+                    try (Connection ignored = dataSource.getConnection()) {
+                        Thread.sleep(QUERY_MILLIS);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    private void report(String mode, long elapsedMillis) {
+        log.info("{} {} requests in {} ms ({} req/s), max {} connections", String.format("%-15s", mode), REQUESTS,
+                elapsedMillis, String.format("%.0f", REQUESTS * 1000.0 / elapsedMillis), maxOpen.get());
+    }
+
+    private DataSource fakePool() {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("getConnection")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                            (connection, call, callArgs) -> {
+                                if (call.getName().equals("close")) {
+                                    open.decrementAndGet();
+                                }
+                                return null;
+                            });
+                });
+    }
+}
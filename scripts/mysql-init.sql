@@ -15,8 +15,8 @@ CREATE TABLE IF NOT EXISTS roles (
 
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    username VARCHAR(50) NOT NULL UNIQUE,
-    email VARCHAR(100) NOT NULL UNIQUE,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(100) NOT NULL,
     password VARCHAR(255) NOT NULL,
     enabled BOOLEAN DEFAULT TRUE,
     account_non_expired BOOLEAN DEFAULT TRUE,
@@ -25,10 +25,53 @@ CREATE TABLE IF NOT EXISTS users (
     last_login_at TIMESTAMP NULL,
     login_attempts INT DEFAULT 0,
     locked_at TIMESTAMP NULL,
+    token_epoch INT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    INDEX idx_users_locked_at (locked_at)
 );
 
+-- Databases created by Hibernate before the uk_users_* names carry generated unique index names that
+-- registration cannot map to USERNAME/EMAIL_ALREADY_EXISTS. Rename them, or drop them where Hibernate has
+-- since added the named index next to them. Idempotent; run this script against existing databases too.
+DROP PROCEDURE IF EXISTS rename_unique_index;
+DELIMITER //
+CREATE PROCEDURE rename_unique_index(IN table_in VARCHAR(64), IN column_in VARCHAR(64), IN index_in VARCHAR(64))
+BEGIN
+    DECLARE legacy_index VARCHAR(64) DEFAULT NULL;
+    DECLARE named_index_exists INT DEFAULT 0;
+
+    SELECT MIN(index_name) INTO legacy_index FROM (
+        SELECT index_name
+        FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = table_in AND non_unique = 0
+          AND index_name NOT IN ('PRIMARY', index_in)
+        GROUP BY index_name
+        HAVING COUNT(*) = 1 AND MAX(column_name) = column_in
+    ) legacy;
+    SELECT COUNT(*) INTO named_index_exists
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = table_in AND index_name = index_in;
+
+    IF legacy_index IS NOT NULL THEN
+        IF named_index_exists > 0 THEN
+            SET @ddl = CONCAT('ALTER TABLE `', table_in, '` DROP INDEX `', legacy_index, '`');
+        ELSE
+            SET @ddl = CONCAT('ALTER TABLE `', table_in, '` RENAME INDEX `', legacy_index, '` TO `', index_in, '`');
+        END IF;
+        PREPARE rename_statement FROM @ddl;
+        EXECUTE rename_statement;
+        DEALLOCATE PREPARE rename_statement;
+    END IF;
+END //
+DELIMITER ;
+
+CALL rename_unique_index('users', 'username', 'uk_users_username');
+CALL rename_unique_index('users', 'email', 'uk_users_email');
+DROP PROCEDURE rename_unique_index;
+
 CREATE TABLE IF NOT EXISTS user_roles (
     user_id BIGINT,
     role_id BIGINT,
@@ -37,6 +80,58 @@ CREATE TABLE IF NOT EXISTS user_roles (
     FOREIGN KEY (role_id) REFERENCES roles(id) ON DELETE CASCADE
 );
 
+CREATE TABLE IF NOT EXISTS refresh_token_families (
+    id VARCHAR(36) PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    current_token_id VARCHAR(36) NOT NULL,
+    previous_token_id VARCHAR(36),
+    generation INT NOT NULL DEFAULT 0,
+    user_epoch INT NOT NULL DEFAULT 0,
+    revoked BOOLEAN NOT NULL DEFAULT FALSE,
+    rotated_at TIMESTAMP NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_refresh_families_username (username),
+    INDEX idx_refresh_families_expires_at (expires_at)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    aggregate_id VARCHAR(255) NOT NULL,
+    event_type VARCHAR(30) NOT NULL,
+    payload TEXT NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP NULL,
+    parked_at TIMESTAMP NULL,
+    last_error VARCHAR(500),
+    INDEX idx_outbox_events_published_at (published_at, id)
+);
+
+-- Lease rows electing the single replica that runs a cluster-wide scheduled job
+CREATE TABLE IF NOT EXISTS scheduler_locks (
+    name VARCHAR(64) PRIMARY KEY,
+    locked_until TIMESTAMP(3) NOT NULL,
+    locked_by VARCHAR(255) NOT NULL
+);
+
+-- Append-only authentication audit log, partitioned by UTC day: AuditPartitionMaintainer splits the coming days
+-- off pmax with REORGANIZE PARTITION and drops days past app.audit.retention-days with DROP PARTITION
+CREATE TABLE IF NOT EXISTS auth_audit_events (
+    id BIGINT AUTO_INCREMENT,
+    occurred_at TIMESTAMP(3) NOT NULL,
+    event_type VARCHAR(30) NOT NULL,
+    username VARCHAR(255),
+    client_ip VARCHAR(45),
+    detail VARCHAR(255),
+    PRIMARY KEY (id, occurred_at),
+    INDEX idx_auth_audit_occurred_at (occurred_at),
+    INDEX idx_auth_audit_username_occurred_at (username, occurred_at)
+)
+PARTITION BY RANGE (UNIX_TIMESTAMP(occurred_at)) (
+    PARTITION pmax VALUES LESS THAN MAXVALUE
+);
+
 -- Insert default roles
 INSERT IGNORE INTO roles (name, description) VALUES
 ('USER', 'Default user role'),
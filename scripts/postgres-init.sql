@@ -6,8 +6,8 @@ CREATE DATABASE user_db;
 -- Create tables if they don't exist
 CREATE TABLE IF NOT EXISTS users (
     id SERIAL PRIMARY KEY,
-    username VARCHAR(50) NOT NULL UNIQUE,
-    email VARCHAR(100) NOT NULL UNIQUE,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(100) NOT NULL,
     first_name VARCHAR(50),
     last_name VARCHAR(50),
     phone_number VARCHAR(20),
@@ -26,10 +26,35 @@ CREATE TABLE IF NOT EXISTS users (
     phone_verified BOOLEAN DEFAULT FALSE,
     last_login_at TIMESTAMP,
     password_changed_at TIMESTAMP,
+    auth_event_id BIGINT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
 );
 
+-- Databases created by Hibernate before the uk_users_* names carry generated constraint names that
+-- createUser cannot map to USERNAME/EMAIL_ALREADY_EXISTS. Rename them, or drop them where Hibernate has
+-- since added the named constraint next to them. Idempotent; run this script against existing databases too.
+DO $$
+DECLARE
+    legacy RECORD;
+BEGIN
+    FOR legacy IN
+        SELECT c.conname, 'uk_users_' || a.attname AS target
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.conrelid = 'users'::regclass AND c.contype = 'u' AND cardinality(c.conkey) = 1
+          AND a.attname IN ('username', 'email') AND c.conname <> 'uk_users_' || a.attname
+    LOOP
+        IF EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = 'users'::regclass AND conname = legacy.target) THEN
+            EXECUTE format('ALTER TABLE users DROP CONSTRAINT %I', legacy.conname);
+        ELSE
+            EXECUTE format('ALTER TABLE users RENAME CONSTRAINT %I TO %I', legacy.conname, legacy.target);
+        END IF;
+    END LOOP;
+END $$;
+
 CREATE TABLE IF NOT EXISTS user_roles (
     user_id BIGINT,
     role VARCHAR(20),
@@ -41,4 +66,6 @@ CREATE TABLE IF NOT EXISTS user_roles (
 CREATE INDEX IF NOT EXISTS idx_users_username ON users(username);
 CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_users_active ON users(active);
-CREATE INDEX IF NOT EXISTS idx_users_created_at ON users(created_at);
\ No newline at end of file
+-- (created_at, id) serves both created_at range filters and keyset pagination seeks
+DROP INDEX IF EXISTS idx_users_created_at;
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users(created_at, id);
\ No newline at end of file
@@ -5,7 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import java.util.TimeZone;
 
-@SpringBootApplication(scanBasePackages = {"com.microservices.user_service", "com.microservices.common.core", "com.microservices.common.servlet"})
+@SpringBootApplication(scanBasePackages = {"com.microservices.user", "com.microservices.common.core", "com.microservices.common.servlet"})
 @EnableFeignClients
 public class UserServiceApplication {
 
@@ -0,0 +1,105 @@
+package com.microservices.user.batch;
+
+import com.microservices.user.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.temporal.TemporalAccessor;
+import java.util.List;
+
+/**
+ * Postgres {@code COPY ... FROM STDIN} in text format: the rows of a chunk travel as one stream and skip
+ * per-statement parsing and planning, several times faster than batched INSERTs.
+ */
+@Component
+@RequiredArgsConstructor
+public class CopyUserBatchWriter implements UserBatchWriter {
+
+    private static final String COPY_USERS_SQL = "COPY users (" + UserColumns.NAMES + ") FROM STDIN";
+    private static final String COPY_ROLES_SQL = "COPY user_roles (user_id, role) FROM STDIN";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean available;
+
+    @Override
+    public String name() {
+        return "copy";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        if (available == null) {
+            available = Boolean.TRUE.equals(jdbcTemplate.execute(
+                    (ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(PGConnection.class)));
+        }
+        return available;
+    }
+
+    @Override
+    public void insertUsers(List<User> users) {
+        StringBuilder data = new StringBuilder(users.size() * 256);
+        for (User user : users) {
+            appendRow(data, UserColumns.values(user));
+        }
+        copy(COPY_USERS_SQL, data);
+    }
+
+    @Override
+    public void insertRoles(List<User> users) {
+        StringBuilder data = new StringBuilder(users.size() * 24);
+        for (User user : users) {
+            user.getRoles().forEach(role -> appendRow(data, new Object[]{user.getId(), role.name()}));
+        }
+        copy(COPY_ROLES_SQL, data);
+    }
+
+    // Runs on the transaction's connection, so the copied rows commit or roll back with the chunk
+    private void copy(String sql, CharSequence data) {
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new StringReader(data.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void appendRow(StringBuilder data, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                data.append('\t');
+            }
+            appendValue(data, values[i]);
+        }
+        data.append('\n');
+    }
+
+    // Text format: \N is NULL, and backslash, tab, newline and carriage return are backslash-escaped
+    private static void appendValue(StringBuilder data, Object value) {
+        if (value == null) {
+            data.append("\\N");
+            return;
+        }
+        if (value instanceof Boolean flag) {
+            data.append(flag ? 't' : 'f');
+            return;
+        }
+        String text = value instanceof TemporalAccessor ? value.toString().replace('T', ' ') : value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> data.append("\\\\");
+                case '\t' -> data.append("\\t");
+                case '\n' -> data.append("\\n");
+                case '\r' -> data.append("\\r");
+                default -> data.append(c);
+            }
+        }
+    }
+}
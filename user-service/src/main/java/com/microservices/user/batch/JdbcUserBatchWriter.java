@@ -0,0 +1,49 @@
+package com.microservices.user.batch;
+
+import com.microservices.user.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Multi-row JDBC batches; portable to any database. On Postgres, {@code reWriteBatchedInserts} on the driver
+ * turns each batch into a few multi-row INSERT statements.
+ */
+@Component
+@RequiredArgsConstructor
+public class JdbcUserBatchWriter implements UserBatchWriter {
+
+    private static final String INSERT_USER_SQL = "INSERT INTO users (" + UserColumns.NAMES + ") VALUES (" +
+            String.join(", ", Collections.nCopies(UserColumns.COUNT, "?")) + ")";
+    private static final String INSERT_ROLE_SQL = "INSERT INTO user_roles (user_id, role) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public String name() {
+        return "jdbc";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public void insertUsers(List<User> users) {
+        jdbcTemplate.batchUpdate(INSERT_USER_SQL, users.stream().map(UserColumns::values).toList());
+    }
+
+    @Override
+    public void insertRoles(List<User> users) {
+        List<Object[]> rows = new ArrayList<>(users.size());
+        for (User user : users) {
+            user.getRoles().forEach(role -> rows.add(new Object[]{user.getId(), role.name()}));
+        }
+        jdbcTemplate.batchUpdate(INSERT_ROLE_SQL, rows);
+    }
+}
@@ -0,0 +1,29 @@
+package com.microservices.user.batch;
+
+import com.microservices.user.entity.User;
+
+import java.util.List;
+
+/**
+ * Bulk insert strategy behind the user import. Implementations write into the caller's transaction and leave id
+ * generation to the database; the import resolves the new ids by username before writing roles.
+ */
+public interface UserBatchWriter {
+
+    /**
+     * Name used to pick the writer with {@code app.import.writer}.
+     */
+    String name();
+
+    /**
+     * Whether the configured database supports this writer.
+     */
+    boolean isAvailable();
+
+    void insertUsers(List<User> users);
+
+    /**
+     * Inserts the roles of users whose ids have been assigned.
+     */
+    void insertRoles(List<User> users);
+}
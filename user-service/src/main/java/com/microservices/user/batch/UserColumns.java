@@ -0,0 +1,28 @@
+package com.microservices.user.batch;
+
+import com.microservices.user.entity.Address;
+import com.microservices.user.entity.User;
+
+/**
+ * The {@code users} columns written by an import, in one order shared by every {@link UserBatchWriter}.
+ */
+final class UserColumns {
+
+    static final String NAMES = "username, email, first_name, last_name, phone_number, date_of_birth, gender, " +
+            "address_line1, address_line2, city, state, postal_code, country, profile_picture_url, bio, " +
+            "active, email_verified, phone_verified, created_at, updated_at";
+    static final int COUNT = 20;
+
+    private UserColumns() {
+    }
+
+    static Object[] values(User user) {
+        Address address = user.getAddress() != null ? user.getAddress() : new Address();
+        return new Object[]{user.getUsername(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                user.getPhoneNumber(), user.getDateOfBirth(), user.getGender() != null ? user.getGender().name() : null,
+                address.getAddressLine1(), address.getAddressLine2(), address.getCity(), address.getState(),
+                address.getPostalCode(), address.getCountry(), user.getProfilePictureUrl(), user.getBio(),
+                user.isActive(), user.isEmailVerified(), user.isPhoneVerified(), user.getCreatedAt(),
+                user.getUpdatedAt()};
+    }
+}
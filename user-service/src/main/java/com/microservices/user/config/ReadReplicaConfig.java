@@ -0,0 +1,112 @@
+package com.microservices.user.config;
+
+import com.microservices.user.datasource.ReadOnlyCacheModeJpaDialect;
+import com.microservices.user.datasource.ReadReplicaRouter;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-replica routing, switched on with {@code app.read-replicas.enabled=true}. Replaces the auto-configured
+ * pool with one primary pool built from {@code spring.datasource.*} and one pool per replica that copies its
+ * settings; every pool publishes the {@code hikaricp.*} metrics under its own name. Read-only transactions read
+ * the second-level cache but leave filling it to the primary's transactions.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.read-replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReadReplicaRouter readReplicaRouter(DataSourceProperties properties,
+                                               Environment environment,
+                                               ObjectProvider<MeterRegistry> meterRegistry,
+                                               @Value("${app.read-replicas.urls:}") List<String> urls,
+                                               @Value("${app.read-replicas.pool-size:10}") int poolSize,
+                                               @Value("${app.read-replicas.max-lag-ms:1000}") long maxLagMillis,
+                                               @Value("${app.read-replicas.sticky-ms:5000}") long stickyMillis,
+                                               @Value("${app.read-replicas.position-query:}") String positionQuery,
+                                               @Value("${app.read-replicas.lag-query:}") String lagQuery) {
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        MetricsTrackerFactory poolMetrics = new MicrometerMetricsTrackerFactory(registry);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        primary.setMetricsTrackerFactory(poolMetrics);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            HikariConfig replica = new HikariConfig();
+            primary.copyStateTo(replica);
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setMinimumIdle(Math.min(primary.getMinimumIdle(), poolSize));
+            replica.setReadOnly(true);
+            // A replica that is down at startup stays out of rotation instead of failing the service
+            replica.setInitializationFailTimeout(-1);
+            replicas.put(replica.getPoolName(), new HikariDataSource(replica));
+        }
+        if (replicas.isEmpty()) {
+            log.warn("app.read-replicas.enabled is set but app.read-replicas.urls is empty; the primary serves all reads");
+        } else {
+            log.info("Routing read-only transactions to {} replica(s), at most {} ms behind", replicas.size(), maxLagMillis);
+        }
+
+        return new ReadReplicaRouter(primary, replicas, Duration.ofMillis(maxLagMillis), Duration.ofMillis(stickyMillis),
+                positionQuery, lagQuery, registry);
+    }
+
+    @Bean
+    public DataSource dataSource(ReadReplicaRouter readReplicaRouter) {
+        return readReplicaRouter.routingDataSource();
+    }
+
+    /**
+     * Boot's Hibernate adapter with the same {@code spring.jpa.*} settings, handing the transaction manager a
+     * dialect that keeps read-only sessions from writing to the second-level cache.
+     */
+    @Bean
+    public JpaVendorAdapter jpaVendorAdapter(JpaProperties properties) {
+        HibernateJpaDialect jpaDialect = new ReadOnlyCacheModeJpaDialect();
+        HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter() {
+            @Override
+            public HibernateJpaDialect getJpaDialect() {
+                return jpaDialect;
+            }
+        };
+        adapter.setShowSql(properties.isShowSql());
+        if (properties.getDatabase() != null) {
+            adapter.setDatabase(properties.getDatabase());
+        }
+        if (properties.getDatabasePlatform() != null) {
+            adapter.setDatabasePlatform(properties.getDatabasePlatform());
+        }
+        adapter.setGenerateDdl(properties.isGenerateDdl());
+        return adapter;
+    }
+}
@@ -0,0 +1,41 @@
+package com.microservices.user.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Streamed responses (change feed, export, import) write from an MVC async thread for as long as they are open.
+ * They get a pool of their own instead of the shared application executor, whose few threads a handful of
+ * followed feeds would occupy while everything else queues behind them. The pool does not queue: when every
+ * thread is streaming, a new stream is rejected at once.
+ */
+@Configuration
+public class StreamingConfig implements WebMvcConfigurer {
+
+    // Not a bean: an Executor bean would also replace Boot's application executor for everything else
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    public StreamingConfig(@Value("${app.streaming.max-threads:120}") int maxThreads) {
+        executor.setCorePoolSize(maxThreads);
+        executor.setMaxPoolSize(maxThreads);
+        executor.setQueueCapacity(0);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("mvc-stream-");
+        executor.initialize();
+    }
+
+    // Runs after Boot's own configurer, so this executor replaces the application one; the timeout is kept
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
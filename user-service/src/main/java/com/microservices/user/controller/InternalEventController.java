@@ -0,0 +1,41 @@
+package com.microservices.user.controller;
+
+import com.microservices.common.core.dto.ApiResponse;
+import com.microservices.user.dto.EventBatchResult;
+import com.microservices.user.dto.UserLifecycleEvent;
+import com.microservices.user.service.UserLifecycleEventService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/users/internal")
+@RequiredArgsConstructor
+@Tag(name = "Internal Events", description = "Service-to-service event ingestion")
+@SecurityRequirement(name = "Bearer Authentication")
+public class InternalEventController {
+
+    private final UserLifecycleEventService userLifecycleEventService;
+
+    @PostMapping("/auth-events")
+    @PreAuthorize("hasRole('SERVICE')")
+    @Operation(summary = "Apply auth-service user events", description = "Idempotent bulk apply of user lifecycle events (service token only)")
+    public ResponseEntity<ApiResponse<EventBatchResult>> applyAuthEvents(@RequestBody List<UserLifecycleEvent> events) {
+        log.debug("Received {} auth events", events.size());
+
+        EventBatchResult result = userLifecycleEventService.apply(events);
+
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+}
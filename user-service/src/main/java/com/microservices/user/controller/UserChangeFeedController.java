@@ -0,0 +1,73 @@
+package com.microservices.user.controller;
+
+import com.microservices.user.dto.ChangeFeedFormat;
+import com.microservices.user.service.UserChangeFeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@Slf4j
+@RestController
+@RequestMapping("/users/changes")
+@RequiredArgsConstructor
+@Tag(name = "Change Feed", description = "Resumable stream of user profile changes")
+@SecurityRequirement(name = "Bearer Authentication")
+public class UserChangeFeedController {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final UserChangeFeedService changeFeedService;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('SERVICE') or hasRole('ADMIN')")
+    @Operation(summary = "Stream user changes (SSE)",
+            description = "Server-sent events after the given offset; each event id is its offset, so a reconnect resumes through Last-Event-ID")
+    public ResponseEntity<StreamingResponseBody> streamEvents(
+            @Parameter(description = "Offset of the last event processed") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Keep the stream open for new events") @RequestParam(defaultValue = "true") boolean follow,
+            @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId) {
+        return stream(lastEventId != null ? lastEventId : after, ChangeFeedFormat.SSE, follow);
+    }
+
+    @GetMapping(produces = NDJSON)
+    @PreAuthorize("hasRole('SERVICE') or hasRole('ADMIN')")
+    @Operation(summary = "Stream user changes (NDJSON)",
+            description = "One change per line after the given offset; resume with the offset of the last line processed")
+    public ResponseEntity<StreamingResponseBody> streamLines(
+            @Parameter(description = "Offset of the last event processed") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Keep the stream open for new events") @RequestParam(defaultValue = "true") boolean follow) {
+        return stream(after, ChangeFeedFormat.NDJSON, follow);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(long after, ChangeFeedFormat format, boolean follow) {
+        log.debug("Change feed requested ({}) after offset {}, follow={}", format, after, follow);
+
+        UserChangeFeedService.ChangeStream stream = changeFeedService.open(after, format, follow);
+        StreamingResponseBody body = output -> {
+            try (stream) {
+                stream.writeTo(output);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType()))
+                .cacheControl(CacheControl.noStore())
+                // Reverse proxies must pass events through as they are written
+                .header("X-Accel-Buffering", "no")
+                .body(body);
+    }
+}
@@ -1,24 +1,43 @@
 package com.microservices.user.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.microservices.common.core.dto.ApiResponse;
 import com.microservices.common.core.dto.UserPrincipal;
+import com.microservices.common.core.util.RecordStreamReader;
 import com.microservices.user.dto.*;
 import com.microservices.user.entity.User;
+import com.microservices.user.service.UserBulkOperationService;
+import com.microservices.user.service.UserExportService;
+import com.microservices.user.service.UserImportService;
+import com.microservices.user.service.UserPatchService;
 import com.microservices.user.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @Slf4j
 @RestController
@@ -28,7 +47,14 @@ import org.springframework.web.bind.annotation.*;
 @SecurityRequirement(name = "Bearer Authentication")
 public class UserController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
     private final UserService userService;
+    private final UserBulkOperationService bulkOperationService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
+    private final UserPatchService userPatchService;
 
     @PostMapping
     @Operation(summary = "Create user", description = "Create a new user (Admin only)")
@@ -48,60 +74,92 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get user by ID", description = "Retrieve user information by ID")
-    @PreAuthorize("hasRole('ADMIN') or authentication.name == @userService.getUserById(#id).username")
-    public ResponseEntity<ApiResponse<UserResponse>> getUserById(@PathVariable Long id) {
+    @Operation(summary = "Get user by ID",
+            description = "Retrieve user information by ID; answers 304 when If-None-Match carries the current ETag")
+    @PreAuthorize("hasRole('ADMIN') or @userOwnership.isOwner(#id, authentication)")
+    public ResponseEntity<ApiResponse<UserResponse>> getUserById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.debug("Get user request received for ID: {}", id);
 
-        UserResponse user = userService.getUserById(id);
-
-        return ResponseEntity.ok(ApiResponse.success(user));
+        return conditionalGet(ifNoneMatch, () -> userService.getUserVersion(id), () -> userService.getUserById(id));
     }
 
     @GetMapping("/username/{username}")
-    @Operation(summary = "Get user by username", description = "Retrieve user information by username")
+    @Operation(summary = "Get user by username",
+            description = "Retrieve user information by username; answers 304 when If-None-Match carries the current ETag")
     @PreAuthorize("hasRole('ADMIN') or authentication.name == #username")
-    public ResponseEntity<ApiResponse<UserResponse>> getUserByUsername(@PathVariable String username) {
+    public ResponseEntity<ApiResponse<UserResponse>> getUserByUsername(
+            @PathVariable String username,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.debug("Get user request received for username: {}", username);
 
-        UserResponse user = userService.getUserByUsername(username);
-
-        return ResponseEntity.ok(ApiResponse.success(user));
+        return conditionalGet(ifNoneMatch, () -> userService.getUserVersionByUsername(username),
+                () -> userService.getUserByUsername(username));
     }
 
     @GetMapping("/me")
-    @Operation(summary = "Get current user", description = "Retrieve current authenticated user information")
-    public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser(@AuthenticationPrincipal UserPrincipal principal) {
+    @Operation(summary = "Get current user",
+            description = "Retrieve current authenticated user information; answers 304 when If-None-Match carries the current ETag")
+    public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.debug("Get current user request received for: {}", principal.getUsername());
 
-        UserResponse user = userService.getCurrentUser(principal);
-
-        return ResponseEntity.ok(ApiResponse.success(user));
+        return conditionalGet(ifNoneMatch, () -> userService.getUserVersionByUsername(principal.getUsername()),
+                () -> userService.getCurrentUser(principal));
     }
 
     @PutMapping("/{id}")
-    @Operation(summary = "Update user", description = "Update user information")
-    @PreAuthorize("hasRole('ADMIN') or authentication.name == @userService.getUserById(#id).username")
+    @Operation(summary = "Update user",
+            description = "Update user information; with If-Match the update fails with 412 unless the user is unchanged")
+    @PreAuthorize("hasRole('ADMIN') or @userOwnership.isOwner(#id, authentication)")
     public ResponseEntity<ApiResponse<UserResponse>> updateUser(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UserUpdateRequest request) {
         log.info("Update user request received for ID: {}", id);
 
-        UserResponse user = userService.updateUser(id, request);
+        UserResponse user = userService.updateUser(id, request, UserETags.expectedVersion(ifMatch));
 
-        return ResponseEntity.ok(ApiResponse.success("User updated successfully", user));
+        return ResponseEntity.ok()
+                .eTag(UserETags.of(user.getVersion()))
+                .body(ApiResponse.success("User updated successfully", user));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Patch user",
+            description = "Apply a JSON merge patch (RFC 7396): only the members sent are changed, null clears a field; "
+                    + "with If-Match the patch fails with 412 unless the user is unchanged")
+    @PreAuthorize("hasRole('ADMIN') or @userOwnership.isOwner(#id, authentication)")
+    public ResponseEntity<ApiResponse<UserResponse>> patchUser(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch) {
+        log.info("Patch user request received for ID: {}", id);
+
+        UserResponse user = userPatchService.patchUser(id, patch, UserETags.expectedVersion(ifMatch));
+
+        return ResponseEntity.ok()
+                .eTag(UserETags.of(user.getVersion()))
+                .body(ApiResponse.success("User updated successfully", user));
     }
 
     @PutMapping("/me")
-    @Operation(summary = "Update current user", description = "Update current authenticated user information")
+    @Operation(summary = "Update current user",
+            description = "Update current authenticated user information; with If-Match the update fails with 412 "
+                    + "unless the profile is unchanged")
     public ResponseEntity<ApiResponse<UserResponse>> updateCurrentUser(
             @AuthenticationPrincipal UserPrincipal principal,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UserUpdateRequest request) {
         log.info("Update current user request received for: {}", principal.getUsername());
 
-        UserResponse user = userService.updateCurrentUser(principal, request);
+        UserResponse user = userService.updateCurrentUser(principal, request, UserETags.expectedVersion(ifMatch));
 
-        return ResponseEntity.ok(ApiResponse.success("Profile updated successfully", user));
+        return ResponseEntity.ok()
+                .eTag(UserETags.of(user.getVersion()))
+                .body(ApiResponse.success("Profile updated successfully", user));
     }
 
     @DeleteMapping("/{id}")
@@ -140,30 +198,94 @@ public class UserController {
     @GetMapping
     @Operation(summary = "Get all users", description = "Retrieve paginated list of all users (Admin only)")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Page<UserResponse>>> getAllUsers(
+    public ResponseEntity<ApiResponse<Slice<UserResponse>>> getAllUsers(
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Sort field") @RequestParam(defaultValue = "createdAt") String sortBy,
-            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "desc") String sortDir) {
+            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "desc") String sortDir,
+            @Parameter(description = "Total count: exact, estimated or none") @RequestParam(defaultValue = "exact") String countMode) {
 
         log.debug("Get all users request - page: {}, size: {}", page, size);
 
-        Page<UserResponse> users = userService.getAllUsers(page, size, sortBy, sortDir);
+        CountMode mode = CountMode.from(countMode);
+        Slice<UserResponse> users = userService.getAllUsers(page, size, sortBy, sortDir, mode);
 
-        return ResponseEntity.ok(ApiResponse.success(users));
+        return ResponseEntity.ok(withPageMeta(ApiResponse.success(users), mode));
     }
 
     @PostMapping("/search")
     @Operation(summary = "Search users", description = "Search users with criteria (Admin only)")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Page<UserResponse>>> searchUsers(@Valid @RequestBody UserSearchRequest request) {
+    public ResponseEntity<ApiResponse<Slice<UserResponse>>> searchUsers(@Valid @RequestBody UserSearchRequest request) {
         log.debug("Search users request received with criteria: {}", request);
 
-        Page<UserResponse> users = userService.searchUsers(request);
+        Slice<UserResponse> users = userService.searchUsers(request);
+
+        return ResponseEntity.ok(withPageMeta(ApiResponse.success(users), CountMode.from(request.getCountMode())));
+    }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "Get all users by cursor",
+            description = "Keyset-paginated list of all users, newest first by default, without a total count (Admin only)")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPage<UserResponse>>> getUsersByCursor(
+            @Parameter(description = "Cursor from the previous page; omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Sort direction on createdAt") @RequestParam(defaultValue = "desc") String sortDir) {
+
+        log.debug("Get users by cursor request - size: {}", size);
+
+        CursorPage<UserResponse> users = userService.getUsersByCursor(cursor, size, sortDir);
 
         return ResponseEntity.ok(ApiResponse.success(users));
     }
 
+    @PostMapping("/search/cursor")
+    @Operation(summary = "Search users by cursor",
+            description = "Keyset-paginated search sorted by createdAt, without a total count (Admin only)")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPage<UserResponse>>> searchUsersByCursor(@Valid @RequestBody UserSearchRequest request) {
+        log.debug("Search users by cursor request received with criteria: {}", request);
+
+        CursorPage<UserResponse> users = userService.searchUsersByCursor(request);
+
+        return ResponseEntity.ok(ApiResponse.success(users));
+    }
+
+    @PostMapping("/export")
+    @Operation(summary = "Export users",
+            description = "Streams every user matching the search criteria as NDJSON or CSV, in creation order (Admin only)")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @Valid @RequestBody UserSearchRequest request,
+            @Parameter(description = "Output format: ndjson or csv") @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        log.info("User export requested ({}) with criteria: {}", exportFormat, request);
+
+        StreamingResponseBody body = output -> userExportService.export(request, exportFormat, output);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + exportFormat.extension() + "\"")
+                .body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = {NDJSON, "text/csv"}, produces = NDJSON)
+    @Operation(summary = "Import users",
+            description = "Create profiles from an NDJSON or CSV upload with the export's columns; streams a report of rejected rows followed by a summary (Admin only)")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> importUsers(HttpServletRequest request) throws IOException {
+        RecordStreamReader.Format format = RecordStreamReader.Format.fromContentType(request.getContentType());
+        InputStream body = request.getInputStream();
+        log.info("User import requested ({})", format);
+
+        StreamingResponseBody report = output -> userImportService.importUsers(body, format, output);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(report);
+    }
+
     @PostMapping("/{id}/roles/{role}")
     @Operation(summary = "Add role to user", description = "Add a role to user (Admin only)")
     @PreAuthorize("hasRole('ADMIN')")
@@ -212,6 +334,28 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success("Phone verified successfully", null));
     }
 
+    @PostMapping("/bulk")
+    @Operation(summary = "Start bulk operation",
+            description = "Activate, deactivate, add or remove a role, or verify email for an id list or every user matching a filter. Runs in the background (Admin only)")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<BulkOperationStatus>> startBulkOperation(@Valid @RequestBody BulkUserRequest request) {
+        log.info("Bulk operation request: {} {}", request.getAction(), request.getRole() != null ? request.getRole() : "");
+
+        BulkOperationStatus status = bulkOperationService.start(request);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Bulk operation started", status));
+    }
+
+    @GetMapping("/bulk/{operationId}")
+    @Operation(summary = "Get bulk operation progress", description = "Progress and outcome of a bulk operation (Admin only)")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<BulkOperationStatus>> getBulkOperation(@PathVariable String operationId) {
+        BulkOperationStatus status = bulkOperationService.getStatus(operationId);
+
+        return ResponseEntity.ok(ApiResponse.success(status));
+    }
+
     @GetMapping("/stats")
     @Operation(summary = "Get user statistics", description = "Get user statistics (Admin only)")
     @PreAuthorize("hasRole('ADMIN')")
@@ -222,4 +366,49 @@ public class UserController {
 
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/stats/signups")
+    @Operation(summary = "Get signup series", description = "Signups per day, week or month between two dates (Admin only)")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<SignupBucket>>> getSignupSeries(
+            @Parameter(description = "First day (inclusive), defaults to 30 days ago")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day (inclusive), defaults to today")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Bucket width: day, week or month") @RequestParam(defaultValue = "day") String interval) {
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        log.debug("Get signup series request - from: {}, to: {}, interval: {}", start, end, interval);
+
+        List<SignupBucket> series = userService.getSignupSeries(start, end, SignupInterval.from(interval));
+
+        return ResponseEntity.ok(ApiResponse.success(series));
+    }
+
+    // A revalidation reads only the version column; the profile is loaded only when it has changed
+    private static ResponseEntity<ApiResponse<UserResponse>> conditionalGet(
+            String ifNoneMatch, Supplier<Optional<Long>> version, Supplier<UserResponse> user) {
+        if (ifNoneMatch != null) {
+            Optional<Long> current = version.get();
+            if (current.isPresent() && UserETags.anyMatches(ifNoneMatch, current.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(UserETags.of(current.get()))
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .build();
+            }
+        }
+        UserResponse response = user.get();
+        return ResponseEntity.ok()
+                .eTag(UserETags.of(response.getVersion()))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(ApiResponse.success(response));
+    }
+
+    // Tells the client whether totalElements is exact, an estimate ("about N results") or absent
+    private static ApiResponse<Slice<UserResponse>> withPageMeta(ApiResponse<Slice<UserResponse>> response, CountMode mode) {
+        return response
+                .withMeta("countMode", mode.value())
+                .withMeta("hasNext", response.getData().hasNext());
+    }
+}
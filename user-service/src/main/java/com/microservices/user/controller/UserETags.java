@@ -0,0 +1,57 @@
+package com.microservices.user.controller;
+
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+
+/**
+ * Strong entity tags derived from the user's version column, e.g. {@code "7"}.
+ */
+final class UserETags {
+
+    private UserETags() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header matches the current version. Comparison is weak, as RFC 9110
+     * requires for this header.
+     */
+    static boolean anyMatches(String ifNoneMatch, long version) {
+        String current = of(version);
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The version an {@code If-Match} header requires, or null when the write is unconditional. A weak or foreign
+     * tag can never match strongly, so it fails the precondition outright.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        if (ifMatch.contains(",")) {
+            throw new BusinessException(ResponseCode.BAD_REQUEST, "If-Match must carry a single entity tag");
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // Not one of ours; falls through to the failed precondition
+            }
+        }
+        throw new BusinessException(ResponseCode.PRECONDITION_FAILED, "If-Match does not match the current user");
+    }
+}
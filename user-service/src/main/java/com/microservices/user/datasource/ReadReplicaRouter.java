@@ -0,0 +1,285 @@
+package com.microservices.user.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the connections of read-only transactions to read replicas and everything else to the primary.
+ * <p>
+ * Replicas are taken in turn, skipping any that are unreachable or further behind than the allowed lag; when
+ * none is usable the primary serves the read. A principal whose write committed within the sticky window keeps
+ * reading from the primary, so it never reads back an older copy of what it just wrote. That window is kept in
+ * memory by each instance: a read served by another instance of the service right after the write is routed as
+ * usual, so read-your-writes across instances needs the gateway to keep a principal on one instance.
+ */
+@Slf4j
+public class ReadReplicaRouter implements AutoCloseable {
+
+    static final String DEFAULT_POSITION_QUERY = "SELECT pg_current_wal_lsn()::text";
+
+    // Zero once the replica has replayed up to the primary's position read just before, so an idle primary does
+    // not look like lag while a replica whose stream stopped falls behind as soon as the primary writes. Behind it,
+    // the age of the last replayed commit, which after a quiet spell overstates the lag until the next check.
+    // NULL, and so out of rotation, on a database that is not replaying WAL at all.
+    static final String DEFAULT_LAG_QUERY = "SELECT CASE WHEN pg_last_wal_replay_lsn() >= CAST(? AS pg_lsn) THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private static final long UNAVAILABLE = -1;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    private final String positionQuery;
+    private final String lagQuery;
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter writes;
+    private final Counter stickyReads;
+    private final Counter fallbackReads;
+
+    public ReadReplicaRouter(DataSource primary, Map<String, DataSource> replicas, Duration maxLag,
+                             Duration stickyWindow, String positionQuery, String lagQuery,
+                             MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagMillis = maxLag.toMillis();
+        this.positionQuery = positionQuery == null || positionQuery.isBlank() ? DEFAULT_POSITION_QUERY : positionQuery;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? DEFAULT_LAG_QUERY : lagQuery;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .build();
+
+        this.writes = routed(meterRegistry, "primary", "write");
+        this.stickyReads = routed(meterRegistry, "primary", "sticky");
+        this.fallbackReads = routed(meterRegistry, "primary", "fallback");
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource, routed(meterRegistry, name, "read"));
+            TimeGauge.builder("db.replica.lag", replica, TimeUnit.MILLISECONDS,
+                            r -> r.lagMillis == UNAVAILABLE ? Double.NaN : r.lagMillis)
+                    .tag("pool", name)
+                    .register(meterRegistry);
+            Gauge.builder("db.replica.usable", replica, r -> r.isUsable(maxLagMillis) ? 1 : 0)
+                    .tag("pool", name)
+                    .register(meterRegistry);
+            this.replicas.add(replica);
+        });
+    }
+
+    /**
+     * The DataSource to hand to JPA and JDBC. Physical connections are taken at the first statement, by which
+     * time the transaction is known to be read-only or not.
+     */
+    public DataSource routingDataSource() {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(new RoutedDataSource(false));
+        dataSource.setReadOnlyDataSource(new RoutedDataSource(true));
+        // Set explicitly, otherwise the proxy opens a primary connection just to read them
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+
+    /**
+     * Measures how far each replica is behind. A lag query with a {@code ?} placeholder is given the primary's
+     * position, read first; a replica that cannot be queried or reports no lag is skipped until it answers again.
+     */
+    @Scheduled(fixedDelayString = "${app.read-replicas.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        Object position = null;
+        if (!replicas.isEmpty() && lagQuery.contains("?")) {
+            try {
+                position = primaryPosition();
+            } catch (SQLException e) {
+                // Nothing new reaches the replicas while the primary is away, so their last measurements still hold
+                log.debug("Lag check skipped, primary position unavailable: {}", e.getMessage());
+                return;
+            }
+        }
+        for (Replica replica : replicas) {
+            boolean wasUsable = replica.isUsable(maxLagMillis);
+            long lag = measureLag(replica, position);
+            replica.lagMillis = lag;
+
+            boolean usable = replica.isUsable(maxLagMillis);
+            if (wasUsable && !usable) {
+                log.warn("Replica {} taken out of rotation ({})", replica.name,
+                        lag == UNAVAILABLE ? "unreachable or not replicating" : lag + " ms behind");
+            } else if (!wasUsable && usable) {
+                log.info("Replica {} in rotation, {} ms behind", replica.name, lag);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> closeQuietly(replica.dataSource));
+        closeQuietly(primary);
+    }
+
+    private Object primaryPosition() throws SQLException {
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(positionQuery)) {
+            Object position = resultSet.next() ? resultSet.getObject(1) : null;
+            if (position == null) {
+                throw new SQLException("Position query returned nothing: " + positionQuery);
+            }
+            return position;
+        }
+    }
+
+    private long measureLag(Replica replica, Object primaryPosition) {
+        try (Connection connection = replica.dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(lagQuery)) {
+            if (primaryPosition != null) {
+                statement.setObject(1, primaryPosition);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return UNAVAILABLE;
+                }
+                double lag = resultSet.getDouble(1);
+                return resultSet.wasNull() ? UNAVAILABLE : Math.max(0, Math.round(lag));
+            }
+        } catch (SQLException e) {
+            log.debug("Lag check failed for replica {}: {}", replica.name, e.getMessage());
+            return UNAVAILABLE;
+        }
+    }
+
+    private Connection writeConnection() throws SQLException {
+        writes.increment();
+        String principal = currentPrincipal();
+        if (principal != null) {
+            // The lazy proxy takes one physical connection per transaction, so this registers once per transaction
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        recentWriters.put(principal, Boolean.TRUE);
+                    }
+                });
+            } else {
+                recentWriters.put(principal, Boolean.TRUE);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    private Connection readConnection() throws SQLException {
+        String principal = currentPrincipal();
+        if (principal != null && recentWriters.getIfPresent(principal) != null) {
+            stickyReads.increment();
+            return primary.getConnection();
+        }
+        int size = replicas.size();
+        int start = size > 0 ? Math.floorMod(next.getAndIncrement(), size) : 0;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.isUsable(maxLagMillis)) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.reads.increment();
+                return connection;
+            } catch (SQLException e) {
+                log.warn("Replica {} taken out of rotation: {}", replica.name, e.getMessage());
+                replica.lagMillis = UNAVAILABLE;
+            }
+        }
+        fallbackReads.increment();
+        return primary.getConnection();
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, String pool, String route) {
+        return Counter.builder("db.routing.connections")
+                .description("Physical connections handed out by the read-replica router")
+                .tag("pool", pool)
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.warn("Failed to close data source: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final Counter reads;
+        // Unknown until the first check, so a replica only serves reads once it has answered
+        private volatile long lagMillis = UNAVAILABLE;
+
+        private Replica(String name, DataSource dataSource, Counter reads) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.reads = reads;
+        }
+
+        private boolean isUsable(long maxLagMillis) {
+            return lagMillis != UNAVAILABLE && lagMillis <= maxLagMillis;
+        }
+    }
+
+    private final class RoutedDataSource extends AbstractDataSource {
+
+        private final boolean readOnly;
+
+        private RoutedDataSource(boolean readOnly) {
+            this.readOnly = readOnly;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return readOnly ? readConnection() : writeConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException("Credentials are configured per pool");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.microservices.user.dto;
+
+import com.microservices.user.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationStatus {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private String operationId;
+    private BulkUserAction action;
+    private User.Role role;
+    private State state;
+    // Users targeted when the operation started; for a filter, the rows matching it at that time
+    private long targeted;
+    private long processed;
+    // Users actually changed; users already in the requested state are processed but not updated
+    private long updated;
+    private int chunksCompleted;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
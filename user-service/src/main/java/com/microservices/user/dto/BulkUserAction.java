@@ -0,0 +1,9 @@
+package com.microservices.user.dto;
+
+public enum BulkUserAction {
+    ACTIVATE,
+    DEACTIVATE,
+    ADD_ROLE,
+    REMOVE_ROLE,
+    VERIFY_EMAIL
+}
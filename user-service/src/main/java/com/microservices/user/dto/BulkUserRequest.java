@@ -0,0 +1,31 @@
+package com.microservices.user.dto;
+
+import com.microservices.user.entity.User;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A bulk admin operation: one action applied to either an explicit id list or every user matching a search
+ * filter. Paging, sorting and count fields of the filter are ignored.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserRequest {
+
+    @NotNull(message = "Action is required")
+    private BulkUserAction action;
+
+    // Required for ADD_ROLE and REMOVE_ROLE
+    private User.Role role;
+
+    private List<Long> ids;
+
+    @Valid
+    private UserSearchRequest filter;
+}
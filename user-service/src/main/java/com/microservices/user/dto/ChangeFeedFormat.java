@@ -0,0 +1,16 @@
+package com.microservices.user.dto;
+
+public enum ChangeFeedFormat {
+    SSE("text/event-stream"),
+    NDJSON("application/x-ndjson");
+
+    private final String contentType;
+
+    ChangeFeedFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+}
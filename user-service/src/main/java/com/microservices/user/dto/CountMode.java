@@ -0,0 +1,28 @@
+package com.microservices.user.dto;
+
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+
+import java.util.Locale;
+
+/**
+ * How the total of an offset page is computed: an exact {@code COUNT(*)}, an estimate, or not at all.
+ */
+public enum CountMode {
+    EXACT, ESTIMATED, NONE;
+
+    public static CountMode from(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ResponseCode.BAD_REQUEST, "Unknown count mode: " + value);
+        }
+    }
+
+    public String value() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
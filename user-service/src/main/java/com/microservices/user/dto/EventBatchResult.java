@@ -0,0 +1,20 @@
+package com.microservices.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Outcome of an auth event batch. Skipped events were already applied; failed events, keyed by event id with
+ * the reason, cannot be applied and are not acknowledged.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventBatchResult {
+    private int applied;
+    private int skipped;
+    private Map<Long, String> failed;
+}
@@ -0,0 +1,17 @@
+package com.microservices.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A line of the import reject report: an input row that was not imported, and why.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowResult {
+    private long line;
+    private String username;
+    private String message;
+}
@@ -0,0 +1,52 @@
+package com.microservices.user.dto;
+
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a cursor page on the {@code (created_at, id)} key. Clients only ever see the
+ * encoded form, which also pins the sort direction so a cursor cannot be replayed against the other order.
+ */
+public record KeysetCursor(Sort.Direction direction, LocalDateTime createdAt, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static KeysetCursor after(UserResponse row, Sort.Direction direction) {
+        return new KeysetCursor(direction, row.getCreatedAt(), row.getId());
+    }
+
+    public String encode() {
+        String raw = (direction.isDescending() ? "d" : "a") + SEPARATOR + createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor, Sort.Direction expectedDirection) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3) {
+                throw invalid();
+            }
+            Sort.Direction direction = switch (parts[0]) {
+                case "d" -> Sort.Direction.DESC;
+                case "a" -> Sort.Direction.ASC;
+                default -> throw invalid();
+            };
+            if (direction != expectedDirection) {
+                throw new BusinessException(ResponseCode.BAD_REQUEST, "Cursor was issued for a different sort direction");
+            }
+            return new KeysetCursor(direction, LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw invalid();
+        }
+    }
+
+    private static BusinessException invalid() {
+        return new BusinessException(ResponseCode.BAD_REQUEST, "Invalid cursor");
+    }
+}
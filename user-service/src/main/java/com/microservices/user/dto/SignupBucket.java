@@ -0,0 +1,15 @@
+package com.microservices.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignupBucket {
+    private LocalDate start;
+    private long count;
+}
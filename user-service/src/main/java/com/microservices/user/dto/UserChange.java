@@ -0,0 +1,28 @@
+package com.microservices.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.microservices.user.entity.UserChangeEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event of the user change feed. {@code offset} is the position to resume after; {@code user} is the
+ * profile snapshot after the change, absent for deletions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChange {
+    private long offset;
+    private UserChangeEvent.Type type;
+    private Long userId;
+    private LocalDateTime occurredAt;
+    // Stored as serialized JSON and written as is
+    @JsonRawValue
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String user;
+}
@@ -0,0 +1,25 @@
+package com.microservices.user.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * User lifecycle event relayed from the auth-service outbox; carries a full snapshot of the account.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserLifecycleEvent {
+    private Long eventId;
+    private String type;
+    private String username;
+    private String email;
+    private boolean enabled;
+    private boolean locked;
+    private Set<String> roles;
+    private LocalDateTime occurredAt;
+}
@@ -34,4 +34,5 @@ public class UserResponse {
     private LocalDateTime lastLoginAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private long version;
 }
\ No newline at end of file
@@ -35,4 +35,8 @@ public class UserSearchRequest {
     private Integer size = 20;
     private String sortBy = "createdAt";
     private String sortDir = "desc";
+    private String countMode = "exact";
+
+    // Opaque position from the previous cursor page; only used by the cursor endpoint
+    private String cursor;
 }
@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -14,5 +17,10 @@ public class UserStatsResponse {
     private long activeUsers;
     private long inactiveUsers;
     private long newUsersThisMonth;
+    private long emailVerifiedUsers;
+    private Map<String, Long> usersByRole;
+    private Map<String, Long> usersByCountry;
+    // When the counters were last checked against the database
+    private LocalDateTime reconciledAt;
 }
 
@@ -0,0 +1,71 @@
+package com.microservices.user.entity;
+
+import com.microservices.user.dto.BulkOperationStatus;
+import com.microservices.user.dto.BulkUserAction;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a bulk admin operation. Every replica can answer a status poll, whichever one runs the
+ * operation; the counters move in the same transaction as the chunk they count.
+ */
+@Entity
+@Table(name = "bulk_operations", indexes = @Index(name = "idx_bulk_operations_finished_at", columnList = "finished_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperation {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BulkUserAction action;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private User.Role role;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BulkOperationStatus.State state = BulkOperationStatus.State.QUEUED;
+
+    @Column(nullable = false)
+    private long targeted;
+
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(nullable = false)
+    private long updated;
+
+    @Column(name = "chunks_completed", nullable = false)
+    private int chunksCompleted;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(length = 1000)
+    private String error;
+
+    public BulkOperation(String id, BulkUserAction action, User.Role role, long targeted) {
+        this.id = id;
+        this.action = action;
+        this.role = role;
+        this.targeted = targeted;
+    }
+}
@@ -0,0 +1,28 @@
+package com.microservices.user.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last feed offset handed out by the change feed relay. Relays lock this row, so offsets are stamped by one
+ * replica at a time and in the order the events became visible.
+ */
+@Entity
+@Table(name = "change_feed_sequence")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedSequence {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(name = "last_offset", nullable = false)
+    private long lastOffset;
+}
@@ -0,0 +1,53 @@
+package com.microservices.user.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entry of the user change feed, written in the same transaction as the change it describes. The feed offset is
+ * stamped by the relay once that transaction has committed, so offsets follow visibility rather than insert
+ * order. The payload is a full {@code UserResponse} snapshot (none for deletions), so consumers only need
+ * the latest event of each user.
+ */
+@Entity
+@Table(name = "user_change_events", indexes = {
+        @Index(name = "idx_user_change_events_user_id_id", columnList = "user_id, id"),
+        @Index(name = "idx_user_change_events_created_at", columnList = "created_at"),
+        @Index(name = "idx_user_change_events_feed_offset", columnList = "feed_offset", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangeEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Null until the relay has seen the event committed
+    @Column(name = "feed_offset")
+    private Long feedOffset;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 20)
+    private Type changeType;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
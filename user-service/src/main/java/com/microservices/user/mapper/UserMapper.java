@@ -4,6 +4,7 @@ import com.microservices.user.dto.UserRequest;
 import com.microservices.user.dto.UserResponse;
 import com.microservices.user.dto.UserUpdateRequest;
 import com.microservices.user.entity.User;
+import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValuePropertyMappingStrategy;
@@ -25,5 +26,11 @@ public interface UserMapper {
     User toEntity(UserRequest request);
 
     void updateEntityFromRequest(UserUpdateRequest request, @MappingTarget User user);
+
+    UserUpdateRequest toUpdateRequest(User user);
+
+    // Unlike updateEntityFromRequest, nulls clear the field: the request is the complete patched state
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.SET_TO_NULL)
+    void applyPatchedState(UserUpdateRequest request, @MappingTarget User user);
 }
 
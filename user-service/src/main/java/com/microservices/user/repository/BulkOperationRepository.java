@@ -0,0 +1,39 @@
+package com.microservices.user.repository;
+
+import com.microservices.user.dto.BulkOperationStatus;
+import com.microservices.user.entity.BulkOperation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface BulkOperationRepository extends JpaRepository<BulkOperation, String> {
+
+    @Modifying
+    @Query("UPDATE BulkOperation o SET o.state = :state, o.startedAt = :startedAt WHERE o.id = :id")
+    int markStarted(@Param("id") String id,
+                    @Param("state") BulkOperationStatus.State state,
+                    @Param("startedAt") LocalDateTime startedAt);
+
+    @Modifying
+    @Query("UPDATE BulkOperation o SET o.processed = o.processed + :processed, o.updated = o.updated + :updated, " +
+            "o.chunksCompleted = o.chunksCompleted + 1 WHERE o.id = :id")
+    int recordChunk(@Param("id") String id, @Param("processed") long processed, @Param("updated") long updated);
+
+    @Modifying
+    @Query("UPDATE BulkOperation o SET o.state = :state, o.finishedAt = :finishedAt, o.error = :error " +
+            "WHERE o.id IN :ids AND o.finishedAt IS NULL")
+    int markFinished(@Param("ids") Collection<String> ids,
+                     @Param("state") BulkOperationStatus.State state,
+                     @Param("finishedAt") LocalDateTime finishedAt,
+                     @Param("error") String error);
+
+    @Modifying
+    @Query("DELETE FROM BulkOperation o WHERE o.finishedAt < :cutoff")
+    int deleteFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
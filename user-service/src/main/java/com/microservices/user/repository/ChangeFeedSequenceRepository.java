@@ -0,0 +1,20 @@
+package com.microservices.user.repository;
+
+import com.microservices.user.entity.ChangeFeedSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ChangeFeedSequenceRepository extends JpaRepository<ChangeFeedSequence, String> {
+
+    // SELECT ... FOR UPDATE: a second relay waits here until the first one has committed its offsets
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ChangeFeedSequence s WHERE s.name = :name")
+    Optional<ChangeFeedSequence> lock(@Param("name") String name);
+}
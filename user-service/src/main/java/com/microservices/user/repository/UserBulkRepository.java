@@ -0,0 +1,31 @@
+package com.microservices.user.repository;
+
+import com.microservices.user.entity.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based statements behind the bulk admin operations. Each changes many users in a round trip or two and
+ * reports what it actually changed; none of them loads a {@link User}.
+ */
+public interface UserBulkRepository {
+
+    /**
+     * Up to {@code limit} ids above {@code afterId} matching the specification, ascending. Walking the ids this
+     * way stays stable while the matched users are being changed.
+     */
+    List<Long> findIdChunk(Specification<User> spec, long afterId, int limit);
+
+    /**
+     * Adds the role to those of the given users that do not have it yet and returns their ids, ascending.
+     */
+    List<Long> insertRole(Collection<Long> ids, User.Role role);
+
+    /**
+     * Removes the role from the given users and returns the ids of those that had it, ascending. Like the
+     * single-user operation, USER is kept where it is the only role.
+     */
+    List<Long> deleteRole(Collection<Long> ids, User.Role role);
+}
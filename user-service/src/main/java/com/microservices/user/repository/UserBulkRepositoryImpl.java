@@ -0,0 +1,86 @@
+package com.microservices.user.repository;
+
+import com.microservices.user.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+class UserBulkRepositoryImpl implements UserBulkRepository {
+
+    private static final String ROLES_TABLE = "user_roles";
+    // The users rows are locked, so a concurrent role change of the same user waits and the ids stay exact
+    private static final String LACKING_ROLE_SQL = "SELECT u.id FROM users u WHERE u.id IN (:ids) " +
+            "AND NOT EXISTS (SELECT 1 FROM user_roles r WHERE r.user_id = u.id AND r.role = :role) FOR UPDATE";
+    private static final String HAVING_ROLE_SQL = "SELECT u.id FROM users u WHERE u.id IN (:ids) " +
+            "AND EXISTS (SELECT 1 FROM user_roles r WHERE r.user_id = u.id AND r.role = :role%s) FOR UPDATE";
+    private static final String INSERT_ROLE_SQL = "INSERT INTO user_roles (user_id, role) " +
+            "SELECT u.id, CAST(:role AS VARCHAR(255)) FROM users u WHERE u.id IN (:ids) " +
+            "AND NOT EXISTS (SELECT 1 FROM user_roles r WHERE r.user_id = u.id AND r.role = :role)";
+    private static final String DELETE_ROLE_SQL = "DELETE FROM user_roles r WHERE r.user_id IN (:ids) AND r.role = :role";
+    private static final String KEEP_ONLY_ROLE = " AND EXISTS (SELECT 1 FROM user_roles o " +
+            "WHERE o.user_id = r.user_id AND o.role <> r.role)";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Long> findIdChunk(Specification<User> spec, long afterId, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<User> root = query.from(User.class);
+
+        Predicate after = criteriaBuilder.greaterThan(root.get("id"), afterId);
+        Predicate predicate = spec != null ? spec.toPredicate(root, query, criteriaBuilder) : null;
+        query.select(root.get("id"))
+                .where(predicate != null ? criteriaBuilder.and(predicate, after) : after)
+                .orderBy(criteriaBuilder.asc(root.get("id")));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<Long> insertRole(Collection<Long> ids, User.Role role) {
+        List<Long> changed = changedIds(LACKING_ROLE_SQL, ids, role);
+        if (!changed.isEmpty()) {
+            rolesStatement(INSERT_ROLE_SQL, changed, role).executeUpdate();
+        }
+        return changed;
+    }
+
+    @Override
+    public List<Long> deleteRole(Collection<Long> ids, User.Role role) {
+        String keepOnly = role == User.Role.USER ? KEEP_ONLY_ROLE : "";
+        List<Long> changed = changedIds(HAVING_ROLE_SQL.formatted(keepOnly), ids, role);
+        if (!changed.isEmpty()) {
+            rolesStatement(DELETE_ROLE_SQL + keepOnly, changed, role).executeUpdate();
+        }
+        return changed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> changedIds(String sql, Collection<Long> ids, User.Role role) {
+        List<Number> rows = entityManager.createNativeQuery(sql)
+                .setParameter("ids", ids)
+                .setParameter("role", role.name())
+                .getResultList();
+        return rows.stream().map(Number::longValue).sorted().toList();
+    }
+
+    // Declaring the touched table limits the cache eviction to the roles region instead of the whole second-level cache
+    private Query rolesStatement(String sql, Collection<Long> ids, User.Role role) {
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("ids", ids)
+                .setParameter("role", role.name());
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace(ROLES_TABLE);
+        return query;
+    }
+}
@@ -0,0 +1,32 @@
+package com.microservices.user.repository;
+
+import com.microservices.user.entity.UserChangeEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UserChangeEventRepository extends JpaRepository<UserChangeEvent, Long> {
+
+    @Query("SELECT e FROM UserChangeEvent e WHERE e.feedOffset > :after AND e.feedOffset <= :head ORDER BY e.feedOffset")
+    List<UserChangeEvent> findRange(@Param("after") long after, @Param("head") long head, Pageable pageable);
+
+    // Only committed events are visible here; one still in flight is stamped by a later relay
+    @Query("SELECT e.id FROM UserChangeEvent e WHERE e.feedOffset IS NULL ORDER BY e.id")
+    List<Long> findUnstampedIds(Pageable pageable);
+
+    /**
+     * Compaction: removes events older than the cutoff that a newer event of the same user supersedes, and
+     * deletion events older than the cutoff.
+     */
+    @Modifying
+    @Query("DELETE FROM UserChangeEvent e WHERE e.createdAt < :cutoff AND (e.changeType = :deleted OR " +
+            "EXISTS (SELECT 1 FROM UserChangeEvent n WHERE n.userId = e.userId AND n.id > e.id))")
+    int compactBefore(@Param("cutoff") LocalDateTime cutoff, @Param("deleted") UserChangeEvent.Type deleted);
+}
@@ -0,0 +1,15 @@
+package com.microservices.user.repository;
+
+import com.microservices.user.entity.User;
+
+import java.util.Optional;
+
+public interface UserNaturalIdRepository {
+
+    /**
+     * Looks a user up by username through Hibernate's natural-id API, which resolves username to id from the
+     * natural-id cache and then reads the entity cache, so a warm lookup runs no SQL. {@code findByUsername}
+     * is a query and always hits the database.
+     */
+    Optional<User> loadByUsername(String username);
+}
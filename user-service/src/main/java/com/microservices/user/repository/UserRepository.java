@@ -11,20 +11,45 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>,
+        UserResponseRepository, UserNaturalIdRepository, UserBulkRepository {
 
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
 
+    @Query("SELECT u.username FROM User u WHERE u.id = :id")
+    Optional<String> findUsernameById(@Param("id") Long id);
+
+    // Version-only lookups answer conditional GETs without hydrating the entity
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT u.version FROM User u WHERE u.username = :username")
+    Optional<Long> findVersionByUsername(@Param("username") String username);
+
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
 
+    List<User> findByUsernameIn(Collection<String> usernames);
+
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // (id, username) pairs, for rows inserted outside JPA whose generated ids are not known to the caller
+    @Query("SELECT u.id, u.username FROM User u WHERE u.username IN :usernames")
+    List<Object[]> findIdsByUsernameIn(@Param("usernames") Collection<String> usernames);
+
     List<User> findByActiveTrue();
 
     List<User> findByActiveFalse();
@@ -45,6 +70,19 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
     @Query("SELECT u FROM User u WHERE u.address.country = :country")
     List<User> findByCountry(@Param("country") String country);
 
+    // Row-value seeks on (created_at, id); Postgres answers these from idx_users_created_at_id alone
+    @Query(value = "SELECT CAST(id AS BIGINT) FROM users WHERE (created_at, id) < (:createdAt, :id) " +
+            "ORDER BY created_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsBefore(@Param("createdAt") LocalDateTime createdAt,
+                             @Param("id") long id,
+                             @Param("limit") int limit);
+
+    @Query(value = "SELECT CAST(id AS BIGINT) FROM users WHERE (created_at, id) > (:createdAt, :id) " +
+            "ORDER BY created_at ASC, id ASC LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsAfter(@Param("createdAt") LocalDateTime createdAt,
+                            @Param("id") long id,
+                            @Param("limit") int limit);
+
     @Query("SELECT u FROM User u WHERE " +
             "(:username IS NULL OR LOWER(u.username) LIKE LOWER(CONCAT('%', :username, '%'))) AND " +
             "(:email IS NULL OR LOWER(u.email) LIKE LOWER(CONCAT('%', :email, '%'))) AND " +
@@ -56,20 +94,40 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
                            @Param("lastName") String lastName,
                            Pageable pageable);
 
+    // Bulk updates evict the whole users cache region; single-user changes should go through the entity instead.
+    // Every update bumps the version by hand, since only entity writes do it automatically and ETags depend on it
     @Modifying
-    @Query("UPDATE User u SET u.active = :active WHERE u.id = :userId")
+    @Query("UPDATE User u SET u.active = :active, u.version = u.version + 1 WHERE u.id = :userId")
     void updateUserStatus(@Param("userId") Long userId, @Param("active") boolean active);
 
+    // Returns 0 when the email was already verified, so callers can tell whether anything changed
+    @Modifying
+    @Query("UPDATE User u SET u.emailVerified = true, u.version = u.version + 1 " +
+            "WHERE u.id = :userId AND u.emailVerified = false")
+    int markEmailAsVerified(@Param("userId") Long userId);
+
+    // Set-based forms of the two queries above for bulk operations; only rows that change are touched and counted
+    @Modifying
+    @Query("UPDATE User u SET u.active = :active, u.version = u.version + 1, u.updatedAt = LOCAL DATETIME " +
+            "WHERE u.id IN :ids AND u.active <> :active")
+    int updateUserStatus(@Param("ids") Collection<Long> ids, @Param("active") boolean active);
+
+    @Modifying
+    @Query("UPDATE User u SET u.emailVerified = true, u.version = u.version + 1, u.updatedAt = LOCAL DATETIME " +
+            "WHERE u.id IN :ids AND u.emailVerified = false")
+    int markEmailAsVerified(@Param("ids") Collection<Long> ids);
+
+    // For changes made by native statements on other tables, such as role rows
     @Modifying
-    @Query("UPDATE User u SET u.emailVerified = true WHERE u.id = :userId")
-    void markEmailAsVerified(@Param("userId") Long userId);
+    @Query("UPDATE User u SET u.version = u.version + 1, u.updatedAt = LOCAL DATETIME WHERE u.id IN :ids")
+    int incrementVersion(@Param("ids") Collection<Long> ids);
 
     @Modifying
-    @Query("UPDATE User u SET u.phoneVerified = true WHERE u.id = :userId")
+    @Query("UPDATE User u SET u.phoneVerified = true, u.version = u.version + 1 WHERE u.id = :userId")
     void markPhoneAsVerified(@Param("userId") Long userId);
 
     @Modifying
-    @Query("UPDATE User u SET u.lastLoginAt = :loginTime WHERE u.id = :userId")
+    @Query("UPDATE User u SET u.lastLoginAt = :loginTime, u.version = u.version + 1 WHERE u.id = :userId")
     void updateLastLoginTime(@Param("userId") Long userId, @Param("loginTime") LocalDateTime loginTime);
 
     @Query("SELECT COUNT(u) FROM User u WHERE u.active = true")
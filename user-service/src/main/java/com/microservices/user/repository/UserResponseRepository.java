@@ -0,0 +1,27 @@
+package com.microservices.user.repository;
+
+import com.microservices.user.dto.UserResponse;
+import com.microservices.user.entity.User;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Read-only listing paths that select the {@link UserResponse} columns as scalars and attach roles with one
+ * query per page. No {@link User} entity is hydrated, so nothing enters the persistence context, no
+ * dirty-checking snapshot is taken and no mapper copy is made.
+ */
+public interface UserResponseRepository {
+
+    /**
+     * Up to {@code limit} users matching the specification from {@code offset} on, in the given order.
+     * A null specification matches all users.
+     */
+    List<UserResponse> findResponses(Specification<User> spec, Sort sort, long offset, int limit);
+
+    /**
+     * The given users in the order of {@code ids}; ids without a user are skipped.
+     */
+    List<UserResponse> findResponsesByIds(List<Long> ids);
+}
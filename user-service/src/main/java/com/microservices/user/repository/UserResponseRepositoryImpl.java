@@ -0,0 +1,140 @@
+package com.microservices.user.repository;
+
+import com.microservices.user.dto.UserResponse;
+import com.microservices.user.entity.Address;
+import com.microservices.user.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@RequiredArgsConstructor
+class UserResponseRepositoryImpl implements UserResponseRepository {
+
+    private static final String[] COLUMNS = {"id", "username", "email", "firstName", "lastName", "phoneNumber",
+            "dateOfBirth", "gender", "profilePictureUrl", "bio", "active", "emailVerified", "phoneVerified",
+            "lastLoginAt", "createdAt", "updatedAt", "version"};
+    private static final String[] ADDRESS_COLUMNS = {"addressLine1", "addressLine2", "city", "state", "postalCode",
+            "country"};
+    private static final String ROLES_QUERY = "SELECT u.id, r FROM User u JOIN u.roles r WHERE u.id IN :ids";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<UserResponse> findResponses(Specification<User> spec, Sort sort, long offset, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<User> root = query.from(User.class);
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.multiselect(columns(root)).orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setFirstResult((int) offset)
+                .setMaxResults(limit)
+                .getResultList();
+        return withRoles(rows);
+    }
+
+    @Override
+    public List<UserResponse> findResponsesByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<User> root = query.from(User.class);
+        query.multiselect(columns(root)).where(root.get("id").in(ids));
+
+        Map<Long, UserResponse> byId = new LinkedHashMap<>();
+        withRoles(entityManager.createQuery(query).getResultList())
+                .forEach(response -> byId.put(response.getId(), response));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    private static List<Selection<?>> columns(Root<User> root) {
+        List<Selection<?>> selections = new ArrayList<>(COLUMNS.length + ADDRESS_COLUMNS.length);
+        for (String column : COLUMNS) {
+            selections.add(root.get(column).alias(column));
+        }
+        Path<Address> address = root.get("address");
+        for (String column : ADDRESS_COLUMNS) {
+            selections.add(address.get(column).alias(column));
+        }
+        return selections;
+    }
+
+    // One IN query for the roles of the whole page instead of one collection load per user
+    private List<UserResponse> withRoles(List<Tuple> rows) {
+        Map<Long, UserResponse> byId = new LinkedHashMap<>();
+        for (Tuple row : rows) {
+            UserResponse response = toResponse(row);
+            byId.put(response.getId(), response);
+        }
+        if (!byId.isEmpty()) {
+            entityManager.createQuery(ROLES_QUERY, Object[].class)
+                    .setParameter("ids", byId.keySet())
+                    .getResultList()
+                    .forEach(role -> byId.get((Long) role[0]).getRoles().add((User.Role) role[1]));
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    private static UserResponse toResponse(Tuple row) {
+        return UserResponse.builder()
+                .id(row.get("id", Long.class))
+                .username(row.get("username", String.class))
+                .email(row.get("email", String.class))
+                .firstName(row.get("firstName", String.class))
+                .lastName(row.get("lastName", String.class))
+                .phoneNumber(row.get("phoneNumber", String.class))
+                .dateOfBirth(row.get("dateOfBirth", LocalDate.class))
+                .gender(row.get("gender", User.Gender.class))
+                .address(toAddress(row))
+                .profilePictureUrl(row.get("profilePictureUrl", String.class))
+                .bio(row.get("bio", String.class))
+                .active(row.get("active", Boolean.class))
+                .emailVerified(row.get("emailVerified", Boolean.class))
+                .phoneVerified(row.get("phoneVerified", Boolean.class))
+                .roles(new HashSet<>())
+                .lastLoginAt(row.get("lastLoginAt", LocalDateTime.class))
+                .createdAt(row.get("createdAt", LocalDateTime.class))
+                .updatedAt(row.get("updatedAt", LocalDateTime.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+
+    // Hibernate reads an embedded value with all columns null as a null Address; do the same
+    private static Address toAddress(Tuple row) {
+        Address address = new Address(
+                row.get("addressLine1", String.class),
+                row.get("addressLine2", String.class),
+                row.get("city", String.class),
+                row.get("state", String.class),
+                row.get("postalCode", String.class),
+                row.get("country", String.class));
+        return Objects.equals(address, new Address()) ? null : address;
+    }
+}
@@ -0,0 +1,91 @@
+package com.microservices.user.search;
+
+import com.microservices.user.entity.Address;
+import com.microservices.user.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * The searchable part of a user as held by {@link UserSearchIndex}: lower-cased text fields plus the
+ * structured filter columns. Roles are kept as a bit mask over {@link User.Role#ordinal()}.
+ */
+public record IndexedUser(long id,
+                          String username,
+                          String email,
+                          String firstName,
+                          String lastName,
+                          String city,
+                          String country,
+                          User.Gender gender,
+                          int roleMask,
+                          boolean active,
+                          boolean emailVerified,
+                          LocalDateTime createdAt) {
+
+    public enum Field {
+        USERNAME, EMAIL, FIRST_NAME, LAST_NAME, CITY, COUNTRY
+    }
+
+    public static IndexedUser from(User user) {
+        Address address = user.getAddress();
+        return new IndexedUser(
+                user.getId(),
+                lower(user.getUsername()),
+                lower(user.getEmail()),
+                lower(user.getFirstName()),
+                lower(user.getLastName()),
+                address != null ? lower(address.getCity()) : null,
+                address != null ? lower(address.getCountry()) : null,
+                user.getGender(),
+                roleMask(user.getRoles()),
+                user.isActive(),
+                user.isEmailVerified(),
+                user.getCreatedAt());
+    }
+
+    public String value(Field field) {
+        return switch (field) {
+            case USERNAME -> username;
+            case EMAIL -> email;
+            case FIRST_NAME -> firstName;
+            case LAST_NAME -> lastName;
+            case CITY -> city;
+            case COUNTRY -> country;
+        };
+    }
+
+    public boolean hasRole(User.Role role) {
+        return (roleMask & (1 << role.ordinal())) != 0;
+    }
+
+    public IndexedUser withEmailVerified(boolean verified) {
+        return new IndexedUser(id, username, email, firstName, lastName, city, country, gender, roleMask,
+                active, verified, createdAt);
+    }
+
+    public IndexedUser withActive(boolean isActive) {
+        return new IndexedUser(id, username, email, firstName, lastName, city, country, gender, roleMask,
+                isActive, emailVerified, createdAt);
+    }
+
+    public IndexedUser withRoleMask(int mask) {
+        return new IndexedUser(id, username, email, firstName, lastName, city, country, gender, mask,
+                active, emailVerified, createdAt);
+    }
+
+    public static int roleMask(Collection<User.Role> roles) {
+        int mask = 0;
+        if (roles != null) {
+            for (User.Role role : roles) {
+                mask |= 1 << role.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+}
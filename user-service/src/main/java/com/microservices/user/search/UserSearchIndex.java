@@ -0,0 +1,656 @@
+package com.microservices.user.search;
+
+import com.microservices.user.dto.UserSearchRequest;
+import com.microservices.user.entity.User;
+import com.microservices.user.search.IndexedUser.Field;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory trigram index answering the substring filters of {@code POST /users/search} without a table scan.
+ * <p>
+ * Every indexed user gets an ordinal; for each text field, each distinct trigram of the lower-cased value maps to
+ * the ascending list of ordinals containing it. A query intersects the posting lists of all trigrams of its terms,
+ * then verifies the surviving candidates against the full request (terms shorter than three characters and the
+ * structured filters). Updates are append-only: a changed user gets a new ordinal and the old one becomes a
+ * tombstone, and the index compacts itself in the background once tombstones pile up.
+ * <p>
+ * The index is built at startup by streaming the table and then follows this instance's own committed writes.
+ * While it is cold, and for requests it cannot narrow down (no term of three or more characters) or sort, callers
+ * fall back to SQL.
+ */
+@Slf4j
+@Component
+public class UserSearchIndex {
+
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final int MIN_COMPACTION_SIZE = 10_000;
+    private static final int SCAN_FRACTION = 4;
+    private static final long[] NO_KEYS = new long[0];
+
+    private static final String LOAD_SQL = "SELECT u.id, u.username, u.email, u.first_name, u.last_name, u.city, " +
+            "u.country, u.gender, u.active, u.email_verified, u.created_at, r.role " +
+            "FROM users u LEFT JOIN user_roles r ON r.user_id = u.id ORDER BY u.id";
+
+    private static final Map<String, Comparator<IndexedUser>> SORTS = Map.of(
+            "createdAt", Comparator.comparing(IndexedUser::createdAt, Comparator.nullsFirst(Comparator.naturalOrder())),
+            "id", Comparator.comparingLong(IndexedUser::id));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final boolean enabled;
+    private final double compactionRatio;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by lock. segment is null while the index is cold; pending collects writes during a rebuild
+    private Segment segment;
+    private List<Consumer<Segment>> pending;
+
+    public UserSearchIndex(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.search-index.enabled:true}") boolean enabled,
+                           @Value("${app.search-index.fetch-size:10000}") int fetchSize,
+                           @Value("${app.search-index.compaction-ratio:0.25}") double compactionRatio) {
+        if (jdbcTemplate != null) {
+            this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+            this.jdbcTemplate.setFetchSize(fetchSize);
+        } else {
+            this.jdbcTemplate = null;
+        }
+        if (transactionManager != null) {
+            // Postgres only streams with a cursor inside a transaction. Not marked read-only, which would let a
+            // lagging replica serve it: only writes committed after the rebuild starts are replayed from pending
+            this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        } else {
+            this.snapshotTransaction = null;
+        }
+        this.enabled = enabled;
+        this.compactionRatio = compactionRatio;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            submitRebuild("startup", this::streamFromDatabase);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * Replaces the index contents synchronously; used by tests and benchmarks instead of the startup scan.
+     */
+    public void load(Collection<IndexedUser> users) {
+        rebuild("load", users::forEach);
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return segment != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment != null ? segment.live() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return segment != null ? segment.estimatedBytes() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Mutations are applied once the surrounding transaction has committed, so rolled-back writes never show up
+
+    public void indexAfterCommit(User user) {
+        IndexedUser snapshot = IndexedUser.from(user);
+        afterCommit(segment -> segment.add(snapshot));
+    }
+
+    public void removeAfterCommit(Long id) {
+        afterCommit(segment -> segment.remove(id));
+    }
+
+    public void markEmailVerifiedAfterCommit(Long id) {
+        afterCommit(segment -> segment.update(id, user -> user.withEmailVerified(true)));
+    }
+
+    // For set-based updates, which change structured fields of many users without loading them
+    public void updateAfterCommit(Collection<Long> ids, UnaryOperator<IndexedUser> change) {
+        List<Long> changed = List.copyOf(ids);
+        afterCommit(segment -> changed.forEach(id -> segment.update(id, change)));
+    }
+
+    /**
+     * Ids of the requested page, or empty when the index cannot answer and the caller has to query SQL.
+     */
+    public Optional<Page<Long>> search(UserSearchRequest request, Pageable pageable) {
+        Map<Field, String> terms = textTerms(request);
+        if (terms.values().stream().noneMatch(term -> term.length() >= MIN_TERM_LENGTH)) {
+            return Optional.empty();
+        }
+        Comparator<IndexedUser> comparator = comparator(pageable.getSort());
+        if (comparator == null) {
+            return Optional.empty();
+        }
+
+        List<IndexedUser> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (segment == null) {
+                return Optional.empty();
+            }
+            List<IntList> lists = new ArrayList<>();
+            for (Map.Entry<Field, String> term : terms.entrySet()) {
+                for (long key : trigrams(term.getKey(), term.getValue())) {
+                    IntList postings = segment.postings.get(key);
+                    if (postings == null) {
+                        return Optional.of(Page.empty(pageable));
+                    }
+                    lists.add(postings);
+                }
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            if (lists.get(0).size > segment.size / SCAN_FRACTION) {
+                // Even the rarest trigram is everywhere; checking every user is cheaper than intersecting
+                for (int ordinal = 0; ordinal < segment.size; ordinal++) {
+                    IndexedUser user = segment.docs[ordinal];
+                    if (user != null && matches(user, request, terms)) {
+                        matches.add(user);
+                    }
+                }
+            } else {
+                int[] candidates = Arrays.copyOf(lists.get(0).values, lists.get(0).size);
+                int count = candidates.length;
+                for (int i = 1; i < lists.size() && count > 0; i++) {
+                    count = intersect(candidates, count, lists.get(i));
+                }
+                for (int i = 0; i < count; i++) {
+                    IndexedUser user = segment.docs[candidates[i]];
+                    if (user != null && matches(user, request, terms)) {
+                        matches.add(user);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int limit = (int) Math.min(matches.size(), pageable.getOffset() + pageable.getPageSize());
+        List<IndexedUser> head = first(matches, limit, comparator);
+        int from = (int) Math.min(pageable.getOffset(), head.size());
+        List<Long> ids = head.subList(from, head.size()).stream().map(IndexedUser::id).toList();
+        return Optional.of(new PageImpl<>(ids, pageable, matches.size()));
+    }
+
+    // The first n matches in sort order; a bounded heap avoids sorting every match for an early page
+    private static List<IndexedUser> first(List<IndexedUser> matches, int n, Comparator<IndexedUser> comparator) {
+        if (n * 4L >= matches.size()) {
+            matches.sort(comparator);
+            return matches.subList(0, n);
+        }
+        PriorityQueue<IndexedUser> heap = new PriorityQueue<>(n + 1, comparator.reversed());
+        for (IndexedUser user : matches) {
+            heap.offer(user);
+            if (heap.size() > n) {
+                heap.poll();
+            }
+        }
+        List<IndexedUser> head = new ArrayList<>(heap);
+        head.sort(comparator);
+        return head;
+    }
+
+    private void afterCommit(Consumer<Segment> mutation) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(mutation);
+                }
+            });
+        } else {
+            apply(mutation);
+        }
+    }
+
+    private void apply(Consumer<Segment> mutation) {
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            if (segment != null) {
+                mutation.accept(segment);
+            }
+            if (pending != null) {
+                pending.add(mutation);
+            }
+            compact = segment != null && segment.size > MIN_COMPACTION_SIZE
+                    && segment.tombstones > segment.size * compactionRatio;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            submitRebuild("compaction", sink -> liveUsers().forEach(sink));
+        }
+    }
+
+    private List<IndexedUser> liveUsers() {
+        lock.readLock().lock();
+        try {
+            List<IndexedUser> live = new ArrayList<>(segment.live());
+            for (int i = 0; i < segment.size; i++) {
+                if (segment.docs[i] != null) {
+                    live.add(segment.docs[i]);
+                }
+            }
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void submitRebuild(String reason, Consumer<Consumer<IndexedUser>> source) {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        builder.execute(() -> {
+            try {
+                rebuild(reason, source);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    /**
+     * Builds a fresh segment without blocking readers or writers, then swaps it in after replaying the writes
+     * committed meanwhile.
+     */
+    private void rebuild(String reason, Consumer<Consumer<IndexedUser>> source) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment fresh = new Segment();
+        try {
+            source.accept(fresh::add);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("User search index {} failed, searches {}: {}", reason,
+                    isReady() ? "keep using the previous index" : "fall back to SQL", e.getMessage());
+            return;
+        }
+
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            replayed = pending.size();
+            pending.forEach(mutation -> mutation.accept(fresh));
+            pending = null;
+            segment = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("User search index {} done: {} users, {} trigrams, ~{} MiB, {} writes replayed, {} ms",
+                reason, fresh.live(), fresh.postings.size(), fresh.estimatedBytes() >> 20, replayed,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void streamFromDatabase(Consumer<IndexedUser> sink) {
+        RowFolder folder = new RowFolder(sink);
+        snapshotTransaction.executeWithoutResult(status -> jdbcTemplate.query(LOAD_SQL, folder));
+        folder.flush();
+    }
+
+    private static Comparator<IndexedUser> comparator(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() != 1 || !SORTS.containsKey(orders.get(0).getProperty())) {
+            return null;
+        }
+        Comparator<IndexedUser> comparator = SORTS.get(orders.get(0).getProperty())
+                .thenComparingLong(IndexedUser::id);
+        return orders.get(0).isDescending() ? comparator.reversed() : comparator;
+    }
+
+    // Same criteria and semantics as UserSpecification.buildSpecification
+    private static Map<Field, String> textTerms(UserSearchRequest request) {
+        Map<Field, String> terms = new EnumMap<>(Field.class);
+        putTerm(terms, Field.USERNAME, request.getUsername());
+        putTerm(terms, Field.EMAIL, request.getEmail());
+        putTerm(terms, Field.FIRST_NAME, request.getFirstName());
+        putTerm(terms, Field.LAST_NAME, request.getLastName());
+        putTerm(terms, Field.CITY, request.getCity());
+        putTerm(terms, Field.COUNTRY, request.getCountry());
+        return terms;
+    }
+
+    private static void putTerm(Map<Field, String> terms, Field field, String value) {
+        if (value != null && !value.trim().isEmpty()) {
+            terms.put(field, IndexedUser.lower(value));
+        }
+    }
+
+    private static boolean matches(IndexedUser user, UserSearchRequest request, Map<Field, String> terms) {
+        for (Map.Entry<Field, String> term : terms.entrySet()) {
+            String value = user.value(term.getKey());
+            if (value == null || !value.contains(term.getValue())) {
+                return false;
+            }
+        }
+        if (request.getGender() != null && request.getGender() != user.gender()) {
+            return false;
+        }
+        if (request.getRole() != null && !user.hasRole(request.getRole())) {
+            return false;
+        }
+        if (request.getActive() != null && request.getActive() != user.active()) {
+            return false;
+        }
+        if (request.getEmailVerified() != null && request.getEmailVerified() != user.emailVerified()) {
+            return false;
+        }
+        if (request.getCreatedAfter() != null
+                && (user.createdAt() == null || user.createdAt().isBefore(request.getCreatedAfter().atStartOfDay()))) {
+            return false;
+        }
+        return request.getCreatedBefore() == null
+                || (user.createdAt() != null && !user.createdAt().isAfter(request.getCreatedBefore().atTime(23, 59, 59)));
+    }
+
+    static long[] trigrams(Field field, String value) {
+        if (value == null || value.length() < MIN_TERM_LENGTH) {
+            return NO_KEYS;
+        }
+        long[] keys = new long[value.length() - 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) field.ordinal() << 48)
+                    | ((long) value.charAt(i) << 32)
+                    | ((long) value.charAt(i + 1) << 16)
+                    | value.charAt(i + 2);
+        }
+        Arrays.sort(keys);
+        int distinct = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return distinct == keys.length ? keys : Arrays.copyOf(keys, distinct);
+    }
+
+    /**
+     * Keeps the entries of {@code acc} that also occur in {@code other}, galloping through the longer list.
+     */
+    private static int intersect(int[] acc, int accSize, IntList other) {
+        int kept = 0;
+        int position = 0;
+        for (int i = 0; i < accSize && position < other.size; i++) {
+            int target = acc[i];
+            position = gallop(other.values, position, other.size, target);
+            if (position < other.size && other.values[position] == target) {
+                acc[kept++] = target;
+            }
+        }
+        return kept;
+    }
+
+    // First index in [from, to) whose value is >= target, or to
+    private static int gallop(int[] values, int from, int to, int target) {
+        int bound = 1;
+        while (from + bound < to && values[from + bound] < target) {
+            bound <<= 1;
+        }
+        int found = Arrays.binarySearch(values, from + (bound >> 1), Math.min(from + bound + 1, to), target);
+        return found >= 0 ? found : -found - 1;
+    }
+
+    private static final class Segment {
+
+        private IndexedUser[] docs = new IndexedUser[1024];
+        private int size;
+        private int tombstones;
+        private final LongIntMap ordinals = new LongIntMap();
+        private final Map<Long, IntList> postings = new HashMap<>();
+
+        void add(IndexedUser user) {
+            remove(user.id());
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size + (size >> 1));
+            }
+            int ordinal = size++;
+            docs[ordinal] = user;
+            ordinals.put(user.id(), ordinal);
+            for (Field field : Field.values()) {
+                for (long key : trigrams(field, user.value(field))) {
+                    postings.computeIfAbsent(key, k -> new IntList()).add(ordinal);
+                }
+            }
+        }
+
+        void remove(long id) {
+            int ordinal = ordinals.get(id);
+            if (ordinal >= 0 && docs[ordinal] != null) {
+                docs[ordinal] = null;
+                tombstones++;
+                ordinals.put(id, -1);
+            }
+        }
+
+        // Only for changes to structured fields; text changes go through add()
+        void update(long id, UnaryOperator<IndexedUser> change) {
+            int ordinal = ordinals.get(id);
+            if (ordinal >= 0 && docs[ordinal] != null) {
+                docs[ordinal] = change.apply(docs[ordinal]);
+            }
+        }
+
+        int live() {
+            return size - tombstones;
+        }
+
+        long estimatedBytes() {
+            long bytes = (long) docs.length * 8 + ordinals.estimatedBytes();
+            for (IntList list : postings.values()) {
+                bytes += 64 + (long) list.values.length * Integer.BYTES;
+            }
+            // Record header, references and the lower-cased strings of a typical user
+            return bytes + (long) live() * 240;
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[2];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size + (size >> 1) + 1);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * Open-addressing id to ordinal map; boxing ten million ids in a HashMap would cost more than the postings.
+     */
+    private static final class LongIntMap {
+
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys = newKeys(1 << 12);
+        private int[] values = new int[1 << 12];
+        private int size;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); keys[i] != EMPTY; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            if ((size + 1) * 10L > keys.length * 7L) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                size++;
+            }
+            values[i] = value;
+        }
+
+        long estimatedBytes() {
+            return (long) keys.length * (Long.BYTES + Integer.BYTES);
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+    }
+
+    /**
+     * Folds the user x role join (ordered by user id) back into one {@link IndexedUser} per user.
+     */
+    private static final class RowFolder implements RowCallbackHandler {
+
+        private final Consumer<IndexedUser> sink;
+        private IndexedUser current;
+        private int roleMask;
+
+        RowFolder(Consumer<IndexedUser> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (current == null || current.id() != id) {
+                flush();
+                String gender = rs.getString("gender");
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                current = new IndexedUser(id,
+                        IndexedUser.lower(rs.getString("username")),
+                        IndexedUser.lower(rs.getString("email")),
+                        IndexedUser.lower(rs.getString("first_name")),
+                        IndexedUser.lower(rs.getString("last_name")),
+                        IndexedUser.lower(rs.getString("city")),
+                        IndexedUser.lower(rs.getString("country")),
+                        gender != null ? User.Gender.valueOf(gender) : null,
+                        0,
+                        rs.getBoolean("active"),
+                        rs.getBoolean("email_verified"),
+                        createdAt != null ? createdAt.toLocalDateTime() : null);
+            }
+            String role = rs.getString("role");
+            if (role != null) {
+                roleMask |= 1 << User.Role.valueOf(role).ordinal();
+            }
+        }
+
+        void flush() {
+            if (current != null) {
+                sink.accept(new IndexedUser(current.id(), current.username(), current.email(), current.firstName(),
+                        current.lastName(), current.city(), current.country(), current.gender(), roleMask,
+                        current.active(), current.emailVerified(), current.createdAt()));
+                current = null;
+                roleMask = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.microservices.user.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservices.user.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Ownership checks for {@code @PreAuthorize}, e.g. {@code @userOwnership.isOwner(#id, authentication)}.
+ * <p>
+ * Only the username of the target user is needed, so misses run a single-column projection instead of
+ * loading and mapping the whole user. Usernames are the immutable natural id and ids are never reused,
+ * so cached entries cannot go stale; absent users are not cached so an id created later is found.
+ */
+@Component("userOwnership")
+public class UserOwnershipEvaluator {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, String> usernames;
+
+    public UserOwnershipEvaluator(UserRepository userRepository,
+                                  @Value("${app.ownership-cache.ttl-seconds:600}") long ttlSeconds,
+                                  @Value("${app.ownership-cache.max-size:50000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.usernames = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public boolean isOwner(Long userId, Authentication authentication) {
+        if (userId == null || authentication == null) {
+            return false;
+        }
+        String username = usernames.get(userId, id -> userRepository.findUsernameById(id).orElse(null));
+        return username != null && username.equals(authentication.getName());
+    }
+}
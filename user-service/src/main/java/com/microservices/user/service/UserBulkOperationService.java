@@ -0,0 +1,291 @@
+package com.microservices.user.service;
+
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+import com.microservices.common.core.exception.ResourceNotFoundException;
+import com.microservices.user.dto.BulkOperationStatus;
+import com.microservices.user.dto.BulkUserAction;
+import com.microservices.user.dto.BulkUserRequest;
+import com.microservices.user.entity.BulkOperation;
+import com.microservices.user.entity.User;
+import com.microservices.user.entity.UserChangeEvent;
+import com.microservices.user.repository.BulkOperationRepository;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.search.IndexedUser;
+import com.microservices.user.search.UserSearchIndex;
+import com.microservices.user.specification.UserSpecification;
+import com.microservices.user.stats.UserStatsCounters;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs bulk admin operations as set-based statements over chunks of user ids, each chunk in its own
+ * transaction, so offboarding thousands of users costs a few statements per chunk instead of a load and a
+ * save per user. Operations run one at a time in the background on the replica that accepted them; their
+ * progress is stored in {@code bulk_operations}, so any replica can answer a poll.
+ * <p>
+ * A failure stops the operation after the last committed chunk; the status reports how far it got, and
+ * since every action is idempotent the same request can simply be submitted again.
+ */
+@Slf4j
+@Service
+public class UserBulkOperationService {
+
+    private final UserRepository userRepository;
+    private final BulkOperationRepository operationRepository;
+    private final UserSearchIndex searchIndex;
+    private final UserStatsCounters userStats;
+    private final UserChangeOutbox changeOutbox;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final int maxIds;
+    private final Duration retention;
+    // Operations accepted by this replica and not finished yet
+    private final Set<String> unfinished = ConcurrentHashMap.newKeySet();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-bulk-operations");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserBulkOperationService(UserRepository userRepository,
+                                    BulkOperationRepository operationRepository,
+                                    UserSearchIndex searchIndex,
+                                    UserStatsCounters userStats,
+                                    UserChangeOutbox changeOutbox,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.bulk.chunk-size:1000}") int chunkSize,
+                                    @Value("${app.bulk.max-ids:100000}") int maxIds,
+                                    @Value("${app.bulk.retention-minutes:60}") long retentionMinutes) {
+        this.userRepository = userRepository;
+        this.operationRepository = operationRepository;
+        this.searchIndex = searchIndex;
+        this.userStats = userStats;
+        this.changeOutbox = changeOutbox;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxIds = maxIds;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    // Nothing resumes an operation of a stopped replica, so its row must not stay RUNNING forever
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+        if (unfinished.isEmpty()) {
+            return;
+        }
+        try {
+            chunkTransaction.executeWithoutResult(status -> operationRepository.markFinished(List.copyOf(unfinished),
+                    BulkOperationStatus.State.FAILED, LocalDateTime.now(), "Interrupted by shutdown; submit it again"));
+        } catch (RuntimeException e) {
+            log.warn("Could not mark interrupted bulk operations {} as failed: {}", unfinished, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.bulk.cleanup-interval-ms:600000}")
+    public void purgeFinished() {
+        int purged = chunkTransaction.execute(status ->
+                operationRepository.deleteFinishedBefore(LocalDateTime.now().minus(retention)));
+        if (purged > 0) {
+            log.debug("Purged {} finished bulk operations", purged);
+        }
+    }
+
+    public BulkOperationStatus start(BulkUserRequest request) {
+        BulkUserAction action = request.getAction();
+        boolean roleAction = action == BulkUserAction.ADD_ROLE || action == BulkUserAction.REMOVE_ROLE;
+        if (roleAction && request.getRole() == null) {
+            throw new BusinessException(ResponseCode.BAD_REQUEST, "Role is required for " + action);
+        }
+        if ((request.getIds() == null) == (request.getFilter() == null)) {
+            throw new BusinessException(ResponseCode.BAD_REQUEST, "Exactly one of 'ids' or 'filter' is required");
+        }
+
+        List<Long> ids = null;
+        Specification<User> spec = null;
+        long targeted;
+        if (request.getIds() != null) {
+            ids = request.getIds().stream().filter(Objects::nonNull).distinct().sorted().toList();
+            if (ids.size() > maxIds) {
+                throw new BusinessException(ResponseCode.RESOURCE_LIMIT_EXCEEDED,
+                        "At most " + maxIds + " ids per bulk operation; use a filter instead");
+            }
+            targeted = ids.size();
+        } else {
+            spec = UserSpecification.buildSpecification(request.getFilter());
+            targeted = userRepository.count(spec);
+        }
+
+        BulkOperation operation = operationRepository.save(new BulkOperation(UUID.randomUUID().toString(), action,
+                roleAction ? request.getRole() : null, targeted));
+        unfinished.add(operation.getId());
+        log.info("Queued bulk operation {}: {} {} on {} users", operation.getId(), action,
+                operation.getRole() != null ? operation.getRole() : "", targeted);
+
+        Job job = new Job(operation.getId(), action, operation.getRole());
+        List<Long> targetIds = ids;
+        Specification<User> targetSpec = spec;
+        worker.execute(() -> run(job, targetIds, targetSpec));
+        return toStatus(operation);
+    }
+
+    public BulkOperationStatus getStatus(String operationId) {
+        return operationRepository.findById(operationId)
+                .map(UserBulkOperationService::toStatus)
+                .orElseThrow(() -> new ResourceNotFoundException("Bulk operation", operationId));
+    }
+
+    private void run(Job job, List<Long> ids, Specification<User> spec) {
+        chunkTransaction.executeWithoutResult(status ->
+                operationRepository.markStarted(job.id(), BulkOperationStatus.State.RUNNING, LocalDateTime.now()));
+        long processed = 0;
+        long updated = 0;
+        int chunks = 0;
+        String failure = null;
+        try {
+            if (ids != null) {
+                for (int from = 0; from < ids.size(); from += chunkSize) {
+                    List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                    int chunkUpdated = chunkTransaction.execute(status -> applyChunk(job, chunk));
+                    processed += chunk.size();
+                    updated += chunkUpdated;
+                    chunks++;
+                }
+            } else {
+                // The filter is re-evaluated per chunk above the last id, so rows leaving the filter do not shift it
+                long afterId = 0;
+                while (true) {
+                    long after = afterId;
+                    ChunkResult result = chunkTransaction.execute(status -> {
+                        List<Long> chunk = userRepository.findIdChunk(spec, after, chunkSize);
+                        return new ChunkResult(chunk, chunk.isEmpty() ? 0 : applyChunk(job, chunk));
+                    });
+                    if (result.ids().isEmpty()) {
+                        break;
+                    }
+                    processed += result.ids().size();
+                    updated += result.updated();
+                    chunks++;
+                    afterId = result.ids().get(result.ids().size() - 1);
+                }
+            }
+            log.info("Bulk operation {} completed: {} processed, {} updated", job.id(), processed, updated);
+        } catch (RuntimeException e) {
+            failure = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            log.error("Bulk operation {} failed after {} chunks", job.id(), chunks, e);
+        }
+        finish(job, failure);
+    }
+
+    private void finish(Job job, String failure) {
+        String error = failure != null && failure.length() > 1000 ? failure.substring(0, 1000) : failure;
+        chunkTransaction.executeWithoutResult(status -> operationRepository.markFinished(List.of(job.id()),
+                error == null ? BulkOperationStatus.State.COMPLETED : BulkOperationStatus.State.FAILED,
+                LocalDateTime.now(), error));
+        unfinished.remove(job.id());
+    }
+
+    // The progress row moves in the chunk's transaction, so it never counts a chunk that rolled back
+    private int applyChunk(Job job, List<Long> ids) {
+        int updated = apply(job, ids);
+        operationRepository.recordChunk(job.id(), ids.size(), updated);
+        return updated;
+    }
+
+    // The JPQL updates evict the users cache region and the role statements the roles region, once per chunk
+    private int apply(Job job, List<Long> ids) {
+        int updated = switch (job.action()) {
+            case ACTIVATE -> setActive(ids, true);
+            case DEACTIVATE -> setActive(ids, false);
+            case ADD_ROLE -> addRole(ids, job.role());
+            case REMOVE_ROLE -> removeRole(ids, job.role());
+            case VERIFY_EMAIL -> verifyEmail(ids);
+        };
+        if (updated > 0) {
+            // The statements only report how many rows changed, so the whole chunk is published; feed
+            // consumers apply snapshots, and an unchanged one is a no-op for them
+            changeOutbox.recordAll(UserChangeEvent.Type.UPDATED, userRepository.findResponsesByIds(ids));
+        }
+        return updated;
+    }
+
+    private int setActive(List<Long> ids, boolean active) {
+        int updated = userRepository.updateUserStatus(ids, active);
+        if (updated > 0) {
+            userStats.activeChangedAfterCommit(active ? updated : -updated);
+            searchIndex.updateAfterCommit(ids, user -> user.withActive(active));
+        }
+        return updated;
+    }
+
+    // Role rows live in their own table, so only the users whose roles changed get a new version and ETag
+    private int addRole(List<Long> ids, User.Role role) {
+        List<Long> changed = userRepository.insertRole(ids, role);
+        if (!changed.isEmpty()) {
+            userRepository.incrementVersion(changed);
+            int bit = IndexedUser.roleMask(Set.of(role));
+            userStats.roleChangedAfterCommit(role, changed.size());
+            searchIndex.updateAfterCommit(changed, user -> user.withRoleMask(user.roleMask() | bit));
+        }
+        return changed.size();
+    }
+
+    private int removeRole(List<Long> ids, User.Role role) {
+        List<Long> changed = userRepository.deleteRole(ids, role);
+        if (!changed.isEmpty()) {
+            userRepository.incrementVersion(changed);
+            int bit = IndexedUser.roleMask(Set.of(role));
+            userStats.roleChangedAfterCommit(role, -changed.size());
+            searchIndex.updateAfterCommit(changed, user -> user.withRoleMask(user.roleMask() & ~bit));
+        }
+        return changed.size();
+    }
+
+    private int verifyEmail(List<Long> ids) {
+        int updated = userRepository.markEmailAsVerified(ids);
+        if (updated > 0) {
+            userStats.emailVerifiedAfterCommit(updated);
+            searchIndex.updateAfterCommit(ids, user -> user.withEmailVerified(true));
+        }
+        return updated;
+    }
+
+    private static BulkOperationStatus toStatus(BulkOperation operation) {
+        return BulkOperationStatus.builder()
+                .operationId(operation.getId())
+                .action(operation.getAction())
+                .role(operation.getRole())
+                .state(operation.getState())
+                .targeted(operation.getTargeted())
+                .processed(operation.getProcessed())
+                .updated(operation.getUpdated())
+                .chunksCompleted(operation.getChunksCompleted())
+                .startedAt(operation.getStartedAt())
+                .finishedAt(operation.getFinishedAt())
+                .error(operation.getError())
+                .build();
+    }
+
+    private record Job(String id, BulkUserAction action, User.Role role) {
+    }
+
+    private record ChunkResult(List<Long> ids, int updated) {
+    }
+}
@@ -0,0 +1,299 @@
+package com.microservices.user.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+import com.microservices.user.dto.ChangeFeedFormat;
+import com.microservices.user.dto.UserChange;
+import com.microservices.user.entity.ChangeFeedSequence;
+import com.microservices.user.entity.UserChangeEvent;
+import com.microservices.user.repository.ChangeFeedSequenceRepository;
+import com.microservices.user.repository.UserChangeEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves the user change outbox as a resumable stream. Consumers pass the offset of the last event they
+ * processed and receive every later event in offset order, in batches; a followed stream then waits for new
+ * events until it reaches its maximum duration, and the consumer reconnects from its last offset.
+ * <p>
+ * Each batch is written and flushed before the next one is read, so a slow consumer holds back its own stream
+ * and nothing queues up in memory. No connection is held between batches.
+ * <p>
+ * Transactions do not commit in insert order, so the feed offset is not the insert id. A relay stamps offsets
+ * on committed events under a lock on {@code change_feed_sequence}, so an event that commits late gets a later
+ * offset instead of one a consumer has already passed. The head is the last stamped offset, polled once for all
+ * open streams rather than by each of them.
+ * <p>
+ * The head and the batches are read in read-write transactions, so they come from the primary: a replica behind
+ * the head would return a short range and the stream would pass over events it has not applied yet.
+ * <p>
+ * Compaction removes events a newer event of the same user supersedes, and deletions, once they are older
+ * than the retention period. The latest event of every live user stays, so a consumer starting from offset 0
+ * still sees every user; one that was away longer than the retention period may miss deletions and should
+ * resync from the export.
+ */
+@Slf4j
+@Service
+public class UserChangeFeedService {
+
+    private static final String SEQUENCE = "user_change_events";
+    private static final String STAMP_SQL = "UPDATE user_change_events SET feed_offset = ? WHERE id = ?";
+
+    private final UserChangeEventRepository changeEventRepository;
+    private final ChangeFeedSequenceRepository sequenceRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Duration heartbeat;
+    private final Duration maxStreamDuration;
+    private final Duration retention;
+    private final int maxStreams;
+    private final AtomicInteger openStreams = new AtomicInteger();
+
+    private final ReentrantLock headLock = new ReentrantLock();
+    private final Condition headAdvanced = headLock.newCondition();
+    private volatile long head;
+
+    public UserChangeFeedService(UserChangeEventRepository changeEventRepository,
+                                 ChangeFeedSequenceRepository sequenceRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.change-feed.batch-size:500}") int batchSize,
+                                 @Value("${app.change-feed.heartbeat-seconds:15}") long heartbeatSeconds,
+                                 @Value("${app.change-feed.max-stream-minutes:30}") long maxStreamMinutes,
+                                 @Value("${app.change-feed.max-streams:100}") int maxStreams,
+                                 @Value("${app.change-feed.retention-hours:168}") long retentionHours) {
+        this.changeEventRepository = changeEventRepository;
+        this.sequenceRepository = sequenceRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.heartbeat = Duration.ofSeconds(heartbeatSeconds);
+        this.maxStreamDuration = Duration.ofMinutes(maxStreamMinutes);
+        this.retention = Duration.ofHours(retentionHours);
+        this.maxStreams = maxStreams;
+    }
+
+    /**
+     * Reserves a stream slot; call before the response is committed so an overloaded feed answers with an error
+     * status instead of an empty stream. The slot is released when the returned stream is closed.
+     */
+    public ChangeStream open(long after, ChangeFeedFormat format, boolean follow) {
+        if (after < 0) {
+            throw new BusinessException(ResponseCode.BAD_REQUEST, "Offset must not be negative");
+        }
+        if (openStreams.incrementAndGet() > maxStreams) {
+            openStreams.decrementAndGet();
+            throw new BusinessException(ResponseCode.TOO_MANY_REQUESTS, "Too many open change feed streams");
+        }
+        try {
+            advanceHead(loadHead());
+        } catch (RuntimeException e) {
+            openStreams.decrementAndGet();
+            throw e;
+        }
+        return new ChangeStream(after, format, follow);
+    }
+
+    @Scheduled(fixedDelayString = "${app.change-feed.poll-interval-ms:500}")
+    public void refreshHead() {
+        relay();
+        if (openStreams.get() > 0) {
+            advanceHead(loadHead());
+        }
+    }
+
+    /**
+     * Stamps feed offsets on every committed event that has none yet, in id order, and returns how many were
+     * stamped. Runs on every replica; the sequence row lock makes them take turns.
+     */
+    public int relay() {
+        int stamped = 0;
+        int batch;
+        do {
+            try {
+                batch = transactionTemplate.execute(status -> stampBatch());
+            } catch (DataIntegrityViolationException e) {
+                // Another replica created the sequence row at the same time; its relay covers this round
+                log.debug("Change feed relay skipped: {}", e.getMessage());
+                break;
+            }
+            stamped += batch;
+        } while (batch == batchSize);
+        return stamped;
+    }
+
+    private int stampBatch() {
+        ChangeFeedSequence sequence = sequenceRepository.lock(SEQUENCE)
+                .orElseGet(() -> sequenceRepository.saveAndFlush(new ChangeFeedSequence(SEQUENCE, 0)));
+        List<Long> ids = changeEventRepository.findUnstampedIds(PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        long first = sequence.getLastOffset() + 1;
+        List<Object[]> offsets = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            offsets.add(new Object[]{first + i, ids.get(i)});
+        }
+        jdbcTemplate.batchUpdate(STAMP_SQL, offsets);
+        sequence.setLastOffset(first + ids.size() - 1);
+        return ids.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.change-feed.compaction-interval-ms:3600000}")
+    public void compact() {
+        long start = System.nanoTime();
+        Integer removed = transactionTemplate.execute(status -> changeEventRepository.compactBefore(
+                LocalDateTime.now().minus(retention), UserChangeEvent.Type.DELETED));
+        if (removed != null && removed > 0) {
+            log.info("Compacted {} change feed events in {} ms", removed, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private long loadHead() {
+        Long last = transactionTemplate.execute(status ->
+                sequenceRepository.findById(SEQUENCE).map(ChangeFeedSequence::getLastOffset).orElse(0L));
+        return last == null ? 0L : last;
+    }
+
+    private List<UserChangeEvent> readRange(long after, long visible) {
+        return transactionTemplate.execute(status ->
+                changeEventRepository.findRange(after, visible, PageRequest.of(0, batchSize)));
+    }
+
+    private void advanceHead(long visible) {
+        if (visible <= head) {
+            return;
+        }
+        headLock.lock();
+        try {
+            if (visible > head) {
+                head = visible;
+                headAdvanced.signalAll();
+            }
+        } finally {
+            headLock.unlock();
+        }
+    }
+
+    // Waits until the head moves past the offset; false when the timeout elapsed first
+    private boolean awaitHead(long offset, Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        headLock.lock();
+        try {
+            while (head <= offset) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = headAdvanced.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            headLock.unlock();
+        }
+    }
+
+    /**
+     * One consumer's stream. {@link #writeTo} returns the number of events written.
+     */
+    public final class ChangeStream implements AutoCloseable {
+
+        private final long after;
+        private final ChangeFeedFormat format;
+        private final boolean follow;
+        private boolean closed;
+
+        private ChangeStream(long after, ChangeFeedFormat format, boolean follow) {
+            this.after = after;
+            this.format = format;
+            this.follow = follow;
+        }
+
+        public long writeTo(OutputStream output) throws IOException {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            long deadline = System.nanoTime() + maxStreamDuration.toNanos();
+            // An unfollowed stream ends at the head seen when it was opened
+            long end = follow ? Long.MAX_VALUE : head;
+            long offset = after;
+            long written = 0;
+
+            try {
+                while (true) {
+                    long visible = Math.min(head, end);
+                    if (offset < visible) {
+                        List<UserChangeEvent> batch = readRange(offset, visible);
+                        for (UserChangeEvent event : batch) {
+                            write(writer, event);
+                        }
+                        writer.flush();
+                        written += batch.size();
+                        // Every offset up to the head is stamped on the primary, so only compaction gaps leave it empty
+                        offset = batch.isEmpty() ? visible : batch.get(batch.size() - 1).getFeedOffset();
+                        continue;
+                    }
+                    long left = deadline - System.nanoTime();
+                    if (!follow || left <= 0) {
+                        break;
+                    }
+                    if (!awaitHead(offset, Duration.ofNanos(Math.min(left, heartbeat.toNanos())))
+                            && format == ChangeFeedFormat.SSE) {
+                        // Keeps proxies from timing out an idle stream and surfaces a vanished consumer
+                        writer.write(":\n\n");
+                        writer.flush();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                log.debug("Change feed consumer went away at offset {}: {}", offset, e.getMessage());
+                throw e;
+            }
+            log.debug("Change feed stream from offset {} ended at {} after {} events", after, offset, written);
+            return written;
+        }
+
+        private void write(Writer writer, UserChangeEvent event) throws IOException {
+            String json = objectMapper.writeValueAsString(new UserChange(event.getFeedOffset(), event.getChangeType(),
+                    event.getUserId(), event.getCreatedAt(), event.getPayload()));
+            if (format == ChangeFeedFormat.SSE) {
+                writer.write("id: " + event.getFeedOffset() + "\nevent: " + event.getChangeType() + "\ndata: " + json + "\n\n");
+            } else {
+                writer.write(json);
+                writer.write('\n');
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                openStreams.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.microservices.user.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.user.dto.UserResponse;
+import com.microservices.user.entity.User;
+import com.microservices.user.entity.UserChangeEvent;
+import com.microservices.user.mapper.UserMapper;
+import com.microservices.user.repository.UserChangeEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Appends user changes to the change feed outbox. Every method requires an active transaction so the event
+ * commits or rolls back together with the change it describes.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserChangeOutbox {
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO user_change_events (user_id, change_type, payload, created_at) VALUES (?, ?, ?, ?)";
+
+    private final UserChangeEventRepository changeEventRepository;
+    private final UserMapper userMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(UserChangeEvent.Type type, User user) {
+        // Flushed first so the snapshot carries the updatedAt the commit writes; the commit would flush anyway
+        changeEventRepository.flush();
+        save(user.getId(), type, payload(userMapper.toResponse(user)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Long userId) {
+        save(userId, UserChangeEvent.Type.DELETED, null);
+    }
+
+    /**
+     * Batch variant for bulk operations and imports that write users through set-based statements.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(UserChangeEvent.Type type, List<UserResponse> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, users, users.size(), (ps, user) -> {
+            ps.setLong(1, user.getId());
+            ps.setString(2, type.name());
+            ps.setString(3, payload(user));
+            ps.setTimestamp(4, createdAt);
+        });
+    }
+
+    private void save(Long userId, UserChangeEvent.Type type, String payload) {
+        UserChangeEvent event = new UserChangeEvent();
+        event.setUserId(userId);
+        event.setChangeType(type);
+        event.setPayload(payload);
+        changeEventRepository.save(event);
+    }
+
+    private String payload(UserResponse user) {
+        try {
+            return objectMapper.writeValueAsString(user);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize change event for user " + user.getId(), e);
+        }
+    }
+}
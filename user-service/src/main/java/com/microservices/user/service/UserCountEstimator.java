@@ -0,0 +1,82 @@
+package com.microservices.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservices.user.dto.UserSearchRequest;
+import com.microservices.user.entity.User;
+import com.microservices.user.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Approximate totals for the estimated count mode. The unfiltered total comes from the Postgres planner
+ * statistics; filtered totals are exact counts cached per filter fingerprint, so paging through a search,
+ * changing the sort or the page size reuses one count.
+ */
+@Slf4j
+@Component
+public class UserCountEstimator {
+
+    private static final String PLANNER_ESTIMATE_SQL =
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = 'users'::regclass";
+    private static final String ALL_USERS = "*";
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, Long> counts;
+
+    public UserCountEstimator(UserRepository userRepository,
+                              JdbcTemplate jdbcTemplate,
+                              @Value("${app.count-estimate.ttl-seconds:60}") long ttlSeconds,
+                              @Value("${app.count-estimate.max-size:1000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public long estimateAll() {
+        try {
+            Long estimate = jdbcTemplate.queryForObject(PLANNER_ESTIMATE_SQL, Long.class);
+            // reltuples is -1 until the table has been vacuumed or analyzed
+            if (estimate != null && estimate >= 0) {
+                return estimate;
+            }
+        } catch (DataAccessException e) {
+            log.debug("Planner row estimate unavailable, falling back to a cached count: {}", e.getMessage());
+        }
+        return counts.get(ALL_USERS, key -> userRepository.count());
+    }
+
+    public long estimate(UserSearchRequest request, Specification<User> spec) {
+        return counts.get(fingerprint(request), key -> userRepository.count(spec));
+    }
+
+    // The filter part of a search; text terms are lower-cased like the LIKE predicates they feed
+    static String fingerprint(UserSearchRequest request) {
+        return Stream.of(
+                        lower(request.getUsername()), lower(request.getEmail()),
+                        lower(request.getFirstName()), lower(request.getLastName()),
+                        request.getGender(), request.getRole(), request.getActive(), request.getEmailVerified(),
+                        request.getCreatedAfter(), request.getCreatedBefore(),
+                        lower(request.getCity()), lower(request.getCountry()))
+                .map(value -> Objects.toString(value, ""))
+                .collect(Collectors.joining("|"));
+    }
+
+    private static String lower(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
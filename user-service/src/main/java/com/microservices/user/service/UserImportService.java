@@ -0,0 +1,336 @@
+package com.microservices.user.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+import com.microservices.common.core.util.RecordStreamReader;
+import com.microservices.user.batch.UserBatchWriter;
+import com.microservices.user.dto.ImportRowResult;
+import com.microservices.user.dto.UserRequest;
+import com.microservices.user.entity.Address;
+import com.microservices.user.entity.User;
+import com.microservices.user.entity.UserChangeEvent;
+import com.microservices.user.mapper.UserMapper;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.search.UserSearchIndex;
+import com.microservices.user.stats.CountedUser;
+import com.microservices.user.stats.UserStatsCounters;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk profile import. Input is streamed and processed in chunks: rows are parsed and validated, deduplicated
+ * within the chunk, checked for uniqueness with one set-based query per column, and written by a
+ * {@link UserBatchWriter} (JDBC batches, or Postgres COPY where available) in one transaction per chunk.
+ * <p>
+ * Fields are the flat columns of the CSV export; {@code roles} is a {@code ;}-separated list and defaults to USER.
+ * The output is a reject report: one NDJSON {@link ImportRowResult} per row not imported, then an
+ * {@link ImportSummary} line.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final UserSearchIndex searchIndex;
+    private final UserStatsCounters userStats;
+    private final UserChangeOutbox changeOutbox;
+    private final List<UserBatchWriter> writers;
+    private final String writerName;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private volatile UserBatchWriter writer;
+
+    public UserImportService(UserRepository userRepository,
+                             UserMapper userMapper,
+                             UserSearchIndex searchIndex,
+                             UserStatsCounters userStats,
+                             UserChangeOutbox changeOutbox,
+                             List<UserBatchWriter> writers,
+                             PlatformTransactionManager transactionManager,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             @Value("${app.import.writer:auto}") String writerName,
+                             @Value("${app.import.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.searchIndex = searchIndex;
+        this.userStats = userStats;
+        this.changeOutbox = changeOutbox;
+        this.writers = writers;
+        this.writerName = writerName;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports every record of the input and writes the reject report to the output.
+     */
+    public ImportSummary importUsers(InputStream input, RecordStreamReader.Format format, OutputStream output) throws IOException {
+        UserBatchWriter batchWriter = writer();
+        long started = System.nanoTime();
+        int created = 0;
+        int rejected = 0;
+
+        try (RecordStreamReader reader = new RecordStreamReader(input, format)) {
+            List<RecordStreamReader.Record> chunk;
+            while (!(chunk = reader.nextChunk(chunkSize)).isEmpty()) {
+                List<ImportRowResult> rejects = new ArrayList<>();
+                created += importChunk(chunk, batchWriter, rejects);
+                rejected += rejects.size();
+
+                rejects.sort(Comparator.comparingLong(ImportRowResult::getLine));
+                for (ImportRowResult reject : rejects) {
+                    output.write(objectMapper.writeValueAsBytes(reject));
+                    output.write('\n');
+                }
+                output.flush();
+            }
+        }
+
+        ImportSummary summary = new ImportSummary(created, rejected, batchWriter.name(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        output.write(objectMapper.writeValueAsBytes(summary));
+        output.write('\n');
+        output.flush();
+        log.info("User import finished with {} writer: {} created, {} rejected in {} ms", summary.writer(),
+                created, rejected, summary.elapsedMillis());
+        return summary;
+    }
+
+    private int importChunk(List<RecordStreamReader.Record> chunk, UserBatchWriter batchWriter, List<ImportRowResult> rejects) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, PendingUser> candidates = new HashMap<>();
+        Set<String> emails = new HashSet<>();
+
+        for (RecordStreamReader.Record record : chunk) {
+            String username = trim(record.get("username"));
+            if (!record.isValid()) {
+                rejects.add(new ImportRowResult(record.line(), username, record.error()));
+                continue;
+            }
+            User user;
+            try {
+                user = toUser(record, now);
+            } catch (IllegalArgumentException e) {
+                rejects.add(new ImportRowResult(record.line(), username, e.getMessage()));
+                continue;
+            }
+            if (candidates.containsKey(user.getUsername())) {
+                rejects.add(new ImportRowResult(record.line(), username, "Duplicate username in import"));
+            } else if (!emails.add(user.getEmail())) {
+                rejects.add(new ImportRowResult(record.line(), username, "Duplicate email in import"));
+            } else {
+                candidates.put(user.getUsername(), new PendingUser(record.line(), user));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> existingUsernames = userRepository.findExistingUsernames(candidates.keySet());
+        Set<String> existingEmails = userRepository.findExistingEmails(emails);
+        List<PendingUser> accepted = new ArrayList<>(candidates.size());
+        for (PendingUser pending : candidates.values()) {
+            if (existingUsernames.contains(pending.user().getUsername())) {
+                rejects.add(new ImportRowResult(pending.line(), pending.user().getUsername(), "Username already exists"));
+            } else if (existingEmails.contains(pending.user().getEmail())) {
+                rejects.add(new ImportRowResult(pending.line(), pending.user().getUsername(), "Email already exists"));
+            } else {
+                accepted.add(pending);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(accepted, batchWriter));
+            return accepted.size();
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent write took one of the names after the uniqueness check; retry row by row so only
+            // the conflicting rows are rejected
+            log.warn("Batch insert conflicted, retrying {} rows individually: {}", accepted.size(),
+                    e.getMostSpecificCause().getMessage());
+            int created = 0;
+            for (PendingUser pending : accepted) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(pending), batchWriter));
+                    created++;
+                } catch (DataIntegrityViolationException rowFailure) {
+                    rejects.add(new ImportRowResult(pending.line(), pending.user().getUsername(),
+                            "Username or email already exists"));
+                }
+            }
+            return created;
+        }
+    }
+
+    private void insert(List<PendingUser> pending, UserBatchWriter batchWriter) {
+        List<User> users = pending.stream().map(PendingUser::user).toList();
+        batchWriter.insertUsers(users);
+
+        // Generated ids are read back in one query rather than per row, then used for the roles
+        Map<String, Long> ids = new HashMap<>();
+        userRepository.findIdsByUsernameIn(users.stream().map(User::getUsername).toList())
+                .forEach(row -> ids.put((String) row[1], (Long) row[0]));
+        users.forEach(user -> user.setId(ids.get(user.getUsername())));
+        batchWriter.insertRoles(users);
+        changeOutbox.recordAll(UserChangeEvent.Type.CREATED, userMapper.toResponseList(users));
+
+        for (User user : users) {
+            searchIndex.indexAfterCommit(user);
+            userStats.applyAfterCommit(null, CountedUser.from(user));
+        }
+    }
+
+    private User toUser(RecordStreamReader.Record record, LocalDateTime now) {
+        UserRequest request = new UserRequest();
+        request.setUsername(trim(record.get("username")));
+        request.setEmail(trim(record.get("email")));
+        request.setFirstName(trim(record.get("firstName")));
+        request.setLastName(trim(record.get("lastName")));
+        request.setPhoneNumber(trim(record.get("phoneNumber")));
+        request.setDateOfBirth(parseDate(record, "dateOfBirth"));
+        request.setGender(parseEnum(record, "gender", User.Gender.class));
+        request.setBio(record.get("bio"));
+        Address address = new Address(trim(record.get("addressLine1")), trim(record.get("addressLine2")),
+                trim(record.get("city")), trim(record.get("state")), trim(record.get("postalCode")),
+                trim(record.get("country")));
+        request.setAddress(address.equals(new Address()) ? null : address);
+
+        Set<ConstraintViolation<UserRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        User user = userMapper.toEntity(request);
+        user.setProfilePictureUrl(trim(record.get("profilePictureUrl")));
+        user.setActive(parseBoolean(record, "active", true));
+        user.setEmailVerified(parseBoolean(record, "emailVerified", false));
+        user.setPhoneVerified(parseBoolean(record, "phoneVerified", false));
+        user.setRoles(parseRoles(record.get("roles")));
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
+        return user;
+    }
+
+    private UserBatchWriter writer() {
+        if (writer == null) {
+            writer = selectWriter();
+            log.info("User import uses the {} writer", writer.name());
+        }
+        return writer;
+    }
+
+    private UserBatchWriter selectWriter() {
+        if (!"auto".equalsIgnoreCase(writerName)) {
+            return writers.stream()
+                    .filter(candidate -> candidate.name().equalsIgnoreCase(writerName) && candidate.isAvailable())
+                    .findFirst()
+                    .orElseThrow(() -> new BusinessException(ResponseCode.INTERNAL_SERVER_ERROR,
+                            "Import writer '" + writerName + "' is not available"));
+        }
+        // COPY where the database supports it, otherwise plain JDBC batches
+        return writers.stream()
+                .filter(candidate -> candidate.name().equals("copy") && candidate.isAvailable())
+                .findFirst()
+                .or(() -> writers.stream().filter(candidate -> candidate.name().equals("jdbc")).findFirst())
+                .orElseThrow(() -> new BusinessException(ResponseCode.INTERNAL_SERVER_ERROR, "No import writer available"));
+    }
+
+    private static LocalDate parseDate(RecordStreamReader.Record record, String field) {
+        String value = trim(record.get(field));
+        try {
+            return value == null || value.isEmpty() ? null : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(RecordStreamReader.Record record, String field, Class<E> type) {
+        String value = trim(record.get(field));
+        try {
+            return value == null || value.isEmpty() ? null : Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private static boolean parseBoolean(RecordStreamReader.Record record, String field, boolean defaultValue) {
+        String value = trim(record.get(field));
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true" -> true;
+            case "false" -> false;
+            default -> throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        };
+    }
+
+    private static Set<User.Role> parseRoles(String value) {
+        Set<User.Role> roles = EnumSet.noneOf(User.Role.class);
+        if (value != null) {
+            for (String name : value.split(";")) {
+                if (!name.isBlank()) {
+                    roles.add(parseRole(name.trim()));
+                }
+            }
+        }
+        if (roles.isEmpty()) {
+            roles.add(User.Role.USER);
+        }
+        return roles;
+    }
+
+    private static User.Role parseRole(String name) {
+        return Arrays.stream(User.Role.values())
+                .filter(role -> role.name().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown role: " + name));
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+
+    private record PendingUser(long line, User user) {
+    }
+
+    public record ImportSummary(int created, int rejected, String writer, long elapsedMillis) {
+    }
+}
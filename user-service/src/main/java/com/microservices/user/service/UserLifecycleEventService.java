@@ -0,0 +1,160 @@
+package com.microservices.user.service;
+
+import com.microservices.user.dto.EventBatchResult;
+import com.microservices.user.dto.UserLifecycleEvent;
+import com.microservices.user.entity.User;
+import com.microservices.user.entity.UserChangeEvent;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.search.UserSearchIndex;
+import com.microservices.user.stats.CountedUser;
+import com.microservices.user.stats.UserStatsCounters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies auth-service lifecycle events to the local profiles. Application is idempotent and
+ * order-safe: each profile remembers the last applied event id, and anything not newer is skipped,
+ * so redelivered or reordered batches converge to the same state. An event that would create a profile
+ * without an email, or with one another profile owns, is reported back as failed so auth-service parks it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserLifecycleEventService {
+
+    private static final Set<String> ROLE_NAMES = Arrays.stream(User.Role.values())
+            .map(Enum::name)
+            .collect(Collectors.toSet());
+
+    private final UserRepository userRepository;
+    private final UserSearchIndex searchIndex;
+    private final UserStatsCounters userStats;
+    private final UserChangeOutbox changeOutbox;
+
+    @Transactional
+    public EventBatchResult apply(List<UserLifecycleEvent> events) {
+        List<UserLifecycleEvent> ordered = events.stream()
+                .filter(event -> event.getEventId() != null && event.getUsername() != null)
+                .sorted(Comparator.comparing(UserLifecycleEvent::getEventId))
+                .toList();
+        if (ordered.isEmpty()) {
+            return new EventBatchResult(0, events.size(), Map.of());
+        }
+
+        Map<String, User> users = userRepository.findByUsernameIn(ordered.stream()
+                        .map(UserLifecycleEvent::getUsername)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(User::getUsername, Function.identity()));
+
+        Set<String> newEmails = ordered.stream()
+                .filter(event -> !users.containsKey(event.getUsername()))
+                .map(UserLifecycleEvent::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        // Emails claimed by profiles created earlier in the batch count as taken too
+        Set<String> takenEmails = new HashSet<>(newEmails.isEmpty() ? Set.of() : userRepository.findExistingEmails(newEmails));
+
+        int applied = 0;
+        Map<Long, String> failed = new LinkedHashMap<>();
+        for (UserLifecycleEvent event : ordered) {
+            User user = users.get(event.getUsername());
+            CountedUser before = null;
+            if (user == null) {
+                if (event.getEmail() == null || takenEmails.contains(event.getEmail())) {
+                    String reason = event.getEmail() == null ? "Email missing" : "Email owned by another profile";
+                    log.warn("Rejecting auth event {} for {}: {}", event.getEventId(), event.getUsername(), reason);
+                    failed.put(event.getEventId(), reason);
+                    continue;
+                }
+                user = createProfile(event);
+                users.put(user.getUsername(), user);
+                takenEmails.add(user.getEmail());
+            } else if (user.getAuthEventId() != null && event.getEventId() <= user.getAuthEventId()) {
+                continue;
+            } else {
+                before = CountedUser.from(user);
+                if (!applyChange(user, event)) {
+                    // Locks and repeated states leave the profile as it is: no version bump, feed entry or reindex
+                    user.setAuthEventId(event.getEventId());
+                    applied++;
+                    continue;
+                }
+            }
+            user.setAuthEventId(event.getEventId());
+            User saved = userRepository.save(user);
+            changeOutbox.record(before == null ? UserChangeEvent.Type.CREATED : UserChangeEvent.Type.UPDATED, saved);
+            searchIndex.indexAfterCommit(saved);
+            userStats.applyAfterCommit(before, CountedUser.from(saved));
+            applied++;
+        }
+
+        log.debug("Applied {} of {} auth events, {} failed", applied, events.size(), failed.size());
+        return new EventBatchResult(applied, events.size() - applied - failed.size(), failed);
+    }
+
+    private User createProfile(UserLifecycleEvent event) {
+        User user = new User();
+        user.setUsername(event.getUsername());
+        user.setEmail(event.getEmail());
+        user.setActive(event.isEnabled());
+        user.setRoles(toRoles(event.getRoles()));
+        return user;
+    }
+
+    // Only the state owned by auth-service is copied; locks are temporary and have no profile counterpart.
+    // Returns whether the profile changed.
+    private boolean applyChange(User user, UserLifecycleEvent event) {
+        if (event.getType() == null) {
+            return false;
+        }
+        switch (event.getType()) {
+            case "ENABLED", "DISABLED" -> {
+                if (user.isActive() == event.isEnabled()) {
+                    return false;
+                }
+                user.setActive(event.isEnabled());
+                return true;
+            }
+            case "ROLES_CHANGED" -> {
+                Set<User.Role> roles = toRoles(event.getRoles());
+                if (roles.equals(user.getRoles())) {
+                    return false;
+                }
+                user.setRoles(roles);
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    private static Set<User.Role> toRoles(Set<String> names) {
+        Set<User.Role> roles = EnumSet.noneOf(User.Role.class);
+        if (names != null) {
+            names.stream()
+                    .filter(ROLE_NAMES::contains)
+                    .map(User.Role::valueOf)
+                    .forEach(roles::add);
+        }
+        if (roles.isEmpty()) {
+            roles.add(User.Role.USER);
+        }
+        return roles;
+    }
+}
@@ -0,0 +1,155 @@
+package com.microservices.user.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+import com.microservices.common.core.exception.ResourceNotFoundException;
+import com.microservices.user.dto.UserResponse;
+import com.microservices.user.dto.UserUpdateRequest;
+import com.microservices.user.entity.User;
+import com.microservices.user.entity.UserChangeEvent;
+import com.microservices.user.mapper.UserMapper;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.search.UserSearchIndex;
+import com.microservices.user.stats.CountedUser;
+import com.microservices.user.stats.UserStatsCounters;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * JSON merge patch (RFC 7396) of a user profile: members present in the patch replace the current value, null
+ * members clear it, and nested objects (the address) are merged the same way.
+ * <p>
+ * The patch is applied to the profile's {@link UserUpdateRequest} view and the result validated as a whole. An
+ * unchanged result writes nothing; otherwise the managed entity is flushed and, with {@code @DynamicUpdate}, the
+ * UPDATE lists only the changed columns. The response is built from the entity in memory, without a reload.
+ */
+@Slf4j
+@Service
+public class UserPatchService {
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final UserSearchIndex searchIndex;
+    private final UserStatsCounters userStats;
+    private final UserChangeOutbox changeOutbox;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader patchedStateReader;
+
+    public UserPatchService(UserRepository userRepository,
+                            UserMapper userMapper,
+                            UserSearchIndex searchIndex,
+                            UserStatsCounters userStats,
+                            UserChangeOutbox changeOutbox,
+                            Validator validator,
+                            ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.searchIndex = searchIndex;
+        this.userStats = userStats;
+        this.changeOutbox = changeOutbox;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        // Unknown members are typos or fields that cannot be patched; reject them instead of ignoring them
+        this.patchedStateReader = objectMapper.readerFor(UserUpdateRequest.class)
+                .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * Applies the patch; with a non-null {@code expectedVersion} (from If-Match) it fails with
+     * PRECONDITION_FAILED unless the user is still at that version.
+     */
+    @Transactional
+    public UserResponse patchUser(Long id, JsonNode patch, Long expectedVersion) {
+        log.info("Patching user with ID: {}", id);
+
+        if (patch == null || !patch.isObject()) {
+            throw new BusinessException(ResponseCode.BAD_REQUEST, "A merge patch must be a JSON object");
+        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User", id.toString()));
+        UserVersions.check(user, expectedVersion);
+
+        UserUpdateRequest current = userMapper.toUpdateRequest(user);
+        UserUpdateRequest patched = readPatchedState(merge(objectMapper.valueToTree(current), patch));
+        if (patched.equals(current)) {
+            log.debug("Patch leaves user {} unchanged, nothing written", id);
+            return userMapper.toResponse(user);
+        }
+        validate(patched);
+
+        CountedUser before = CountedUser.from(user);
+        if (!patched.getEmail().equals(user.getEmail())) {
+            if (userRepository.existsByEmail(patched.getEmail())) {
+                throw new BusinessException(ResponseCode.EMAIL_ALREADY_EXISTS, "Email already exists");
+            }
+            user.setEmailVerified(false);
+        }
+        if (!Objects.equals(patched.getPhoneNumber(), user.getPhoneNumber())) {
+            user.setPhoneVerified(false);
+        }
+        userMapper.applyPatchedState(patched, user);
+
+        // Flushed now so the response carries the new updatedAt and version; the entity is current, so no reload
+        UserVersions.flush(user, expectedVersion, userRepository::flush);
+        changeOutbox.record(UserChangeEvent.Type.UPDATED, user);
+        searchIndex.indexAfterCommit(user);
+        userStats.applyAfterCommit(before, CountedUser.from(user));
+
+        log.info("User patched successfully: {}", id);
+        return userMapper.toResponse(user);
+    }
+
+    private UserUpdateRequest readPatchedState(JsonNode state) {
+        try {
+            return patchedStateReader.treeToValue(state, UserUpdateRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException(ResponseCode.BAD_REQUEST, "Invalid patch: " + e.getOriginalMessage());
+        }
+    }
+
+    private void validate(UserUpdateRequest patched) {
+        if (patched.getEmail() == null) {
+            throw new BusinessException(ResponseCode.VALIDATION_FAILED, "Email cannot be removed");
+        }
+        Set<ConstraintViolation<UserUpdateRequest>> violations = validator.validate(patched);
+        if (!violations.isEmpty()) {
+            throw new BusinessException(ResponseCode.VALIDATION_FAILED, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    // RFC 7396 MergePatch(Target, Patch)
+    private JsonNode merge(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = target != null && target.isObject()
+                ? ((ObjectNode) target).deepCopy()
+                : objectMapper.createObjectNode();
+        for (Map.Entry<String, JsonNode> member : patch.properties()) {
+            if (member.getValue().isNull()) {
+                result.remove(member.getKey());
+            } else {
+                result.set(member.getKey(), merge(result.get(member.getKey()), member.getValue()));
+            }
+        }
+        return result;
+    }
+}
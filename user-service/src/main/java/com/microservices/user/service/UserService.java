@@ -4,51 +4,73 @@ import com.microservices.common.core.dto.UserPrincipal;
 import com.microservices.common.core.enums.ResponseCode;
 import com.microservices.common.core.exception.BusinessException;
 import com.microservices.common.core.exception.ResourceNotFoundException;
+import com.microservices.common.core.util.UniqueConstraints;
 import com.microservices.user.dto.*;
 import com.microservices.user.entity.User;
+import com.microservices.user.entity.UserChangeEvent;
 import com.microservices.user.mapper.UserMapper;
 import com.microservices.user.repository.UserRepository;
+import com.microservices.user.search.UserSearchIndex;
+import com.microservices.user.stats.CountedUser;
+import com.microservices.user.stats.UserStatsCounters;
 import com.microservices.user.specification.UserSpecification;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    private static final Map<String, ResponseCode> UNIQUE_CONSTRAINTS = Map.of(
+            User.UK_USERNAME, ResponseCode.USERNAME_ALREADY_EXISTS,
+            User.UK_EMAIL, ResponseCode.EMAIL_ALREADY_EXISTS);
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final AuthServiceClient authServiceClient;
+    private final UserSearchIndex searchIndex;
+    private final UserCountEstimator countEstimator;
+    private final UserStatsCounters userStats;
+    private final UserChangeOutbox changeOutbox;
 
     @Transactional
     public UserResponse createUser(UserRequest request) {
         log.info("Creating user with username: {}", request.getUsername());
 
-        // Check if username already exists
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new BusinessException(ResponseCode.USERNAME_ALREADY_EXISTS, "Username already exists");
-        }
-
-        // Check if email already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new BusinessException(ResponseCode.EMAIL_ALREADY_EXISTS, "Email already exists");
-        }
-
         User user = userMapper.toEntity(request);
         user.addRole(User.Role.USER); // Default role
 
-        User savedUser = userRepository.save(user);
+        // Uniqueness is enforced by the uk_users_* constraints on insert, not by pre-checks
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            ResponseCode code = UniqueConstraints.resolve(e, UNIQUE_CONSTRAINTS).orElseThrow(() -> e);
+            throw new BusinessException(code, code.getMessage());
+        }
 
+        changeOutbox.record(UserChangeEvent.Type.CREATED, savedUser);
+        searchIndex.indexAfterCommit(savedUser);
+        userStats.applyAfterCommit(null, CountedUser.from(savedUser));
         log.info("User created successfully with ID: {}", savedUser.getId());
         return userMapper.toResponse(savedUser);
     }
@@ -67,7 +89,7 @@ public class UserService {
     public UserResponse getUserByUsername(String username) {
         log.debug("Fetching user by username: {}", username);
 
-        User user = userRepository.findByUsername(username)
+        User user = userRepository.loadByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User", username));
 
         return userMapper.toResponse(user);
@@ -78,12 +100,29 @@ public class UserService {
         return getUserByUsername(principal.getUsername());
     }
 
+    @Transactional(readOnly = true)
+    public Optional<Long> getUserVersion(Long id) {
+        return userRepository.findVersionById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Long> getUserVersionByUsername(String username) {
+        return userRepository.findVersionByUsername(username);
+    }
+
+    /**
+     * Applies the update; with a non-null {@code expectedVersion} (from If-Match) it fails with
+     * PRECONDITION_FAILED unless the user is still at that version.
+     */
     @Transactional
-    public UserResponse updateUser(Long id, UserUpdateRequest request) {
+    public UserResponse updateUser(Long id, UserUpdateRequest request, Long expectedVersion) {
         log.info("Updating user with ID: {}", id);
 
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", id.toString()));
+        UserVersions.check(user, expectedVersion);
+
+        CountedUser before = CountedUser.from(user);
 
         // Check if email is being updated and already exists
         if (request.getEmail() != null && !request.getEmail().equals(user.getEmail())) {
@@ -101,17 +140,21 @@ public class UserService {
         userMapper.updateEntityFromRequest(request, user);
 
         User updatedUser = userRepository.save(user);
+        UserVersions.flush(updatedUser, expectedVersion, userRepository::flush);
+        changeOutbox.record(UserChangeEvent.Type.UPDATED, updatedUser);
+        searchIndex.indexAfterCommit(updatedUser);
+        userStats.applyAfterCommit(before, CountedUser.from(updatedUser));
 
         log.info("User updated successfully: {}", updatedUser.getId());
         return userMapper.toResponse(updatedUser);
     }
 
     @Transactional
-    public UserResponse updateCurrentUser(UserPrincipal principal, UserUpdateRequest request) {
-        User user = userRepository.findByUsername(principal.getUsername())
+    public UserResponse updateCurrentUser(UserPrincipal principal, UserUpdateRequest request, Long expectedVersion) {
+        User user = userRepository.loadByUsername(principal.getUsername())
                 .orElseThrow(() -> new ResourceNotFoundException("User", principal.getUsername()));
 
-        return updateUser(user.getId(), request);
+        return updateUser(user.getId(), request, expectedVersion);
     }
 
     @Transactional
@@ -122,6 +165,9 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", id.toString()));
 
         userRepository.delete(user);
+        changeOutbox.recordDeleted(id);
+        searchIndex.removeAfterCommit(id);
+        userStats.applyAfterCommit(CountedUser.from(user), null);
 
         log.info("User deleted successfully: {}", id);
     }
@@ -133,8 +179,12 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", id.toString()));
 
+        CountedUser before = CountedUser.from(user);
         user.setActive(false);
         User updatedUser = userRepository.save(user);
+        changeOutbox.record(UserChangeEvent.Type.UPDATED, updatedUser);
+        searchIndex.indexAfterCommit(updatedUser);
+        userStats.applyAfterCommit(before, CountedUser.from(updatedUser));
 
         log.info("User deactivated successfully: {}", id);
         return userMapper.toResponse(updatedUser);
@@ -147,29 +197,39 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", id.toString()));
 
+        CountedUser before = CountedUser.from(user);
         user.setActive(true);
         User updatedUser = userRepository.save(user);
+        changeOutbox.record(UserChangeEvent.Type.UPDATED, updatedUser);
+        searchIndex.indexAfterCommit(updatedUser);
+        userStats.applyAfterCommit(before, CountedUser.from(updatedUser));
 
         log.info("User activated successfully: {}", id);
         return userMapper.toResponse(updatedUser);
     }
 
     @Transactional(readOnly = true)
-    public Page<UserResponse> getAllUsers(int page, int size, String sortBy, String sortDir) {
-        log.debug("Fetching all users - page: {}, size: {}, sortBy: {}, sortDir: {}", page, size, sortBy, sortDir);
+    public Slice<UserResponse> getAllUsers(int page, int size, String sortBy, String sortDir, CountMode countMode) {
+        log.debug("Fetching all users - page: {}, size: {}, sortBy: {}, sortDir: {}, countMode: {}",
+                page, size, sortBy, sortDir, countMode);
 
         Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
 
-        Page<User> users = userRepository.findAll(pageable);
-
-        return users.map(userMapper::toResponse);
+        return switch (countMode) {
+            case EXACT -> PageableExecutionUtils.getPage(
+                    userRepository.findResponses(null, pageable.getSort(), pageable.getOffset(), size),
+                    pageable, userRepository::count);
+            case ESTIMATED -> withEstimatedTotal(findSlice(null, pageable), countEstimator.estimateAll());
+            case NONE -> findSlice(null, pageable);
+        };
     }
 
     @Transactional(readOnly = true)
-    public Page<UserResponse> searchUsers(UserSearchRequest searchRequest) {
+    public Slice<UserResponse> searchUsers(UserSearchRequest searchRequest) {
         log.debug("Searching users with criteria: {}", searchRequest);
 
+        CountMode countMode = CountMode.from(searchRequest.getCountMode());
         Sort.Direction direction = searchRequest.getSortDir().equalsIgnoreCase("desc") ?
                 Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable pageable = PageRequest.of(
@@ -178,10 +238,105 @@ public class UserService {
                 Sort.by(direction, searchRequest.getSortBy())
         );
 
+        // The index knows the exact total for free, so it is returned whatever the count mode
+        Optional<Page<Long>> indexed = searchIndex.search(searchRequest, pageable);
+        if (indexed.isPresent()) {
+            Page<Long> ids = indexed.get();
+            List<UserResponse> users = userRepository.findResponsesByIds(ids.getContent());
+            return countMode == CountMode.NONE
+                    ? new SliceImpl<>(users, pageable, ids.hasNext())
+                    : new PageImpl<>(users, pageable, ids.getTotalElements());
+        }
+
+        Specification<User> spec = UserSpecification.buildSpecification(searchRequest);
+        return switch (countMode) {
+            case EXACT -> PageableExecutionUtils.getPage(
+                    userRepository.findResponses(spec, pageable.getSort(), pageable.getOffset(), pageable.getPageSize()),
+                    pageable, () -> userRepository.count(spec));
+            case ESTIMATED -> withEstimatedTotal(findSlice(spec, pageable), countEstimator.estimate(searchRequest, spec));
+            case NONE -> findSlice(spec, pageable);
+        };
+    }
+
+    // Offset page without a count query; one extra row tells whether another page follows
+    private Slice<UserResponse> findSlice(Specification<User> spec, Pageable pageable) {
+        int size = pageable.getPageSize();
+        List<UserResponse> rows = userRepository.findResponses(spec, pageable.getSort(), pageable.getOffset(), size + 1);
+        boolean hasNext = rows.size() > size;
+        return new SliceImpl<>(hasNext ? rows.subList(0, size) : rows, pageable, hasNext);
+    }
+
+    /**
+     * Turns a count-free slice into a page whose total is the estimate, corrected by what the slice proves:
+     * the total is exact on the last page and at least one row past this page otherwise.
+     */
+    private static <T> Page<T> withEstimatedTotal(Slice<T> slice, long estimate) {
+        long seen = slice.getPageable().getOffset() + slice.getNumberOfElements();
+        long total = slice.hasNext() ? Math.max(estimate, seen + 1) : seen;
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponse> getUsersByCursor(String cursor, int size, String sortDir) {
+        log.debug("Fetching users by cursor - size: {}, sortDir: {}", size, sortDir);
+
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        requirePositive(size);
+
+        List<UserResponse> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = userRepository.findResponses(null, keysetSort(direction), 0, size + 1);
+        } else {
+            // The seek reads ids from the index only; the page is then fetched by primary key
+            KeysetCursor position = KeysetCursor.decode(cursor, direction);
+            List<Long> ids = direction.isDescending()
+                    ? userRepository.findIdsBefore(position.createdAt(), position.id(), size + 1)
+                    : userRepository.findIdsAfter(position.createdAt(), position.id(), size + 1);
+            rows = userRepository.findResponsesByIds(ids);
+        }
+
+        return toCursorPage(rows, size, direction);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponse> searchUsersByCursor(UserSearchRequest searchRequest) {
+        log.debug("Searching users by cursor with criteria: {}", searchRequest);
+
+        if (!"createdAt".equals(searchRequest.getSortBy())) {
+            throw new BusinessException(ResponseCode.BAD_REQUEST, "Cursor pagination only supports sorting by createdAt");
+        }
+        Sort.Direction direction = searchRequest.getSortDir().equalsIgnoreCase("desc") ?
+                Sort.Direction.DESC : Sort.Direction.ASC;
+        int size = searchRequest.getSize();
+        requirePositive(size);
+
         Specification<User> spec = UserSpecification.buildSpecification(searchRequest);
-        Page<User> users = userRepository.findAll(spec, pageable);
+        String cursor = searchRequest.getCursor();
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(UserSpecification.after(KeysetCursor.decode(cursor, direction)));
+        }
+        // Fetch one extra row to learn whether there is a next page instead of running a count query
+        List<UserResponse> rows = userRepository.findResponses(spec, keysetSort(direction), 0, size + 1);
+
+        return toCursorPage(rows, size, direction);
+    }
+
+    private static CursorPage<UserResponse> toCursorPage(List<UserResponse> rows, int size, Sort.Direction direction) {
+        boolean hasNext = rows.size() > size;
+        List<UserResponse> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? KeysetCursor.after(page.get(page.size() - 1), direction).encode() : null;
+        return new CursorPage<>(page, page.size(), hasNext, nextCursor);
+    }
+
+    // The id tie-breaker makes the order total, so a cursor always points between two distinct rows
+    private static Sort keysetSort(Sort.Direction direction) {
+        return Sort.by(direction, "createdAt", "id");
+    }
 
-        return users.map(userMapper::toResponse);
+    private static void requirePositive(int size) {
+        if (size < 1) {
+            throw new BusinessException(ResponseCode.BAD_REQUEST, "Page size must be at least 1");
+        }
     }
 
     @Transactional
@@ -191,8 +346,12 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", userId.toString()));
 
+        CountedUser before = CountedUser.from(user);
         user.addRole(role);
         User updatedUser = userRepository.save(user);
+        changeOutbox.record(UserChangeEvent.Type.UPDATED, updatedUser);
+        searchIndex.indexAfterCommit(updatedUser);
+        userStats.applyAfterCommit(before, CountedUser.from(updatedUser));
 
         log.info("Role {} added to user: {}", role, userId);
         return userMapper.toResponse(updatedUser);
@@ -209,8 +368,12 @@ public class UserService {
             throw new BusinessException(ResponseCode.OPERATION_NOT_ALLOWED, "Cannot remove the last USER role");
         }
 
+        CountedUser before = CountedUser.from(user);
         user.removeRole(role);
         User updatedUser = userRepository.save(user);
+        changeOutbox.record(UserChangeEvent.Type.UPDATED, updatedUser);
+        searchIndex.indexAfterCommit(updatedUser);
+        userStats.applyAfterCommit(before, CountedUser.from(updatedUser));
 
         log.info("Role {} removed from user: {}", role, userId);
         return userMapper.toResponse(updatedUser);
@@ -220,7 +383,15 @@ public class UserService {
     public void verifyEmail(Long userId) {
         log.info("Verifying email for user ID: {}", userId);
 
-        userRepository.markEmailAsVerified(userId);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", userId.toString()));
+
+        if (!user.isEmailVerified()) {
+            user.setEmailVerified(true);
+            changeOutbox.record(UserChangeEvent.Type.UPDATED, user);
+            userStats.emailVerifiedAfterCommit();
+            searchIndex.markEmailVerifiedAfterCommit(userId);
+        }
 
         log.info("Email verified for user: {}", userId);
     }
@@ -229,30 +400,35 @@ public class UserService {
     public void verifyPhone(Long userId) {
         log.info("Verifying phone for user ID: {}", userId);
 
-        userRepository.markPhoneAsVerified(userId);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", userId.toString()));
+
+        if (!user.isPhoneVerified()) {
+            user.setPhoneVerified(true);
+            changeOutbox.record(UserChangeEvent.Type.UPDATED, user);
+        }
 
         log.info("Phone verified for user: {}", userId);
     }
 
     @Transactional
     public void updateLastLogin(String username) {
-        User user = userRepository.findByUsername(username)
+        User user = userRepository.loadByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User", username));
 
-        userRepository.updateLastLoginTime(user.getId(), LocalDateTime.now());
+        // A dirty-checked update refreshes this user's cache entry; the bulk query would evict the whole region
+        user.setLastLoginAt(LocalDateTime.now());
+        changeOutbox.record(UserChangeEvent.Type.UPDATED, user);
     }
 
-    @Transactional(readOnly = true)
     public UserStatsResponse getUserStats() {
-        long totalUsers = userRepository.count();
-        long activeUsers = userRepository.countActiveUsers();
-        long newUsersThisMonth = userRepository.countUsersCreatedSince(LocalDateTime.now().minusMonths(1));
-
-        return UserStatsResponse.builder()
-                .totalUsers(totalUsers)
-                .activeUsers(activeUsers)
-                .inactiveUsers(totalUsers - activeUsers)
-                .newUsersThisMonth(newUsersThisMonth)
-                .build();
+        return userStats.snapshot();
+    }
+
+    public List<SignupBucket> getSignupSeries(LocalDate from, LocalDate to, SignupInterval interval) {
+        if (from.isAfter(to)) {
+            throw new BusinessException(ResponseCode.BAD_REQUEST, "'from' must not be after 'to'");
+        }
+        return userStats.signups(from, to, interval);
     }
 }
@@ -0,0 +1,36 @@
+package com.microservices.user.service;
+
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+import com.microservices.user.entity.User;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * Lost-update protection for profile writes. A write may carry the version the client last read (from
+ * {@code If-Match}); it is compared with the loaded entity, and the versioned UPDATE catches any writer that
+ * committed in between. No lock is taken.
+ */
+final class UserVersions {
+
+    private UserVersions() {
+    }
+
+    static void check(User user, Long expectedVersion) {
+        if (expectedVersion != null && user.getVersion() != expectedVersion) {
+            throw new BusinessException(ResponseCode.PRECONDITION_FAILED,
+                    "User " + user.getId() + " has changed since version " + expectedVersion);
+        }
+    }
+
+    /**
+     * Runs the flush of a versioned write, so a concurrent update fails this request rather than the commit.
+     */
+    static void flush(User user, Long expectedVersion, Runnable flush) {
+        try {
+            flush.run();
+        } catch (OptimisticLockingFailureException e) {
+            ResponseCode code = expectedVersion != null ? ResponseCode.PRECONDITION_FAILED : ResponseCode.CONFLICT;
+            throw new BusinessException(code, "User " + user.getId() + " was modified concurrently");
+        }
+    }
+}
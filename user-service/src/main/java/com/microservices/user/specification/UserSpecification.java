@@ -1,9 +1,11 @@
 package com.microservices.user.specification;
 
+import com.microservices.user.dto.KeysetCursor;
 import com.microservices.user.dto.UserSearchRequest;
 import com.microservices.user.entity.User;
 import org.springframework.data.jpa.domain.Specification;
 
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -86,5 +88,28 @@ public class UserSpecification {
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    /**
+     * Rows strictly past the cursor in its sort direction. The Criteria API has no row-value comparison, so
+     * {@code (created_at, id) < (c, i)} is spelled out as {@code created_at < c OR (created_at = c AND id < i)}.
+     */
+    public static Specification<User> after(KeysetCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            Path<LocalDateTime> createdAt = root.get("createdAt");
+            Path<Long> id = root.get("id");
+            if (cursor.direction().isDescending()) {
+                return criteriaBuilder.or(
+                        criteriaBuilder.lessThan(createdAt, cursor.createdAt()),
+                        criteriaBuilder.and(
+                                criteriaBuilder.equal(createdAt, cursor.createdAt()),
+                                criteriaBuilder.lessThan(id, cursor.id())));
+            }
+            return criteriaBuilder.or(
+                    criteriaBuilder.greaterThan(createdAt, cursor.createdAt()),
+                    criteriaBuilder.and(
+                            criteriaBuilder.equal(createdAt, cursor.createdAt()),
+                            criteriaBuilder.greaterThan(id, cursor.id())));
+        };
+    }
 }
 
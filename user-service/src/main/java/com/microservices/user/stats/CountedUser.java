@@ -0,0 +1,32 @@
+package com.microservices.user.stats;
+
+import com.microservices.user.entity.Address;
+import com.microservices.user.entity.User;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The part of a user that {@link UserStatsCounters} counts. Taken before and after a change so the counters
+ * can move by the difference.
+ */
+public record CountedUser(boolean active,
+                          boolean emailVerified,
+                          Set<User.Role> roles,
+                          String country,
+                          LocalDate signupDay) {
+
+    public static CountedUser from(User user) {
+        Address address = user.getAddress();
+        Set<User.Role> roles = user.getRoles() == null || user.getRoles().isEmpty()
+                ? EnumSet.noneOf(User.Role.class)
+                : EnumSet.copyOf(user.getRoles());
+        return new CountedUser(
+                user.isActive(),
+                user.isEmailVerified(),
+                roles,
+                address != null ? address.getCountry() : null,
+                user.getCreatedAt() != null ? user.getCreatedAt().toLocalDate() : null);
+    }
+}
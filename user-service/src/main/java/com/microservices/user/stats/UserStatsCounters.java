@@ -0,0 +1,310 @@
+package com.microservices.user.stats;
+
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+import com.microservices.user.dto.SignupBucket;
+import com.microservices.user.dto.SignupInterval;
+import com.microservices.user.dto.UserStatsResponse;
+import com.microservices.user.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * User statistics kept in memory and moved by the service's own writes after they commit, so the admin
+ * dashboard never runs a count. A periodic reconcile replaces the counters with grouped counts from the
+ * database to correct drift from writes that bypass the service or from lost after-commit callbacks.
+ * <p>
+ * Deltas that commit while a reconcile is reading are journaled and replayed on top of the fresh counters. The
+ * journal only opens once the snapshot exists, so a write that the snapshot already contains is not replayed;
+ * the exception is a write whose commit precedes the snapshot but whose after-commit callback runs after the
+ * journal opened, which is counted twice until the next reconcile.
+ * <p>
+ * The counters are loaded when the application is ready and requests never trigger a load; until the first
+ * load succeeds they are retried in the background and the dashboard answers 503.
+ */
+@Slf4j
+@Component
+public class UserStatsCounters {
+
+    // Postgres takes a repeatable-read snapshot at the first statement of the transaction, not at BEGIN
+    private static final String SNAPSHOT_SQL = "SELECT 1";
+    private static final String TOTALS_SQL = "SELECT COUNT(*), " +
+            "COALESCE(SUM(CASE WHEN active THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN email_verified THEN 1 ELSE 0 END), 0) FROM users";
+    private static final String ROLES_SQL = "SELECT role, COUNT(*) FROM user_roles GROUP BY role";
+    private static final String COUNTRIES_SQL =
+            "SELECT country, COUNT(*) FROM users WHERE country IS NOT NULL GROUP BY country";
+    private static final String SIGNUPS_SQL = "SELECT CAST(created_at AS DATE), COUNT(*) FROM users " +
+            "WHERE created_at IS NOT NULL GROUP BY CAST(created_at AS DATE)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Counters counters;
+    private volatile LocalDateTime reconciledAt;
+    private List<Delta> journal;
+
+    public UserStatsCounters(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        // One snapshot for all four queries, so totals, roles, countries and signups agree with each other. Not
+        // marked read-only, which would let a lagging replica serve it: only deltas committed later are journaled
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    // Runs before readiness flips to ACCEPTING_TRAFFIC, so a healthy start never serves an unloaded dashboard
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Initial user stats load failed, retrying in the background: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.user-stats.initial-load-retry-ms:15000}",
+            initialDelayString = "${app.user-stats.initial-load-retry-ms:15000}")
+    public void retryInitialLoad() {
+        if (counters == null) {
+            loadOnStartup();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.user-stats.reconcile-interval-ms:600000}",
+            initialDelayString = "${app.user-stats.reconcile-interval-ms:600000}")
+    public synchronized void reconcile() {
+        long start = System.nanoTime();
+        Counters fresh;
+        try {
+            fresh = snapshotTransaction.execute(status -> {
+                jdbcTemplate.queryForObject(SNAPSHOT_SQL, Integer.class);
+                replaceJournal(new ArrayList<>());
+                return loadFromDatabase();
+            });
+        } catch (RuntimeException e) {
+            replaceJournal(null);
+            throw e;
+        }
+
+        swapLock.writeLock().lock();
+        try {
+            journal.forEach(delta -> delta.applyTo(fresh));
+            Counters previous = counters;
+            if (previous != null && (previous.total.sum() != fresh.total.sum() || previous.active.sum() != fresh.active.sum())) {
+                log.info("User stats drift corrected: total {} -> {}, active {} -> {}",
+                        previous.total.sum(), fresh.total.sum(), previous.active.sum(), fresh.active.sum());
+            }
+            counters = fresh;
+            reconciledAt = LocalDateTime.now();
+            journal = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        log.debug("Reconciled user stats in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void applyAfterCommit(CountedUser before, CountedUser after) {
+        afterCommit(target -> {
+            if (before != null) {
+                target.add(before, -1);
+            }
+            if (after != null) {
+                target.add(after, 1);
+            }
+        });
+    }
+
+    public void emailVerifiedAfterCommit() {
+        emailVerifiedAfterCommit(1);
+    }
+
+    // The set-based deltas below come from bulk statements, which report how many rows changed but not which
+
+    public void emailVerifiedAfterCommit(long count) {
+        afterCommit(target -> target.emailVerified.add(count));
+    }
+
+    public void activeChangedAfterCommit(long delta) {
+        afterCommit(target -> target.active.add(delta));
+    }
+
+    public void roleChangedAfterCommit(User.Role role, long delta) {
+        afterCommit(target -> target.roles.get(role).add(delta));
+    }
+
+    public UserStatsResponse snapshot() {
+        Counters current = current();
+        long total = current.total.sum();
+        long active = current.active.sum();
+
+        Map<String, Long> byRole = new LinkedHashMap<>();
+        current.roles.forEach((role, count) -> byRole.put(role.name(), count.sum()));
+        Map<String, Long> byCountry = new LinkedHashMap<>();
+        current.countries.entrySet().stream()
+                .filter(entry -> entry.getValue().sum() > 0)
+                .sorted(Map.Entry.<String, LongAdder>comparingByValue(
+                        (a, b) -> Long.compare(b.sum(), a.sum())).thenComparing(Map.Entry.comparingByKey()))
+                .forEach(entry -> byCountry.put(entry.getKey(), entry.getValue().sum()));
+
+        return UserStatsResponse.builder()
+                .totalUsers(total)
+                .activeUsers(active)
+                .inactiveUsers(total - active)
+                .newUsersThisMonth(signupsSince(current, LocalDate.now().minusMonths(1)))
+                .emailVerifiedUsers(current.emailVerified.sum())
+                .usersByRole(byRole)
+                .usersByCountry(byCountry)
+                .reconciledAt(reconciledAt)
+                .build();
+    }
+
+    /**
+     * Signups per interval between two days (inclusive), with empty intervals reported as zero.
+     */
+    public List<SignupBucket> signups(LocalDate from, LocalDate to, SignupInterval interval) {
+        Counters current = current();
+        List<SignupBucket> series = new ArrayList<>();
+        for (LocalDate start = interval.truncate(from); !start.isAfter(to); start = interval.next(start)) {
+            LocalDate next = interval.next(start);
+            LocalDate rangeStart = start.isBefore(from) ? from : start;
+            LocalDate rangeEnd = next.isAfter(to) ? to.plusDays(1) : next;
+            long count = current.signups.subMap(rangeStart, true, rangeEnd, false).values().stream()
+                    .mapToLong(LongAdder::sum)
+                    .sum();
+            series.add(new SignupBucket(start, count));
+        }
+        return series;
+    }
+
+    private static long signupsSince(Counters counters, LocalDate day) {
+        return counters.signups.tailMap(day, true).values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private Counters current() {
+        Counters current = counters;
+        if (current == null) {
+            throw new BusinessException(ResponseCode.SERVICE_UNAVAILABLE, "User statistics are still loading, try again shortly");
+        }
+        return current;
+    }
+
+    private void replaceJournal(List<Delta> replacement) {
+        swapLock.writeLock().lock();
+        try {
+            journal = replacement;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private void afterCommit(Delta delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(delta);
+                }
+            });
+        } else {
+            apply(delta);
+        }
+    }
+
+    private void apply(Delta delta) {
+        swapLock.readLock().lock();
+        try {
+            if (journal != null) {
+                synchronized (journal) {
+                    journal.add(delta);
+                }
+            }
+            if (counters != null) {
+                delta.applyTo(counters);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private Counters loadFromDatabase() {
+        Counters fresh = new Counters();
+        jdbcTemplate.query(TOTALS_SQL, rs -> {
+            fresh.total.add(rs.getLong(1));
+            fresh.active.add(rs.getLong(2));
+            fresh.emailVerified.add(rs.getLong(3));
+        });
+        jdbcTemplate.query(ROLES_SQL, rs -> {
+            try {
+                fresh.roles.get(User.Role.valueOf(rs.getString(1))).add(rs.getLong(2));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring unknown role '{}' in user_roles", rs.getString(1));
+            }
+        });
+        jdbcTemplate.query(COUNTRIES_SQL, rs -> {
+            fresh.countries.computeIfAbsent(rs.getString(1), key -> new LongAdder()).add(rs.getLong(2));
+        });
+        jdbcTemplate.query(SIGNUPS_SQL, rs -> {
+            fresh.signups.computeIfAbsent(rs.getDate(1).toLocalDate(), key -> new LongAdder()).add(rs.getLong(2));
+        });
+        return fresh;
+    }
+
+    @FunctionalInterface
+    private interface Delta {
+        void applyTo(Counters counters);
+    }
+
+    private static final class Counters {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder active = new LongAdder();
+        private final LongAdder emailVerified = new LongAdder();
+        private final Map<User.Role, LongAdder> roles = new EnumMap<>(User.Role.class);
+        private final Map<String, LongAdder> countries = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<LocalDate, LongAdder> signups = new ConcurrentSkipListMap<>();
+
+        private Counters() {
+            for (User.Role role : User.Role.values()) {
+                roles.put(role, new LongAdder());
+            }
+        }
+
+        private void add(CountedUser user, int sign) {
+            total.add(sign);
+            if (user.active()) {
+                active.add(sign);
+            }
+            if (user.emailVerified()) {
+                emailVerified.add(sign);
+            }
+            user.roles().forEach(role -> roles.get(role).add(sign));
+            if (user.country() != null) {
+                countries.computeIfAbsent(user.country(), key -> new LongAdder()).add(sign);
+            }
+            if (user.signupDay() != null) {
+                signups.computeIfAbsent(user.signupDay(), key -> new LongAdder()).add(sign);
+            }
+        }
+    }
+}
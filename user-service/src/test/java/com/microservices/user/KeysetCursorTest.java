@@ -0,0 +1,180 @@
+package com.microservices.user;
+
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+import com.microservices.user.dto.CursorPage;
+import com.microservices.user.dto.KeysetCursor;
+import com.microservices.user.dto.UserResponse;
+import com.microservices.user.dto.UserSearchRequest;
+import com.microservices.user.entity.User;
+import com.microservices.user.mapper.UserMapperImpl;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.search.UserSearchIndex;
+import com.microservices.user.service.AuthServiceClient;
+import com.microservices.user.service.UserChangeOutbox;
+import com.microservices.user.service.UserCountEstimator;
+import com.microservices.user.service.UserService;
+import com.microservices.user.stats.UserStatsCounters;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Cursor pages walk the {@code (created_at, id)} order exactly once in both directions, also across rows
+ * sharing a {@code created_at}, and cursors that were not issued by the service are rejected.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@Import({UserService.class, UserMapperImpl.class})
+class KeysetCursorTest {
+
+    private static final int USERS = 11;
+    private static final int PAGE = 2;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_000);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private AuthServiceClient authServiceClient;
+
+    @MockitoBean
+    private UserSearchIndex searchIndex;
+
+    @MockitoBean
+    private UserCountEstimator countEstimator;
+
+    @MockitoBean
+    private UserStatsCounters userStats;
+
+    @MockitoBean
+    private UserChangeOutbox changeOutbox;
+
+    @BeforeEach
+    void setUp() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setRoles(Set.of(User.Role.USER));
+            users.add(user);
+        }
+        userRepository.saveAllAndFlush(users);
+
+        // Three timestamps for eleven rows, so most page boundaries fall inside a run of equal created_at
+        for (User user : users) {
+            jdbcTemplate.update("UPDATE users SET created_at = ? WHERE id = ?",
+                    BASE.plusSeconds(user.getId() % 3), user.getId());
+        }
+        entityManager.clear();
+    }
+
+    @Test
+    void encode_ShouldRoundTripPositionAndDirection() {
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            KeysetCursor cursor = new KeysetCursor(direction, BASE, 42L);
+
+            assertThat(KeysetCursor.decode(cursor.encode(), direction)).isEqualTo(cursor);
+        }
+    }
+
+    @Test
+    void decode_ShouldRejectTamperedCursors() {
+        String issued = new KeysetCursor(Sort.Direction.DESC, BASE, 42L).encode();
+
+        assertInvalid("not base64!", Sort.Direction.DESC);
+        assertInvalid(raw("d|" + BASE), Sort.Direction.DESC);
+        assertInvalid(raw("x|" + BASE + "|42"), Sort.Direction.DESC);
+        assertInvalid(raw("d|yesterday|42"), Sort.Direction.DESC);
+        assertInvalid(raw("d|" + BASE + "|42 OR 1=1"), Sort.Direction.DESC);
+        assertInvalid(raw("d|" + BASE + "|42|7"), Sort.Direction.DESC);
+        assertThatThrownBy(() -> KeysetCursor.decode(issued, Sort.Direction.ASC))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("different sort direction");
+    }
+
+    @Test
+    void searchByCursor_ShouldVisitEveryRowOnceAcrossTiedCreatedAt() {
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            List<Long> visited = walk(cursor -> {
+                UserSearchRequest request = new UserSearchRequest();
+                request.setSize(PAGE);
+                request.setSortDir(direction.name().toLowerCase());
+                request.setCursor(cursor);
+                return userService.searchUsersByCursor(request);
+            });
+
+            assertThat(visited).as(direction.name()).containsExactlyElementsOf(expectedOrder(direction));
+        }
+    }
+
+    @Test
+    void listByCursor_ShouldVisitEveryRowOnceAcrossTiedCreatedAt() {
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            List<Long> visited = walk(cursor ->
+                    userService.getUsersByCursor(cursor, PAGE, direction.name().toLowerCase()));
+
+            assertThat(visited).as(direction.name()).containsExactlyElementsOf(expectedOrder(direction));
+        }
+    }
+
+    private static List<Long> walk(Function<String, CursorPage<UserResponse>> pages) {
+        List<Long> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<UserResponse> page = pages.apply(cursor);
+            page.getContent().forEach(row -> visited.add(row.getId()));
+            cursor = page.isHasNext() ? page.getNextCursor() : null;
+        } while (cursor != null);
+        return visited;
+    }
+
+    private List<Long> expectedOrder(Sort.Direction direction) {
+        Comparator<User> order = Comparator.comparing(User::getCreatedAt).thenComparing(User::getId);
+        return userRepository.findAll().stream()
+                .sorted(direction.isDescending() ? order.reversed() : order)
+                .map(User::getId)
+                .toList();
+    }
+
+    private static void assertInvalid(String cursor, Sort.Direction direction) {
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor, direction))
+                .isInstanceOfSatisfying(BusinessException.class,
+                        e -> assertThat(e.getResponseCode()).isEqualTo(ResponseCode.BAD_REQUEST))
+                .hasMessage("Invalid cursor");
+    }
+
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
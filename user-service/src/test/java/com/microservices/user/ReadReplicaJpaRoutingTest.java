@@ -0,0 +1,179 @@
+package com.microservices.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.user.config.ReadReplicaConfig;
+import com.microservices.user.datasource.ReadReplicaRouter;
+import com.microservices.user.dto.ChangeFeedFormat;
+import com.microservices.user.entity.User;
+import com.microservices.user.mapper.UserMapperImpl;
+import com.microservices.user.repository.ChangeFeedSequenceRepository;
+import com.microservices.user.repository.UserChangeEventRepository;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.service.UserChangeFeedService;
+import com.microservices.user.service.UserChangeOutbox;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing through JPA as the service runs it: the JpaTransactionManager and Hibernate dialect from
+ * {@link ReadReplicaConfig} over two H2 databases. The replica starts as a copy of the primary and then
+ * diverges, so every read shows where it was served from. Every step commits, since cache puts happen on commit.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=" + ReadReplicaJpaRoutingTest.PRIMARY_URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.read-replicas.enabled=true",
+        "app.read-replicas.urls=" + ReadReplicaJpaRoutingTest.REPLICA_URL,
+        "app.read-replicas.lag-query=SELECT 0"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ReadReplicaConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadReplicaJpaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:jpa-routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:jpa-routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserChangeEventRepository changeEventRepository;
+
+    @Autowired
+    private ChangeFeedSequenceRepository sequenceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReadReplicaRouter router;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final JdbcTemplate primaryJdbc = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private final JdbcTemplate replicaJdbc = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private Cache cache;
+    private Long aliceId;
+
+    @BeforeEach
+    void setUp() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+
+        User alice = new User();
+        alice.setUsername("alice");
+        alice.setEmail("alice@example.com");
+        alice.setFirstName("Primary");
+        alice.setRoles(new HashSet<>(Set.of(User.Role.USER)));
+        aliceId = userRepository.save(alice).getId();
+
+        replicaJdbc.execute("DROP ALL OBJECTS");
+        primaryJdbc.queryForList("SCRIPT", String.class).stream()
+                .filter(sql -> !sql.startsWith("--"))
+                .forEach(replicaJdbc::execute);
+        replicaJdbc.update("UPDATE users SET first_name = 'Replica'");
+
+        cache = entityManagerFactory.getCache();
+        cache.evictAll();
+        router.checkLag();
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeEventRepository.deleteAll();
+        sequenceRepository.deleteAll();
+        userRepository.deleteAll();
+        cache.evictAll();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldLoadEntitiesFromTheReplica() {
+        assertThat(readOnly.execute(status -> firstName())).isEqualTo("Replica");
+        assertThat(readWrite.execute(status -> firstName())).isEqualTo("Primary");
+
+        // Spring Data's own read-only methods open their transaction through the same path
+        assertThat(userRepository.findById(aliceId).orElseThrow().getFirstName()).isEqualTo("Replica");
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldReadTheSecondLevelCacheWithoutFillingIt() {
+        assertThat(readOnly.execute(status -> cacheMode())).isEqualTo(CacheMode.GET);
+        assertThat(readWrite.execute(status -> cacheMode())).isEqualTo(CacheMode.NORMAL);
+
+        readOnly.execute(status -> firstName());
+        assertThat(cache.contains(User.class, aliceId)).isFalse();
+
+        readWrite.execute(status -> firstName());
+        assertThat(cache.contains(User.class, aliceId)).isTrue();
+        // Cached by the primary's transaction, read by the replica's
+        assertThat(readOnly.execute(status -> firstName())).isEqualTo("Primary");
+    }
+
+    @Test
+    void changeFeed_ShouldReadTheHeadAndEventsFromThePrimaryWhileTheReplicaLags() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        UserChangeOutbox outbox = new UserChangeOutbox(changeEventRepository, new UserMapperImpl(), jdbcTemplate, objectMapper);
+        UserChangeFeedService feed = new UserChangeFeedService(changeEventRepository, sequenceRepository, jdbcTemplate,
+                transactionManager, objectMapper, 2, 15, 1, 100, 168);
+        // Written after the replica was copied, and the lag query reports no lag: the replica has none of them
+        readWrite.executeWithoutResult(status -> {
+            for (long userId = 1; userId <= 3; userId++) {
+                outbox.recordDeleted(userId);
+            }
+        });
+        assertThat(feed.relay()).isEqualTo(3);
+        assertThat(replicaJdbc.queryForObject("SELECT COUNT(*) FROM user_change_events", Long.class)).isZero();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (UserChangeFeedService.ChangeStream stream = feed.open(0, ChangeFeedFormat.NDJSON, false)) {
+            assertThat(stream.writeTo(output)).isEqualTo(3);
+        }
+        assertThat(output.toString(StandardCharsets.UTF_8).lines()).hasSize(3);
+    }
+
+    private String firstName() {
+        return userRepository.findById(aliceId).orElseThrow().getFirstName();
+    }
+
+    private CacheMode cacheMode() {
+        return entityManager.unwrap(Session.class).getCacheMode();
+    }
+}
@@ -0,0 +1,131 @@
+package com.microservices.user;
+
+import com.microservices.user.datasource.ReadReplicaRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Read-only transactions go to a replica that is caught up, everything else to the primary, and a principal that
+ * just wrote keeps reading from the primary. Two H2 databases stand in for primary and replica; each names itself
+ * and holds a WAL position, and the replica reports its lag only while behind the primary's position.
+ */
+class ReadReplicaRouterTest {
+
+    private final DataSource primary = database("primary");
+    private final DataSource replica = database("replica");
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReadReplicaRouter router;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        router = new ReadReplicaRouter(primary, Map.of("replica-1", replica), Duration.ofSeconds(1),
+                Duration.ofMinutes(1), "SELECT wal_position FROM node",
+                "SELECT CASE WHEN wal_position >= ? THEN 0 ELSE lag_ms END FROM node", meterRegistry);
+        DataSource dataSource = router.routingDataSource();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+        router.checkLag();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        new JdbcTemplate(primary).execute("DROP TABLE node");
+        new JdbcTemplate(replica).execute("DROP TABLE node");
+    }
+
+    @Test
+    void routes_ReadOnlyToReplicaAndWritesToPrimary() {
+        assertThat(readOnly.execute(status -> node())).isEqualTo("replica");
+        assertThat(readWrite.execute(status -> node())).isEqualTo("primary");
+
+        assertThat(routed("replica-1", "read")).isEqualTo(1);
+        assertThat(routed("primary", "write")).isEqualTo(1);
+    }
+
+    @Test
+    void routes_ReadsToPrimaryWhileReplicaLags() {
+        // Nothing replayed for a while, but the primary has not written since either
+        new JdbcTemplate(replica).update("UPDATE node SET lag_ms = 5000");
+        router.checkLag();
+        assertThat(readOnly.execute(status -> node())).isEqualTo("replica");
+
+        new JdbcTemplate(primary).update("UPDATE node SET wal_position = 2");
+        router.checkLag();
+        assertThat(readOnly.execute(status -> node())).isEqualTo("primary");
+        assertThat(routed("primary", "fallback")).isEqualTo(1);
+
+        new JdbcTemplate(replica).update("UPDATE node SET wal_position = 2");
+        router.checkLag();
+        assertThat(readOnly.execute(status -> node())).isEqualTo("replica");
+    }
+
+    @Test
+    void routes_ReadsToPrimaryWhenReplicaReportsNoLag() {
+        // What the default query answers on a database that is not replaying WAL
+        new JdbcTemplate(replica).update("UPDATE node SET lag_ms = NULL, wal_position = 0");
+        router.checkLag();
+
+        assertThat(readOnly.execute(status -> node())).isEqualTo("primary");
+        assertThat(meterRegistry.get("db.replica.usable").tag("pool", "replica-1").gauge().value()).isZero();
+    }
+
+    @Test
+    void routes_ReadsOfRecentWriterToPrimary() {
+        authenticate("alice");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET name = name"));
+        assertThat(readOnly.execute(status -> node())).isEqualTo("primary");
+        assertThat(routed("primary", "sticky")).isEqualTo(1);
+
+        // A rolled back write leaves nothing to read back
+        authenticate("bob");
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE node SET name = name");
+            status.setRollbackOnly();
+        });
+        assertThat(readOnly.execute(status -> node())).isEqualTo("replica");
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private double routed(String pool, String route) {
+        return meterRegistry.get("db.routing.connections").tag("pool", pool).tag("route", route).counter().count();
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20), lag_ms BIGINT, wal_position BIGINT)");
+        jdbcTemplate.update("INSERT INTO node VALUES (?, 0, 1)", name);
+        return dataSource;
+    }
+}
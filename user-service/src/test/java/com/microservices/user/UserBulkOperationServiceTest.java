@@ -0,0 +1,161 @@
+package com.microservices.user;
+
+import com.microservices.common.core.exception.ResourceNotFoundException;
+import com.microservices.user.dto.BulkOperationStatus;
+import com.microservices.user.dto.BulkUserAction;
+import com.microservices.user.dto.BulkUserRequest;
+import com.microservices.user.entity.User;
+import com.microservices.user.repository.BulkOperationRepository;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.search.UserSearchIndex;
+import com.microservices.user.service.UserBulkOperationService;
+import com.microservices.user.service.UserChangeOutbox;
+import com.microservices.user.stats.UserStatsCounters;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * A bulk operation accepted by one replica reports its progress to every replica through
+ * {@code bulk_operations}. Chunks and progress commit for real, as they do behind the controller.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserBulkOperationServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BulkOperationRepository operationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UserBulkOperationService replicaA;
+    private UserBulkOperationService replicaB;
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        replicaA = service(60);
+        replicaB = service(60);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setActive(i % 2 == 0);
+            user.setRoles(Set.of(User.Role.USER));
+            users.add(user);
+        }
+        ids = userRepository.saveAll(users).stream().map(User::getId).toList();
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicaA.shutdown();
+        replicaB.shutdown();
+        operationRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getStatus_ShouldReportProgressOfAnotherReplicasOperation() throws Exception {
+        BulkOperationStatus queued = replicaA.start(request(BulkUserAction.DEACTIVATE));
+        assertThat(queued.getState()).isIn(BulkOperationStatus.State.QUEUED, BulkOperationStatus.State.RUNNING);
+
+        BulkOperationStatus finished = awaitFinished(replicaB, queued.getOperationId());
+
+        assertThat(finished.getState()).isEqualTo(BulkOperationStatus.State.COMPLETED);
+        assertThat(finished.getTargeted()).isEqualTo(10);
+        assertThat(finished.getProcessed()).isEqualTo(10);
+        assertThat(finished.getUpdated()).isEqualTo(5);
+        assertThat(finished.getChunksCompleted()).isEqualTo(4);
+        assertThat(finished.getStartedAt()).isNotNull();
+        assertThat(userRepository.countActiveUsers()).isZero();
+    }
+
+    @Test
+    void roleActions_ShouldBumpVersionsOfChangedUsersOnly() throws Exception {
+        BulkUserRequest promoteFirst = request(BulkUserAction.ADD_ROLE);
+        promoteFirst.setRole(User.Role.ADMIN);
+        promoteFirst.setIds(ids.subList(0, 3));
+        awaitFinished(replicaA, replicaA.start(promoteFirst).getOperationId());
+        Map<Long, Long> before = versions();
+
+        BulkUserRequest promoteAll = request(BulkUserAction.ADD_ROLE);
+        promoteAll.setRole(User.Role.ADMIN);
+        BulkOperationStatus status = awaitFinished(replicaA, replicaA.start(promoteAll).getOperationId());
+
+        assertThat(status.getUpdated()).isEqualTo(7);
+        Map<Long, Long> after = versions();
+        ids.forEach(id -> assertThat(after.get(id)).as("version of %d", id)
+                .isEqualTo(ids.indexOf(id) < 3 ? before.get(id) : before.get(id) + 1));
+    }
+
+    @Test
+    void purgeFinished_ShouldForgetOperationsPastTheRetention() throws Exception {
+        String operationId = replicaA.start(request(BulkUserAction.VERIFY_EMAIL)).getOperationId();
+        awaitFinished(replicaA, operationId);
+
+        replicaB.purgeFinished();
+        assertThat(replicaA.getStatus(operationId).getState()).isEqualTo(BulkOperationStatus.State.COMPLETED);
+
+        UserBulkOperationService noRetention = service(0);
+        try {
+            noRetention.purgeFinished();
+        } finally {
+            noRetention.shutdown();
+        }
+        assertThatThrownBy(() -> replicaB.getStatus(operationId)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private Map<Long, Long> versions() {
+        return userRepository.findAll().stream().collect(Collectors.toMap(User::getId, User::getVersion));
+    }
+
+    private BulkUserRequest request(BulkUserAction action) {
+        BulkUserRequest request = new BulkUserRequest();
+        request.setAction(action);
+        request.setIds(ids);
+        return request;
+    }
+
+    private static BulkOperationStatus awaitFinished(UserBulkOperationService service, String operationId)
+            throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            BulkOperationStatus status = service.getStatus(operationId);
+            if (status.getFinishedAt() != null) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Bulk operation " + operationId + " did not finish");
+    }
+
+    private UserBulkOperationService service(long retentionMinutes) {
+        return new UserBulkOperationService(userRepository, operationRepository, mock(UserSearchIndex.class),
+                mock(UserStatsCounters.class), mock(UserChangeOutbox.class), transactionManager,
+                3, 1000, retentionMinutes);
+    }
+}
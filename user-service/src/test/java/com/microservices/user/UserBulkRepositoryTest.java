@@ -0,0 +1,89 @@
+package com.microservices.user;
+
+import com.microservices.user.dto.UserSearchRequest;
+import com.microservices.user.entity.User;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.specification.UserSpecification;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The set-based statements behind {@code /users/bulk} change only the rows that need it and report that count.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class UserBulkRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setActive(i % 2 == 0);
+            user.setEmailVerified(i < 3);
+            user.setRoles(i == 0 ? Set.of(User.Role.USER, User.Role.ADMIN) : Set.of(User.Role.USER));
+            users.add(user);
+        }
+        ids = userRepository.saveAllAndFlush(users).stream().map(User::getId).toList();
+        entityManager.clear();
+    }
+
+    @Test
+    void updateUserStatus_ShouldCountOnlyChangedUsers() {
+        assertThat(userRepository.updateUserStatus(ids, false)).isEqualTo(5);
+        assertThat(userRepository.updateUserStatus(ids, false)).isZero();
+        assertThat(userRepository.countActiveUsers()).isZero();
+
+        assertThat(userRepository.markEmailAsVerified(ids)).isEqualTo(7);
+    }
+
+    @Test
+    void roleStatements_ShouldAddMissingRolesAndKeepLastUserRole() {
+        // User 0 already is an admin, so only the others change and need a new version
+        assertThat(userRepository.insertRole(ids, User.Role.ADMIN)).containsExactlyElementsOf(ids.subList(1, 10));
+        assertThat(userRepository.insertRole(ids, User.Role.ADMIN)).isEmpty();
+
+        assertThat(userRepository.deleteRole(ids.subList(0, 5), User.Role.USER))
+                .containsExactlyElementsOf(ids.subList(0, 5));
+        assertThat(userRepository.deleteRole(ids, User.Role.ADMIN)).containsExactlyElementsOf(ids);
+        // Users 0-4 are now left without roles; the others have USER alone and keep it
+        assertThat(userRepository.deleteRole(ids, User.Role.USER)).isEmpty();
+
+        entityManager.clear();
+        assertThat(userRepository.findById(ids.get(0)).orElseThrow().getRoles()).isEmpty();
+        assertThat(userRepository.findById(ids.get(9)).orElseThrow().getRoles()).containsExactly(User.Role.USER);
+    }
+
+    @Test
+    void findIdChunk_ShouldWalkMatchingIdsInAscendingOrder() {
+        UserSearchRequest filter = new UserSearchRequest();
+        filter.setActive(true);
+        Specification<User> spec = UserSpecification.buildSpecification(filter);
+
+        List<Long> first = userRepository.findIdChunk(spec, 0, 3);
+        List<Long> rest = userRepository.findIdChunk(spec, first.get(first.size() - 1), 3);
+
+        assertThat(first).containsExactly(ids.get(0), ids.get(2), ids.get(4));
+        assertThat(rest).containsExactly(ids.get(6), ids.get(8));
+        assertThat(userRepository.findIdChunk(spec, ids.get(8), 3)).isEmpty();
+    }
+}
@@ -0,0 +1,226 @@
+package com.microservices.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.common.core.exception.BusinessException;
+import com.microservices.user.dto.ChangeFeedFormat;
+import com.microservices.user.entity.User;
+import com.microservices.user.entity.UserChangeEvent;
+import com.microservices.user.mapper.UserMapperImpl;
+import com.microservices.user.repository.ChangeFeedSequenceRepository;
+import com.microservices.user.repository.UserChangeEventRepository;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.service.UserChangeFeedService;
+import com.microservices.user.service.UserChangeOutbox;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The feed replays the outbox after any offset, in order and in batches, also events whose transaction commits
+ * after newer ones, and compaction keeps only the latest event of each live user.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+class UserChangeFeedServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserChangeEventRepository changeEventRepository;
+
+    @Autowired
+    private ChangeFeedSequenceRepository sequenceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private UserChangeOutbox outbox;
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        outbox = new UserChangeOutbox(changeEventRepository, new UserMapperImpl(), jdbcTemplate, objectMapper);
+        alice = save("alice");
+        bob = save("bob");
+    }
+
+    @Test
+    void stream_ShouldReplayEventsAfterOffsetAcrossBatches() throws Exception {
+        outbox.record(UserChangeEvent.Type.CREATED, alice);
+        outbox.record(UserChangeEvent.Type.CREATED, bob);
+        alice.setFirstName("Alice");
+        outbox.record(UserChangeEvent.Type.UPDATED, alice);
+        outbox.recordDeleted(bob.getId());
+        relay();
+
+        // Batches of two make the stream read the range in several queries
+        List<JsonNode> all = ndjson(feed(2, 100), 0);
+        assertThat(all).extracting(event -> event.get("type").asText())
+                .containsExactly("CREATED", "CREATED", "UPDATED", "DELETED");
+        assertThat(all).extracting(event -> event.get("offset").asLong()).isSorted().doesNotHaveDuplicates();
+        assertThat(all.get(2).get("user").get("firstName").asText()).isEqualTo("Alice");
+        assertThat(all.get(3).has("user")).isFalse();
+
+        List<JsonNode> resumed = ndjson(feed(2, 100), all.get(1).get("offset").asLong());
+        assertThat(resumed).extracting(event -> event.get("type").asText()).containsExactly("UPDATED", "DELETED");
+    }
+
+    @Test
+    void stream_ShouldFrameServerSentEventsWithOffsetIds() throws Exception {
+        outbox.record(UserChangeEvent.Type.CREATED, alice);
+        relay();
+        long offset = jdbcTemplate.queryForObject("SELECT feed_offset FROM user_change_events", Long.class);
+
+        String body = write(feed(100, 100), 0, ChangeFeedFormat.SSE);
+
+        assertThat(body).startsWith("id: " + offset + "\nevent: CREATED\ndata: {").endsWith("}\n\n");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void relay_ShouldServeAnEventThatCommitsAfterANewerOne() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        try {
+            // Takes the lower id, then stays open while a later insert commits and is relayed
+            CompletableFuture<Void> late = CompletableFuture.runAsync(() ->
+                    transactionTemplate.executeWithoutResult(status -> {
+                        outbox.recordDeleted(alice.getId());
+                        inserted.countDown();
+                        await(commit);
+                    }));
+            assertThat(inserted.await(10, TimeUnit.SECONDS)).isTrue();
+            transactionTemplate.executeWithoutResult(status -> outbox.recordDeleted(bob.getId()));
+
+            UserChangeFeedService feed = feed(100, 100);
+            assertThat(feed.relay()).isEqualTo(1);
+            List<JsonNode> first = ndjson(feed, 0);
+            assertThat(first).extracting(event -> event.get("userId").asLong()).containsExactly(bob.getId());
+
+            commit.countDown();
+            late.get(10, TimeUnit.SECONDS);
+            assertThat(feed.relay()).isEqualTo(1);
+
+            // A consumer that already processed the newer event still receives the late one
+            List<JsonNode> resumed = ndjson(feed, first.get(0).get("offset").asLong());
+            assertThat(resumed).extracting(event -> event.get("userId").asLong()).containsExactly(alice.getId());
+            assertThat(resumed.get(0).get("offset").asLong()).isGreaterThan(first.get(0).get("offset").asLong());
+        } finally {
+            commit.countDown();
+            changeEventRepository.deleteAll();
+            sequenceRepository.deleteAll();
+            userRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void compact_ShouldKeepOnlyLatestEventOfLiveUsers() throws Exception {
+        outbox.record(UserChangeEvent.Type.CREATED, alice);
+        outbox.record(UserChangeEvent.Type.UPDATED, alice);
+        outbox.record(UserChangeEvent.Type.CREATED, bob);
+        outbox.recordDeleted(bob.getId());
+        settle();
+
+        feed(100, 100).compact();
+
+        List<UserChangeEvent> remaining = changeEventRepository.findAll();
+        assertThat(remaining).singleElement().satisfies(event -> {
+            assertThat(event.getUserId()).isEqualTo(alice.getId());
+            assertThat(event.getChangeType()).isEqualTo(UserChangeEvent.Type.UPDATED);
+        });
+    }
+
+    @Test
+    void open_ShouldRejectStreamsOverTheLimit() {
+        UserChangeFeedService feed = feed(100, 1);
+
+        UserChangeFeedService.ChangeStream first = feed.open(0, ChangeFeedFormat.NDJSON, false);
+        assertThatThrownBy(() -> feed.open(0, ChangeFeedFormat.NDJSON, false)).isInstanceOf(BusinessException.class);
+        first.close();
+        feed.open(0, ChangeFeedFormat.NDJSON, false).close();
+    }
+
+    // No retention, so everything written by the test is compactable at once
+    private UserChangeFeedService feed(int batchSize, int maxStreams) {
+        return new UserChangeFeedService(changeEventRepository, sequenceRepository, jdbcTemplate, transactionManager,
+                objectMapper, batchSize, 15, 1, maxStreams, 0);
+    }
+
+    // The scheduled relay does not run in tests; stamp the offsets of everything written so far. The stamps are
+    // written with JDBC, so the events this test transaction still manages are detached to read them back
+    private void relay() {
+        feed(100, 100).relay();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Compaction compares creation times with the clock; make sure it has moved past them
+    private static void settle() throws InterruptedException {
+        Thread.sleep(5);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<JsonNode> ndjson(UserChangeFeedService feed, long after) throws Exception {
+        List<JsonNode> events = new ArrayList<>();
+        for (String line : write(feed, after, ChangeFeedFormat.NDJSON).lines().toList()) {
+            events.add(objectMapper.readTree(line));
+        }
+        return events;
+    }
+
+    private static String write(UserChangeFeedService feed, long after, ChangeFeedFormat format) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (UserChangeFeedService.ChangeStream stream = feed.open(after, format, false)) {
+            stream.writeTo(output);
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private User save(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setRoles(Set.of(User.Role.USER));
+        return userRepository.saveAndFlush(user);
+    }
+}
@@ -0,0 +1,117 @@
+package com.microservices.user;
+
+import com.microservices.common.core.exception.GlobalExceptionHandler;
+import com.microservices.user.controller.UserController;
+import com.microservices.user.dto.UserResponse;
+import com.microservices.user.dto.UserUpdateRequest;
+import com.microservices.user.service.UserBulkOperationService;
+import com.microservices.user.service.UserExportService;
+import com.microservices.user.service.UserImportService;
+import com.microservices.user.service.UserPatchService;
+import com.microservices.user.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional requests at the HTTP boundary: If-None-Match revalidations answer 304 from the version alone, and
+ * If-Match headers reach the service as the expected version or fail before it is called. Security is left out;
+ * it is not what decides these responses.
+ */
+class UserControllerETagTest {
+
+    private final UserService userService = mock(UserService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        UserController controller = new UserController(userService, mock(UserBulkOperationService.class),
+                mock(UserExportService.class), mock(UserImportService.class), mock(UserPatchService.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        when(userService.getUserVersion(1L)).thenReturn(Optional.of(3L));
+        when(userService.getUserById(1L)).thenReturn(user(3));
+    }
+
+    @Test
+    void getUser_ShouldAnswerNotModifiedWithoutLoadingTheProfile() throws Exception {
+        for (String ifNoneMatch : new String[]{"\"3\"", "W/\"3\"", "\"1\", \"3\"", "*"}) {
+            mockMvc.perform(get("/users/1").header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                    .andExpect(content().string(""));
+        }
+        verify(userService, never()).getUserById(anyLong());
+    }
+
+    @Test
+    void getUser_ShouldAnswerTheProfileWhenTheTagIsStaleOrAbsent() throws Exception {
+        mockMvc.perform(get("/users/1").header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.data.username").value("alice"));
+
+        mockMvc.perform(get("/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    @Test
+    void updateUser_ShouldPassTheIfMatchVersionToTheService() throws Exception {
+        when(userService.updateUser(eq(1L), any(UserUpdateRequest.class), any())).thenReturn(user(6));
+
+        update("\"5\"").andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, "\"6\""));
+        verify(userService).updateUser(eq(1L), any(UserUpdateRequest.class), eq(5L));
+
+        update("*").andExpect(status().isOk());
+        update(null).andExpect(status().isOk());
+        verify(userService, times(2)).updateUser(eq(1L), any(UserUpdateRequest.class), isNull());
+    }
+
+    @Test
+    void updateUser_ShouldRejectTagsThatCannotMatchBeforeUpdating() throws Exception {
+        update("W/\"5\"").andExpect(status().isPreconditionFailed());
+        update("\"abc\"").andExpect(status().isPreconditionFailed());
+        update("\"4\", \"5\"").andExpect(status().isBadRequest());
+
+        verify(userService, never()).updateUser(anyLong(), any(), any());
+    }
+
+    private ResultActions update(String ifMatch) throws Exception {
+        MockHttpServletRequestBuilder request = put("/users/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Alice\"}");
+        if (ifMatch != null) {
+            request.header(HttpHeaders.IF_MATCH, ifMatch);
+        }
+        return mockMvc.perform(request);
+    }
+
+    private static UserResponse user(long version) {
+        return UserResponse.builder().id(1L).username("alice").version(version).build();
+    }
+}
@@ -0,0 +1,141 @@
+package com.microservices.user;
+
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+import com.microservices.user.dto.CountMode;
+import com.microservices.user.dto.UserResponse;
+import com.microservices.user.dto.UserSearchRequest;
+import com.microservices.user.entity.User;
+import com.microservices.user.mapper.UserMapperImpl;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.search.UserSearchIndex;
+import com.microservices.user.service.AuthServiceClient;
+import com.microservices.user.service.UserChangeOutbox;
+import com.microservices.user.service.UserCountEstimator;
+import com.microservices.user.service.UserService;
+import com.microservices.user.stats.UserStatsCounters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The three count modes of offset listings, and the estimate cache keyed by the filter fingerprint. H2 has
+ * no planner statistics, so the unfiltered estimate takes the cached-count fallback.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@Import({UserService.class, UserMapperImpl.class, UserCountEstimator.class})
+class UserCountEstimatorTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private AuthServiceClient authServiceClient;
+
+    @MockitoBean
+    private UserSearchIndex searchIndex;
+
+    @MockitoBean
+    private UserStatsCounters userStats;
+
+    @MockitoBean
+    private UserChangeOutbox changeOutbox;
+
+    @BeforeEach
+    void setUp() {
+        // "user1" matches user1 and user10..user19
+        createUsers(IntStream.range(0, 25).mapToObj(i -> "user" + i).toList());
+    }
+
+    @Test
+    void from_ShouldParseCountModesAndDefaultToExact() {
+        assertThat(CountMode.from(null)).isEqualTo(CountMode.EXACT);
+        assertThat(CountMode.from(" ")).isEqualTo(CountMode.EXACT);
+        assertThat(CountMode.from("Estimated")).isEqualTo(CountMode.ESTIMATED);
+        assertThat(CountMode.from(" none ")).isEqualTo(CountMode.NONE);
+        assertThatThrownBy(() -> CountMode.from("approximate"))
+                .isInstanceOfSatisfying(BusinessException.class,
+                        e -> assertThat(e.getResponseCode()).isEqualTo(ResponseCode.BAD_REQUEST));
+    }
+
+    @Test
+    void searchUsers_ShouldReportTotalsPerCountMode() {
+        Slice<UserResponse> exact = userService.searchUsers(search("user1", 0, 5, "createdAt", CountMode.EXACT));
+        Slice<UserResponse> estimated = userService.searchUsers(search("user1", 0, 5, "createdAt", CountMode.ESTIMATED));
+        Slice<UserResponse> none = userService.searchUsers(search("user1", 0, 5, "createdAt", CountMode.NONE));
+
+        assertThat(exact).isInstanceOfSatisfying(Page.class, page -> assertThat(page.getTotalElements()).isEqualTo(11));
+        assertThat(estimated).isInstanceOfSatisfying(Page.class, page -> assertThat(page.getTotalElements()).isEqualTo(11));
+        assertThat(none).isNotInstanceOf(Page.class);
+        assertThat(none.getNumberOfElements()).isEqualTo(5);
+        assertThat(none.hasNext()).isTrue();
+    }
+
+    @Test
+    void searchUsers_ShouldReuseTheCountForTheSameFilterFingerprint() {
+        assertThat(total(search("user1", 0, 5, "createdAt", CountMode.ESTIMATED))).isEqualTo(11);
+        createUsers(List.of("user100", "user101", "user102"));
+
+        // Other page, size, sort and case hit the cached count; an exact count sees the new rows
+        assertThat(total(search("USER1", 1, 4, "username", CountMode.ESTIMATED))).isEqualTo(11);
+        assertThat(total(search("user1", 1, 4, "username", CountMode.EXACT))).isEqualTo(14);
+        // A different filter is counted afresh
+        assertThat(total(search("user10", 0, 5, "createdAt", CountMode.ESTIMATED))).isEqualTo(4);
+        // The last page proves the real total, whatever the cached estimate says
+        assertThat(total(search("user1", 3, 4, "createdAt", CountMode.ESTIMATED))).isEqualTo(14);
+    }
+
+    @Test
+    void getAllUsers_ShouldFallBackToACachedCountWithoutPlannerStatistics() {
+        assertThat(((Page<?>) userService.getAllUsers(0, 10, "createdAt", "desc", CountMode.ESTIMATED))
+                .getTotalElements()).isEqualTo(25);
+        createUsers(List.of("late0", "late1", "late2"));
+
+        assertThat(((Page<?>) userService.getAllUsers(0, 10, "createdAt", "desc", CountMode.ESTIMATED))
+                .getTotalElements()).isEqualTo(25);
+        assertThat(((Page<?>) userService.getAllUsers(0, 10, "createdAt", "desc", CountMode.EXACT))
+                .getTotalElements()).isEqualTo(28);
+    }
+
+    private long total(UserSearchRequest request) {
+        return ((Page<?>) userService.searchUsers(request)).getTotalElements();
+    }
+
+    private void createUsers(List<String> usernames) {
+        userRepository.saveAllAndFlush(usernames.stream().map(username -> {
+            User user = new User();
+            user.setUsername(username);
+            user.setEmail(username + "@example.com");
+            user.setRoles(Set.of(User.Role.USER));
+            return user;
+        }).toList());
+    }
+
+    private static UserSearchRequest search(String username, int page, int size, String sortBy, CountMode mode) {
+        UserSearchRequest request = new UserSearchRequest();
+        request.setUsername(username);
+        request.setPage(page);
+        request.setSize(size);
+        request.setSortBy(sortBy);
+        request.setCountMode(mode.value());
+        return request;
+    }
+}
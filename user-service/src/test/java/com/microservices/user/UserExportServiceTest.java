@@ -0,0 +1,128 @@
+package com.microservices.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.microservices.common.core.util.RecordStreamReader;
+import com.microservices.user.dto.ExportFormat;
+import com.microservices.user.dto.UserSearchRequest;
+import com.microservices.user.entity.User;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.service.UserExportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports stream every matching user across keyset chunks, in creation order, in a form the import reader parses
+ * back; cells a spreadsheet would evaluate as formulas are escaped.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class UserExportServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UserExportService exportService;
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        // A chunk smaller than the result makes the export cross several keyset chunks
+        exportService = new UserExportService(userRepository, objectMapper, transactionManager, 2);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setBio(i == 0 ? "Says \"hi\", often" : i == 2 ? "=HYPERLINK(\"http://evil.example\")" : null);
+            user.setPhoneNumber(i == 1 ? "+4915112345678" : null);
+            user.setActive(i != 3);
+            user.setRoles(i == 0 ? Set.of(User.Role.USER, User.Role.ADMIN) : Set.of(User.Role.USER));
+            users.add(user);
+        }
+        ids = userRepository.saveAllAndFlush(users).stream().map(User::getId).toList();
+        entityManager.clear();
+    }
+
+    @Test
+    void csvExport_ShouldContainEveryUserInCreationOrder() throws Exception {
+        List<RecordStreamReader.Record> records = read(export(new UserSearchRequest(), ExportFormat.CSV),
+                RecordStreamReader.Format.CSV);
+
+        assertThat(records).hasSize(5).allMatch(RecordStreamReader.Record::isValid);
+        assertThat(records).extracting(record -> Long.valueOf(record.get("id"))).containsExactlyElementsOf(ids);
+        assertThat(records.get(0).get("bio")).isEqualTo("Says \"hi\", often");
+        assertThat(records.get(0).get("roles")).isEqualTo("USER;ADMIN");
+        assertThat(records.get(1).get("bio")).isNull();
+    }
+
+    @Test
+    void csvExport_ShouldEscapeFormulaCellsAndReadThemBackUnchanged() throws Exception {
+        byte[] csv = export(new UserSearchRequest(), ExportFormat.CSV);
+        String text = new String(csv, StandardCharsets.UTF_8);
+
+        assertThat(text).contains(",'+4915112345678,").contains("\"'=HYPERLINK(\"\"http://evil.example\"\")\"");
+        List<RecordStreamReader.Record> records = read(csv, RecordStreamReader.Format.CSV);
+        assertThat(records.get(1).get("phoneNumber")).isEqualTo("+4915112345678");
+        assertThat(records.get(2).get("bio")).isEqualTo("=HYPERLINK(\"http://evil.example\")");
+    }
+
+    @Test
+    void escapeFormula_ShouldRoundTripValuesThatAlreadyStartWithQuotes() throws Exception {
+        for (String value : List.of("-1", "@SUM(A1)", "'=1", "''+1", "'plain", "it's")) {
+            String csv = "value\n" + RecordStreamReader.escapeFormula(value) + "\n";
+            List<RecordStreamReader.Record> records = read(csv.getBytes(StandardCharsets.UTF_8),
+                    RecordStreamReader.Format.CSV);
+
+            assertThat(records.get(0).get("value")).as(value).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void ndjsonExport_ShouldApplyFilter() throws Exception {
+        UserSearchRequest filter = new UserSearchRequest();
+        filter.setActive(true);
+
+        List<RecordStreamReader.Record> records = read(export(filter, ExportFormat.NDJSON),
+                RecordStreamReader.Format.NDJSON);
+
+        assertThat(records).extracting(record -> record.get("username"))
+                .containsExactly("user0", "user1", "user2", "user4");
+    }
+
+    private byte[] export(UserSearchRequest filter, ExportFormat format) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exportService.export(filter, format, output);
+        return output.toByteArray();
+    }
+
+    private static List<RecordStreamReader.Record> read(byte[] bytes, RecordStreamReader.Format format) throws Exception {
+        try (RecordStreamReader reader = new RecordStreamReader(new ByteArrayInputStream(bytes), format)) {
+            List<RecordStreamReader.Record> records = new ArrayList<>();
+            reader.forEachRemaining(records::add);
+            assertThat(new String(bytes, StandardCharsets.UTF_8)).endsWith("\n");
+            return records;
+        }
+    }
+}
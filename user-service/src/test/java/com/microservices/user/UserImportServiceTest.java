@@ -0,0 +1,182 @@
+package com.microservices.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.common.core.util.RecordStreamReader;
+import com.microservices.user.batch.CopyUserBatchWriter;
+import com.microservices.user.batch.JdbcUserBatchWriter;
+import com.microservices.user.entity.User;
+import com.microservices.user.mapper.UserMapperImpl;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.search.UserSearchIndex;
+import com.microservices.user.service.UserChangeOutbox;
+import com.microservices.user.service.UserImportService;
+import com.microservices.user.stats.UserStatsCounters;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Import validates, deduplicates and checks uniqueness per chunk, writes accepted rows in batches and reports
+ * every rejected row. H2 has no COPY, so the JDBC writer is picked.
+ */
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+class UserImportServiceTest {
+
+    private static final String HEADER = "username,email,firstName,dateOfBirth,gender,city,active,roles\n";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final UserSearchIndex searchIndex = mock(UserSearchIndex.class);
+    private final UserStatsCounters userStats = mock(UserStatsCounters.class);
+    private final UserChangeOutbox changeOutbox = mock(UserChangeOutbox.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private UserImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = importService(100);
+
+        User existing = new User();
+        existing.setUsername("dave");
+        existing.setEmail("dave@example.com");
+        existing.setRoles(Set.of(User.Role.USER));
+        userRepository.saveAndFlush(existing);
+        entityManager.clear();
+    }
+
+    @Test
+    void importUsers_ShouldInsertValidRowsAndReportRejects() throws Exception {
+        String csv = HEADER +
+                "alice,alice@example.com,Alice,1990-05-01,female,Paris,true,USER;ADMIN\n" +
+                "bob,not-an-email,Bob,,,,,\n" +
+                "alice,alice2@example.com,Again,,,,,\n" +
+                "carol,alice@example.com,Carol,,,,,\n" +
+                "dave,dave2@example.com,Dave,,,,,\n" +
+                "erin,erin@example.com,Erin,,robot,,,\n" +
+                "frank,frank@example.com,\"Frank, Jr\",,,,false,\n";
+
+        List<String> report = run(csv, RecordStreamReader.Format.CSV);
+
+        assertThat(report).hasSize(6);
+        assertThat(report.subList(0, 5)).allMatch(line -> line.contains("\"line\""));
+        assertThat(String.join("\n", report))
+                .contains("Email should be valid", "Duplicate username in import", "Duplicate email in import",
+                        "Username already exists", "Invalid gender: robot");
+        assertThat(report.get(5)).contains("\"created\":2", "\"rejected\":5", "\"writer\":\"jdbc\"");
+
+        entityManager.clear();
+        User alice = userRepository.findByUsername("alice").orElseThrow();
+        assertThat(alice.getRoles()).containsExactlyInAnyOrder(User.Role.USER, User.Role.ADMIN);
+        assertThat(alice.getGender()).isEqualTo(User.Gender.FEMALE);
+        assertThat(alice.getAddress().getCity()).isEqualTo("Paris");
+        assertThat(alice.getCreatedAt()).isNotNull();
+        User frank = userRepository.findByUsername("frank").orElseThrow();
+        assertThat(frank.getFirstName()).isEqualTo("Frank, Jr");
+        assertThat(frank.isActive()).isFalse();
+        assertThat(frank.getRoles()).containsExactly(User.Role.USER);
+
+        verify(searchIndex, times(2)).indexAfterCommit(any());
+        verify(userStats, times(2)).applyAfterCommit(isNull(), any());
+    }
+
+    @Test
+    void importUsers_ShouldReadNdjson() throws Exception {
+        String ndjson = "{\"username\":\"gina\",\"email\":\"gina@example.com\",\"roles\":\"MODERATOR\"}\n" +
+                "not json\n";
+
+        List<String> report = run(ndjson, RecordStreamReader.Format.NDJSON);
+
+        assertThat(report).hasSize(2);
+        assertThat(report.get(0)).contains("\"line\":2", "Malformed JSON");
+        entityManager.clear();
+        assertThat(userRepository.findByUsername("gina").orElseThrow().getRoles()).containsExactly(User.Role.MODERATOR);
+    }
+
+    /**
+     * Rows per second through the import against single-row repository saves. Run with {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_ImportVersusSingleRowSaves() throws Exception {
+        int rows = 50_000;
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < rows; i++) {
+            csv.append("bulk").append(i).append(",bulk").append(i).append("@example.com,First").append(i)
+                    .append(",1990-01-01,other,City").append(i % 100).append(",true,USER\n");
+        }
+        UserImportService bulk = importService(1000);
+        long start = System.nanoTime();
+        run(bulk, csv.toString(), RecordStreamReader.Format.CSV);
+        report("import (jdbc)", rows, System.nanoTime() - start);
+
+        int singleRows = 5_000;
+        start = System.nanoTime();
+        for (int i = 0; i < singleRows; i++) {
+            User user = new User();
+            user.setUsername("single" + i);
+            user.setEmail("single" + i + "@example.com");
+            user.setRoles(Set.of(User.Role.USER));
+            userRepository.existsByUsername(user.getUsername());
+            userRepository.existsByEmail(user.getEmail());
+            userRepository.saveAndFlush(user);
+        }
+        report("single-row save", singleRows, System.nanoTime() - start);
+    }
+
+    private UserImportService importService(int chunkSize) {
+        return new UserImportService(userRepository, new UserMapperImpl(), searchIndex, userStats, changeOutbox,
+                List.of(new CopyUserBatchWriter(jdbcTemplate), new JdbcUserBatchWriter(jdbcTemplate)),
+                transactionManager, Validation.buildDefaultValidatorFactory().getValidator(), objectMapper,
+                "auto", chunkSize);
+    }
+
+    private List<String> run(String input, RecordStreamReader.Format format) throws Exception {
+        return run(importService, input, format);
+    }
+
+    private static List<String> run(UserImportService service, String input, RecordStreamReader.Format format) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.importUsers(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), format, output);
+        return output.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private static void report(String label, int rows, long nanos) {
+        log.info("{} {} rows {} rows/s", String.format("%-16s", label), String.format("%,8d", rows),
+                String.format("%8.0f", rows / (nanos / 1e9)));
+    }
+}
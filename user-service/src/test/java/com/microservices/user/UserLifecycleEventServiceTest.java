@@ -0,0 +1,130 @@
+package com.microservices.user;
+
+import com.microservices.user.dto.EventBatchResult;
+import com.microservices.user.dto.UserLifecycleEvent;
+import com.microservices.user.entity.User;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.search.UserSearchIndex;
+import com.microservices.user.service.UserChangeOutbox;
+import com.microservices.user.service.UserLifecycleEventService;
+import com.microservices.user.stats.UserStatsCounters;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Auth events create and update profiles once each, in event id order; events that cannot create a profile
+ * are reported as failed instead of being acknowledged.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+class UserLifecycleEventServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final UserSearchIndex searchIndex = mock(UserSearchIndex.class);
+    private final UserStatsCounters userStats = mock(UserStatsCounters.class);
+    private final UserChangeOutbox changeOutbox = mock(UserChangeOutbox.class);
+
+    private UserLifecycleEventService eventService;
+
+    @BeforeEach
+    void setUp() {
+        eventService = new UserLifecycleEventService(userRepository, searchIndex, userStats, changeOutbox);
+
+        User dave = new User();
+        dave.setUsername("dave");
+        dave.setEmail("dave@example.com");
+        dave.setRoles(Set.of(User.Role.USER));
+        userRepository.saveAndFlush(dave);
+    }
+
+    @Test
+    void apply_ShouldCreateAndUpdateProfilesInEventOrder() {
+        EventBatchResult result = eventService.apply(List.of(
+                event(3L, "ROLES_CHANGED", "alice", "alice@example.com", Set.of("ADMIN")),
+                event(2L, "REGISTERED", "alice", "alice@example.com", Set.of("USER"))));
+
+        assertThat(result.getApplied()).isEqualTo(2);
+        assertThat(result.getFailed()).isEmpty();
+        assertThat(profile("alice").getRoles()).containsExactly(User.Role.ADMIN);
+        assertThat(profile("alice").getAuthEventId()).isEqualTo(3L);
+    }
+
+    @Test
+    void apply_ShouldSkipEventsAlreadyApplied() {
+        eventService.apply(List.of(event(5L, "DISABLED", "dave", "dave@example.com", Set.of("USER"))));
+
+        EventBatchResult redelivered = eventService.apply(List.of(
+                event(4L, "ENABLED", "dave", "dave@example.com", Set.of("USER")),
+                event(5L, "DISABLED", "dave", "dave@example.com", Set.of("USER"))));
+
+        assertThat(redelivered.getApplied()).isZero();
+        assertThat(redelivered.getSkipped()).isEqualTo(2);
+        assertThat(profile("dave").isActive()).isFalse();
+    }
+
+    @Test
+    void apply_EventsThatChangeNothing_ShouldOnlyRecordTheEventId() {
+        long version = profile("dave").getVersion();
+
+        EventBatchResult result = eventService.apply(List.of(
+                event(11L, "LOCKED", "dave", "dave@example.com", Set.of("USER")),
+                event(12L, "ENABLED", "dave", "dave@example.com", Set.of("USER")),
+                event(13L, "ROLES_CHANGED", "dave", "dave@example.com", Set.of("USER"))));
+
+        assertThat(result.getApplied()).isEqualTo(3);
+        User dave = profile("dave");
+        assertThat(dave.getAuthEventId()).isEqualTo(13L);
+        assertThat(dave.getVersion()).isEqualTo(version);
+        verifyNoInteractions(changeOutbox, searchIndex, userStats);
+    }
+
+    @Test
+    void apply_ShouldReportEventsWhoseEmailIsTakenAsFailed() {
+        EventBatchResult result = eventService.apply(List.of(
+                event(7L, "REGISTERED", "mallory", "dave@example.com", Set.of("USER")),
+                event(8L, "REGISTERED", "erin", "erin@example.com", Set.of("USER")),
+                event(9L, "REGISTERED", "frank", "erin@example.com", Set.of("USER")),
+                event(10L, "REGISTERED", "gina", null, Set.of("USER"))));
+
+        assertThat(result.getApplied()).isEqualTo(1);
+        assertThat(result.getSkipped()).isZero();
+        assertThat(result.getFailed()).containsOnlyKeys(7L, 9L, 10L);
+        assertThat(result.getFailed().get(10L)).isEqualTo("Email missing");
+        assertThat(userRepository.findByUsername("mallory")).isEmpty();
+        assertThat(userRepository.findByUsername("erin")).isPresent();
+    }
+
+    private User profile(String username) {
+        entityManager.flush();
+        entityManager.clear();
+        return userRepository.findByUsername(username).orElseThrow();
+    }
+
+    private static UserLifecycleEvent event(Long id, String type, String username, String email, Set<String> roles) {
+        UserLifecycleEvent event = new UserLifecycleEvent();
+        event.setEventId(id);
+        event.setType(type);
+        event.setUsername(username);
+        event.setEmail(email);
+        event.setEnabled(!"DISABLED".equals(type));
+        event.setRoles(roles);
+        return event;
+    }
+}
@@ -0,0 +1,161 @@
+package com.microservices.user;
+
+import com.microservices.user.dto.CountMode;
+import com.microservices.user.dto.CursorPage;
+import com.microservices.user.dto.UserResponse;
+import com.microservices.user.dto.UserSearchRequest;
+import com.microservices.user.entity.User;
+import com.microservices.user.mapper.UserMapperImpl;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.search.UserSearchIndex;
+import com.microservices.user.service.AuthServiceClient;
+import com.microservices.user.service.UserChangeOutbox;
+import com.microservices.user.service.UserCountEstimator;
+import com.microservices.user.service.UserService;
+import com.microservices.user.stats.UserStatsCounters;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards every list path against N+1 role loading: a page of 100 users must cost a fixed handful of
+ * statements, whatever the page size.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@Import({UserService.class, UserMapperImpl.class})
+class UserListQueryCountTest {
+
+    private static final int PAGE = 100;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private AuthServiceClient authServiceClient;
+
+    @MockitoBean
+    private UserSearchIndex searchIndex;
+
+    @MockitoBean
+    private UserCountEstimator countEstimator;
+
+    @MockitoBean
+    private UserStatsCounters userStats;
+
+    @MockitoBean
+    private UserChangeOutbox changeOutbox;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 2 * PAGE + 50; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setRoles(i % 7 == 0 ? Set.of(User.Role.USER, User.Role.ADMIN) : Set.of(User.Role.USER));
+            users.add(user);
+        }
+        userRepository.saveAllAndFlush(users);
+    }
+
+    @Test
+    void offsetListing_ShouldUseFixedNumberOfStatements() {
+        assertStatements(3, () -> userService.getAllUsers(0, PAGE, "createdAt", "desc", CountMode.EXACT));
+        assertStatements(2, () -> userService.getAllUsers(1, PAGE, "username", "asc", CountMode.NONE));
+        assertStatements(2, () -> userService.getAllUsers(0, PAGE, "createdAt", "desc", CountMode.ESTIMATED));
+    }
+
+    @Test
+    void offsetSearch_ShouldUseFixedNumberOfStatements() {
+        for (CountMode mode : CountMode.values()) {
+            UserSearchRequest request = new UserSearchRequest();
+            request.setUsername("user");
+            request.setSize(PAGE);
+            request.setCountMode(mode.value());
+
+            assertStatements(mode == CountMode.EXACT ? 3 : 2, () -> userService.searchUsers(request));
+        }
+    }
+
+    @Test
+    void cursorListingAndSearch_ShouldUseFixedNumberOfStatements() {
+        CursorPage<UserResponse> first = assertCursorStatements(2, () -> userService.getUsersByCursor(null, PAGE, "desc"));
+        assertCursorStatements(3, () -> userService.getUsersByCursor(first.getNextCursor(), PAGE, "desc"));
+
+        UserSearchRequest request = new UserSearchRequest();
+        request.setEmail("example.com");
+        request.setSize(PAGE);
+        assertCursorStatements(2, () -> userService.searchUsersByCursor(request));
+    }
+
+    @Test
+    void entityQueries_ShouldBatchRoleLoading() {
+        assertStatements(3, () -> userRepository.findByRolesContaining(User.Role.USER, PageRequest.of(0, PAGE)));
+
+        List<String> usernames = IntStream.range(0, PAGE).mapToObj(i -> "user" + i).toList();
+        reset();
+        List<User> users = userRepository.findByUsernameIn(usernames);
+        users.forEach(user -> user.getRoles().size());
+        assertThat(users).hasSize(PAGE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private void assertStatements(int expected, Supplier<? extends Slice<?>> listing) {
+        reset();
+        Slice<?> slice = listing.get();
+        slice.getContent().forEach(row -> {
+            if (row instanceof User user) {
+                user.getRoles().size();
+            }
+        });
+        assertThat(slice.getNumberOfElements()).isEqualTo(PAGE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+    }
+
+    private CursorPage<UserResponse> assertCursorStatements(int expected, Supplier<CursorPage<UserResponse>> listing) {
+        reset();
+        CursorPage<UserResponse> page = listing.get();
+        assertThat(page.getContent()).hasSize(PAGE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+        return page;
+    }
+
+    private void reset() {
+        entityManager.clear();
+        statistics.clear();
+    }
+}
@@ -0,0 +1,121 @@
+package com.microservices.user;
+
+import com.microservices.user.dto.UserResponse;
+import com.microservices.user.entity.User;
+import com.microservices.user.mapper.UserMapperImpl;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.search.UserSearchIndex;
+import com.microservices.user.security.UserOwnershipEvaluator;
+import com.microservices.user.service.AuthServiceClient;
+import com.microservices.user.service.UserChangeOutbox;
+import com.microservices.user.service.UserCountEstimator;
+import com.microservices.user.service.UserService;
+import com.microservices.user.stats.UserStatsCounters;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the statements a read of {@code GET /users/{id}} by its owner costs: the {@code @PreAuthorize}
+ * ownership check followed by the handler's service call.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({UserOwnershipEvaluator.class, UserService.class, UserMapperImpl.class})
+class UserOwnershipQueryCountTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserOwnershipEvaluator ownership;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private AuthServiceClient authServiceClient;
+
+    @MockitoBean
+    private UserSearchIndex searchIndex;
+
+    @MockitoBean
+    private UserCountEstimator countEstimator;
+
+    @MockitoBean
+    private UserStatsCounters userStats;
+
+    @MockitoBean
+    private UserChangeOutbox changeOutbox;
+
+    private Statistics statistics;
+    private User alice;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User user = new User();
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
+        user.setRoles(Set.of(User.Role.USER));
+        alice = userRepository.saveAndFlush(user);
+    }
+
+    @Test
+    void ownershipCheck_ShouldUseNarrowProjectionOnce() {
+        resetCounters();
+
+        assertThat(ownership.isOwner(alice.getId(), authentication("alice"))).isTrue();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        assertThat(ownership.isOwner(alice.getId(), authentication("alice"))).isTrue();
+        assertThat(ownership.isOwner(alice.getId(), authentication("mallory"))).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void readRequest_ShouldIssueOneSelect() {
+        ownership.isOwner(alice.getId(), authentication("alice"));
+        resetCounters();
+
+        assertThat(ownership.isOwner(alice.getId(), authentication("alice"))).isTrue();
+        UserResponse response = userService.getUserById(alice.getId());
+
+        assertThat(response.getUsername()).isEqualTo("alice");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+    }
+
+    private void resetCounters() {
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    private static Authentication authentication(String username) {
+        return new TestingAuthenticationToken(username, null, "ROLE_USER");
+    }
+}
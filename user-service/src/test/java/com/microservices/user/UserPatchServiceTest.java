@@ -0,0 +1,170 @@
+package com.microservices.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+import com.microservices.user.dto.UserResponse;
+import com.microservices.user.entity.Address;
+import com.microservices.user.entity.User;
+import com.microservices.user.mapper.UserMapperImpl;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.search.UserSearchIndex;
+import com.microservices.user.service.UserChangeOutbox;
+import com.microservices.user.service.UserPatchService;
+import com.microservices.user.stats.UserStatsCounters;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * A merge patch writes only the columns it changes, writes nothing when it changes nothing, is validated as
+ * a whole before anything is written, and is refused when the user has moved past the version the client expects.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.microservices.user.UserPatchServiceTest$RecordingInspector"
+})
+class UserPatchServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final UserSearchIndex searchIndex = mock(UserSearchIndex.class);
+    private final UserStatsCounters userStats = mock(UserStatsCounters.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private UserPatchService patchService;
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        patchService = new UserPatchService(userRepository, new UserMapperImpl(), searchIndex, userStats,
+                mock(UserChangeOutbox.class), Validation.buildDefaultValidatorFactory().getValidator(), objectMapper);
+
+        Address address = new Address();
+        address.setCity("Paris");
+        address.setCountry("France");
+        User user = new User();
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
+        user.setFirstName("Alice");
+        user.setPhoneNumber("+33123456789");
+        user.setPhoneVerified(true);
+        user.setBio("Hello");
+        user.setAddress(address);
+        user.setRoles(Set.of(User.Role.USER));
+        id = userRepository.saveAndFlush(user).getId();
+        entityManager.clear();
+        RecordingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void patchUser_ShouldUpdateOnlyChangedColumns() throws Exception {
+        UserResponse response = patchService.patchUser(id, json("{\"firstName\":\"Alicia\",\"address\":{\"city\":\"Lyon\"}}"), null);
+
+        assertThat(response.getFirstName()).isEqualTo("Alicia");
+        assertThat(response.getAddress().getCity()).isEqualTo("Lyon");
+        assertThat(response.getAddress().getCountry()).isEqualTo("France");
+        assertThat(response.getBio()).isEqualTo("Hello");
+
+        List<String> updates = updates();
+        assertThat(updates).hasSize(1);
+        assertThat(updates.get(0)).contains("first_name", "city", "updated_at")
+                .doesNotContain("bio", "email", "phone_number", "country");
+        verify(searchIndex).indexAfterCommit(any());
+    }
+
+    @Test
+    void patchUser_ShouldWriteNothingWhenUnchanged() throws Exception {
+        patchService.patchUser(id, json("{\"firstName\":\"Alice\",\"address\":{\"city\":\"Paris\"}}"), null);
+        patchService.patchUser(id, json("{}"), null);
+        entityManager.flush();
+
+        assertThat(updates()).isEmpty();
+        verify(searchIndex, never()).indexAfterCommit(any());
+    }
+
+    @Test
+    void patchUser_ShouldClearNullMembersAndResetVerification() throws Exception {
+        patchService.patchUser(id, json("{\"bio\":null,\"phoneNumber\":\"+33987654321\"}"), null);
+        entityManager.clear();
+
+        User user = userRepository.findById(id).orElseThrow();
+        assertThat(user.getBio()).isNull();
+        assertThat(user.getPhoneNumber()).isEqualTo("+33987654321");
+        assertThat(user.isPhoneVerified()).isFalse();
+    }
+
+    @Test
+    void patchUser_ShouldRejectInvalidPatches() {
+        assertThatThrownBy(() -> patchService.patchUser(id, json("{\"username\":\"mallory\"}"), null))
+                .isInstanceOf(BusinessException.class).hasMessageContaining("username");
+        assertThatThrownBy(() -> patchService.patchUser(id, json("{\"email\":\"not-an-email\"}"), null))
+                .isInstanceOf(BusinessException.class).hasMessageContaining("Email should be valid");
+        assertThatThrownBy(() -> patchService.patchUser(id, json("{\"email\":null}"), null))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> patchService.patchUser(id, json("[]"), null))
+                .isInstanceOf(BusinessException.class);
+
+        assertThat(updates()).isEmpty();
+    }
+
+    @Test
+    void patchUser_ShouldHonourExpectedVersion() throws Exception {
+        long version = userRepository.findVersionById(id).orElseThrow();
+
+        UserResponse response = patchService.patchUser(id, json("{\"bio\":\"Hi\"}"), version);
+        assertThat(response.getVersion()).isEqualTo(version + 1);
+        assertThat(updates()).hasSize(1);
+        assertThat(updates().get(0)).contains("version");
+
+        assertThatThrownBy(() -> patchService.patchUser(id, json("{\"bio\":\"Stale\"}"), version))
+                .isInstanceOf(BusinessException.class)
+                .hasFieldOrPropertyWithValue("responseCode", ResponseCode.PRECONDITION_FAILED);
+        assertThat(updates()).hasSize(1);
+    }
+
+    private JsonNode json(String text) throws Exception {
+        return objectMapper.readTree(text);
+    }
+
+    private static List<String> updates() {
+        return RecordingInspector.STATEMENTS.stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT))
+                .filter(sql -> sql.startsWith("update users"))
+                .toList();
+    }
+
+    public static class RecordingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.microservices.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.user.entity.Address;
+import com.microservices.user.entity.User;
+import com.microservices.user.mapper.UserMapperImpl;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.search.UserSearchIndex;
+import com.microservices.user.service.UserChangeOutbox;
+import com.microservices.user.service.UserPatchService;
+import com.microservices.user.stats.UserStatsCounters;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * WAL bytes per profile update on Postgres: a single-field merge patch against the full-row UPDATE Hibernate
+ * issued before {@code @DynamicUpdate}. Run with {@code -Dbenchmark=true}; needs Docker.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Testcontainers
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class UserPatchWalBenchmarkTest {
+
+    private static final int USERS = 2_000;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void benchmark_WalBytesPerUpdate() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        UserPatchService patchService = new UserPatchService(userRepository, new UserMapperImpl(),
+                mock(UserSearchIndex.class), mock(UserStatsCounters.class), mock(UserChangeOutbox.class),
+                Validation.buildDefaultValidatorFactory().getValidator(), objectMapper);
+        List<Long> ids = seed();
+
+        // Every column the entity maps, as the static UPDATE listed them
+        long fullRow = walBytes(() -> ids.forEach(id -> jdbcTemplate.update(
+                "UPDATE users SET username = username, email = email, first_name = first_name, "
+                        + "last_name = last_name, phone_number = ?, date_of_birth = date_of_birth, gender = gender, "
+                        + "address_line1 = address_line1, address_line2 = address_line2, city = city, state = state, "
+                        + "postal_code = postal_code, country = country, profile_picture_url = profile_picture_url, "
+                        + "bio = bio, active = active, email_verified = email_verified, phone_verified = false, "
+                        + "last_login_at = last_login_at, password_changed_at = password_changed_at, "
+                        + "auth_event_id = auth_event_id, updated_at = now() WHERE id = ?",
+                "+4420000" + id, id)));
+
+        long patched = walBytes(() -> ids.forEach(id -> {
+            try {
+                patchService.patchUser(id, objectMapper.readTree("{\"phoneNumber\":\"+4430000" + id + "\"}"), null);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        long unchanged = walBytes(() -> ids.forEach(id -> {
+            try {
+                patchService.patchUser(id, objectMapper.readTree("{\"phoneNumber\":\"+4430000" + id + "\"}"), null);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+
+        report("full-row update", fullRow);
+        report("merge patch", patched);
+        report("no-op patch", unchanged);
+    }
+
+    private static void report(String label, long walBytes) {
+        log.info("{} {} WAL bytes/update", String.format("%-18s", label),
+                String.format("%8.0f", (double) walBytes / USERS));
+    }
+
+    private List<Long> seed() {
+        String bio = "x".repeat(400);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            Address address = new Address();
+            address.setAddressLine1(i + " Long Street Name");
+            address.setCity("City" + i % 100);
+            address.setCountry("Country");
+            User user = new User();
+            user.setUsername("wal" + i);
+            user.setEmail("wal" + i + "@example.com");
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setBio(bio);
+            user.setAddress(address);
+            user.setRoles(Set.of(User.Role.USER));
+            users.add(user);
+        }
+        List<Long> ids = userRepository.saveAllAndFlush(users).stream().map(User::getId).toList();
+        entityManager.clear();
+        return ids;
+    }
+
+    private long walBytes(Runnable updates) {
+        String before = jdbcTemplate.queryForObject("SELECT pg_current_wal_insert_lsn()::text", String.class);
+        updates.run();
+        entityManager.flush();
+        entityManager.clear();
+        Long bytes = jdbcTemplate.queryForObject("SELECT pg_wal_lsn_diff(pg_current_wal_insert_lsn(), ?::pg_lsn)::bigint",
+                Long.class, before);
+        return bytes != null ? bytes : 0;
+    }
+}
@@ -0,0 +1,133 @@
+package com.microservices.user;
+
+import com.microservices.user.dto.UserResponse;
+import com.microservices.user.entity.Address;
+import com.microservices.user.entity.User;
+import com.microservices.user.mapper.UserMapper;
+import com.microservices.user.mapper.UserMapperImpl;
+import com.microservices.user.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The projection read path must return exactly what hydrating entities and mapping them returns.
+ */
+@Slf4j
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@Import(UserMapperImpl.class)
+class UserResponseProjectionTest {
+
+    private static final Sort BY_USERNAME = Sort.by("username");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void findResponses_ShouldMatchMappedEntities() {
+        seed(250);
+
+        for (int page = 0; page < 3; page++) {
+            Pageable pageable = PageRequest.of(page, 100, BY_USERNAME);
+            List<UserResponse> expected = userRepository.findAll(pageable).map(userMapper::toResponse).getContent();
+            entityManager.clear();
+
+            List<UserResponse> actual = userRepository.findResponses(null, BY_USERNAME, pageable.getOffset(), 100);
+
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void findResponsesByIds_ShouldKeepRequestedOrderAndSkipMissingIds() {
+        List<User> users = seed(3);
+
+        List<UserResponse> responses = userRepository.findResponsesByIds(
+                List.of(users.get(2).getId(), -1L, users.get(0).getId()));
+
+        assertThat(responses).extracting(UserResponse::getId)
+                .containsExactly(users.get(2).getId(), users.get(0).getId());
+        assertThat(responses.get(0).getRoles()).isEqualTo(users.get(2).getRoles());
+    }
+
+    /**
+     * Heap allocated and latency per page of 100 users, entity + MapStruct against the projection.
+     * Run with {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_ProjectionVersusEntityPage() {
+        seed(10_000);
+        Pageable pageable = PageRequest.of(50, 100, BY_USERNAME);
+
+        measure("entity + mapper", () -> userRepository.findAll(pageable).map(userMapper::toResponse).getContent());
+        measure("projection", () -> userRepository.findResponses(null, BY_USERNAME, pageable.getOffset(), 100));
+    }
+
+    private void measure(String label, Supplier<List<UserResponse>> page) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 50; i++) {
+            page.get();
+            entityManager.clear();
+        }
+        int runs = 200;
+        long bytes = 0;
+        long nanos = 0;
+        for (int i = 0; i < runs; i++) {
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            page.get();
+            nanos += System.nanoTime() - start;
+            bytes += threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            entityManager.clear();
+        }
+        log.info("{} {} ms/page {} bytes/page", String.format("%-16s", label),
+                String.format("%8.3f", nanos / 1e6 / runs), bytes / runs);
+    }
+
+    private List<User> seed(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setUsername(String.format("user%05d", i));
+            user.setEmail("user" + i + "@example.com");
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setGender(User.Gender.values()[i % User.Gender.values().length]);
+            user.setDateOfBirth(LocalDate.of(1990, 1, 1).plusDays(i));
+            user.setBio("Bio of user " + i + " ".repeat(200));
+            user.setAddress(i % 3 == 0 ? null : new Address("Line " + i, null, "City" + i % 10, null, "1000" + i % 10, "Country" + i % 5));
+            user.setRoles(i % 10 == 0 ? Set.of(User.Role.USER, User.Role.ADMIN) : Set.of(User.Role.USER));
+            user.setEmailVerified(i % 2 == 0);
+            users.add(user);
+        }
+        List<User> saved = userRepository.saveAllAndFlush(users);
+        entityManager.clear();
+        return saved;
+    }
+}
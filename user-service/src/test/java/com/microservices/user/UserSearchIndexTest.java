@@ -0,0 +1,225 @@
+package com.microservices.user;
+
+import com.microservices.user.dto.UserSearchRequest;
+import com.microservices.user.entity.Address;
+import com.microservices.user.entity.User;
+import com.microservices.user.search.IndexedUser;
+import com.microservices.user.search.UserSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class UserSearchIndexTest {
+
+    private static final String[] FIRST_NAMES = {"John", "Jane", "Alice", "Bob", "Johanna", "Maria", "Mario", "Li", "Ana"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Smithers", "Garcia", "Nguyen", "Kowalski", "Lee"};
+    private static final String[] CITIES = {"London", "Londrina", "Paris", "Berlin", "Bern", "Mumbai", "Austin"};
+    private static final String[] COUNTRIES = {"United Kingdom", "Brazil", "France", "Germany", "Switzerland", "India", "USA"};
+    private static final Pageable NEWEST_FIRST = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+
+    private UserSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserSearchIndex(null, null, true, 1000, 0.25);
+    }
+
+    @Test
+    void search_ShouldBeColdUntilLoaded() {
+        assertThat(index.search(request(r -> r.setUsername("john")), NEWEST_FIRST)).isEmpty();
+
+        index.load(List.of());
+
+        assertThat(index.search(request(r -> r.setUsername("john")), NEWEST_FIRST)).isPresent();
+    }
+
+    @Test
+    void search_ShouldMatchBruteForceFiltering() {
+        Random random = new Random(11);
+        List<IndexedUser> users = IntStream.range(0, 20_000).mapToObj(i -> randomUser(random, i)).toList();
+        index.load(users);
+
+        List<UserSearchRequest> queries = List.of(
+                request(r -> r.setUsername("user12")),
+                request(r -> r.setFirstName("joh")),
+                request(r -> { r.setLastName("smith"); r.setCity("lon"); }),
+                request(r -> { r.setCity("ber"); r.setGender(User.Gender.FEMALE); }),
+                request(r -> { r.setEmail("example.org"); r.setActive(false); }),
+                request(r -> { r.setCountry("united"); r.setRole(User.Role.ADMIN); }),
+                request(r -> { r.setFirstName("MAR"); r.setLastName("ee"); }),
+                request(r -> { r.setUsername("user1"); r.setCreatedAfter(LocalDate.of(2023, 6, 1));
+                    r.setCreatedBefore(LocalDate.of(2023, 8, 31)); }));
+
+        for (UserSearchRequest query : queries) {
+            List<IndexedUser> expected = users.stream()
+                    .filter(user -> bruteForceMatches(user, query))
+                    .sorted(Comparator.comparing(IndexedUser::createdAt).thenComparingLong(IndexedUser::id).reversed())
+                    .toList();
+
+            Page<Long> page = index.search(query, NEWEST_FIRST).orElseThrow();
+
+            assertThat(page.getTotalElements()).as(query.toString()).isEqualTo(expected.size());
+            assertThat(page.getContent()).as(query.toString())
+                    .containsExactlyElementsOf(expected.stream().limit(20).map(IndexedUser::id).toList());
+        }
+    }
+
+    @Test
+    void search_ShouldFallBackForShortTermsAndUnsupportedSorts() {
+        index.load(List.of());
+
+        assertThat(index.search(request(r -> r.setUsername("jo")), NEWEST_FIRST)).isEmpty();
+        assertThat(index.search(request(r -> r.setActive(true)), NEWEST_FIRST)).isEmpty();
+        assertThat(index.search(request(r -> r.setUsername("john")), PageRequest.of(0, 20, Sort.by("lastName"))))
+                .isEmpty();
+    }
+
+    @Test
+    void writes_ShouldBeVisibleToSubsequentSearches() {
+        index.load(List.of());
+        User user = user(1L, "marianne", "m@example.com", "Marianne", "Dupont", "Lyon");
+
+        index.indexAfterCommit(user);
+        assertThat(index.search(request(r -> r.setFirstName("anne")), NEWEST_FIRST).orElseThrow().getContent())
+                .containsExactly(1L);
+
+        user.setFirstName("Marie");
+        index.indexAfterCommit(user);
+        assertThat(index.search(request(r -> r.setFirstName("anne")), NEWEST_FIRST).orElseThrow().getContent()).isEmpty();
+        assertThat(index.search(request(r -> r.setFirstName("marie")), NEWEST_FIRST).orElseThrow().getContent())
+                .containsExactly(1L);
+
+        index.markEmailVerifiedAfterCommit(1L);
+        assertThat(index.search(request(r -> { r.setCity("lyo"); r.setEmailVerified(true); }), NEWEST_FIRST)
+                .orElseThrow().getContent()).containsExactly(1L);
+
+        index.removeAfterCommit(1L);
+        assertThat(index.search(request(r -> r.setFirstName("marie")), NEWEST_FIRST).orElseThrow().getContent()).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    /**
+     * Build time, memory and query latency at 1M and 10M users against a linear scan, which is what
+     * {@code LOWER(col) LIKE '%x%'} does in the database. Run with {@code -Dbenchmark=true -Xmx8g}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_IndexVersusLinearScan() {
+        for (int size : new int[]{1_000_000, 10_000_000}) {
+            Random random = new Random(size);
+            List<IndexedUser> users = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                users.add(randomUser(random, i));
+            }
+
+            UserSearchIndex large = new UserSearchIndex(null, null, true, 1000, 0.25);
+            long buildStart = System.nanoTime();
+            large.load(users);
+            long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+            List<UserSearchRequest> queries = List.of(
+                    request(r -> r.setUsername("user123456")),
+                    request(r -> { r.setLastName("smithers"); r.setCity("londr"); }),
+                    request(r -> { r.setEmail("example.org"); r.setGender(User.Gender.OTHER); }));
+
+            for (UserSearchRequest query : queries) {
+                long indexNanos = time(() -> large.search(query, NEWEST_FIRST).orElseThrow());
+                long scanNanos = time(() -> users.stream().filter(user -> bruteForceMatches(user, query)).count());
+                log.info("{} users | build {} ms | ~{} MiB | {} | index {} ms | scan {} ms",
+                        size, buildMillis, large.estimatedBytes() >> 20, query,
+                        String.format("%.2f", indexNanos / 1e6), String.format("%.2f", scanNanos / 1e6));
+            }
+        }
+    }
+
+    private static long time(Runnable runnable) {
+        runnable.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            runnable.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static IndexedUser randomUser(Random random, long id) {
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        int place = random.nextInt(CITIES.length);
+        Set<User.Role> roles = random.nextInt(20) == 0 ? Set.of(User.Role.USER, User.Role.ADMIN) : Set.of(User.Role.USER);
+        return new IndexedUser(id,
+                ("user" + id).toLowerCase(Locale.ROOT),
+                (first + "." + last + id + (random.nextBoolean() ? "@example.com" : "@example.org")).toLowerCase(Locale.ROOT),
+                first.toLowerCase(Locale.ROOT),
+                last.toLowerCase(Locale.ROOT),
+                CITIES[place].toLowerCase(Locale.ROOT),
+                COUNTRIES[place].toLowerCase(Locale.ROOT),
+                User.Gender.values()[random.nextInt(User.Gender.values().length)],
+                IndexedUser.roleMask(roles),
+                random.nextInt(10) != 0,
+                random.nextBoolean(),
+                LocalDateTime.of(2023, 1, 1, 0, 0).plusMinutes(random.nextInt(365 * 24 * 60)));
+    }
+
+    // Mirrors UserSpecification.buildSpecification
+    private static boolean bruteForceMatches(IndexedUser user, UserSearchRequest request) {
+        return contains(user.username(), request.getUsername())
+                && contains(user.email(), request.getEmail())
+                && contains(user.firstName(), request.getFirstName())
+                && contains(user.lastName(), request.getLastName())
+                && contains(user.city(), request.getCity())
+                && contains(user.country(), request.getCountry())
+                && (request.getGender() == null || request.getGender() == user.gender())
+                && (request.getRole() == null || user.hasRole(request.getRole()))
+                && (request.getActive() == null || request.getActive() == user.active())
+                && (request.getEmailVerified() == null || request.getEmailVerified() == user.emailVerified())
+                && (request.getCreatedAfter() == null || !user.createdAt().isBefore(request.getCreatedAfter().atStartOfDay()))
+                && (request.getCreatedBefore() == null || !user.createdAt().isAfter(request.getCreatedBefore().atTime(23, 59, 59)));
+    }
+
+    private static boolean contains(String value, String term) {
+        if (term == null || term.trim().isEmpty()) {
+            return true;
+        }
+        return value != null && value.contains(term.toLowerCase(Locale.ROOT));
+    }
+
+    private static UserSearchRequest request(Consumer<UserSearchRequest> customizer) {
+        UserSearchRequest request = new UserSearchRequest();
+        customizer.accept(request);
+        return request;
+    }
+
+    private static User user(Long id, String username, String email, String firstName, String lastName, String city) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setAddress(new Address(null, null, city, null, null, "France"));
+        user.setRoles(Set.of(User.Role.USER));
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+}
@@ -0,0 +1,134 @@
+package com.microservices.user;
+
+import com.microservices.user.entity.User;
+import com.microservices.user.repository.UserRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The users regions as configured for production: entity writes update the cached entries, bulk JPQL evicts
+ * them, and reads after either never see the old state. Every step commits, since cache puts happen on commit.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserSecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private Cache cache;
+    private Long aliceId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        cache = entityManagerFactory.getCache();
+        cache.evictAll();
+
+        User alice = new User();
+        alice.setUsername("alice");
+        alice.setEmail("alice@example.com");
+        alice.setRoles(new HashSet<>(Set.of(User.Role.USER)));
+        aliceId = userRepository.save(alice).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        cache.evictAll();
+    }
+
+    @Test
+    void entityWrite_ShouldUpdateTheCachedEntry() {
+        inTransaction(() -> userRepository.findById(aliceId).orElseThrow());
+        assertThat(cache.contains(User.class, aliceId)).isTrue();
+
+        inTransaction(() -> {
+            userRepository.findById(aliceId).orElseThrow().setFirstName("Alicia");
+            return null;
+        });
+
+        statistics.clear();
+        User reloaded = inTransaction(() -> userRepository.findById(aliceId).orElseThrow());
+        assertThat(reloaded.getFirstName()).isEqualTo("Alicia");
+        // Served from the refreshed entry rather than re-read after an eviction
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        // Collection entries are invalidated rather than updated; the next read reloads them
+        inTransaction(() -> userRepository.findById(aliceId).orElseThrow().getRoles().add(User.Role.ADMIN));
+        assertThat(inTransaction(() -> userRepository.findById(aliceId).orElseThrow()).getRoles())
+                .containsExactlyInAnyOrder(User.Role.USER, User.Role.ADMIN);
+    }
+
+    @Test
+    void naturalIdLookup_ShouldHitTheCacheAndSeeEntityWrites() {
+        inTransaction(() -> userRepository.loadByUsername("alice").orElseThrow());
+
+        statistics.clear();
+        inTransaction(() -> userRepository.loadByUsername("alice").orElseThrow());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        inTransaction(() -> {
+            userRepository.loadByUsername("alice").orElseThrow().setLastName("Liddell");
+            return null;
+        });
+        assertThat(inTransaction(() -> userRepository.loadByUsername("alice").orElseThrow()).getLastName())
+                .isEqualTo("Liddell");
+    }
+
+    @Test
+    void bulkJpql_ShouldEvictTheCachedEntries() {
+        inTransaction(() -> userRepository.findById(aliceId).orElseThrow());
+        assertThat(cache.contains(User.class, aliceId)).isTrue();
+
+        inTransaction(() -> userRepository.updateUserStatus(List.of(aliceId), false));
+
+        assertThat(cache.contains(User.class, aliceId)).isFalse();
+        assertThat(inTransaction(() -> userRepository.findById(aliceId).orElseThrow()).isActive()).isFalse();
+    }
+
+    @Test
+    void delete_ShouldEvictTheCachedEntry() {
+        inTransaction(() -> userRepository.findById(aliceId).orElseThrow());
+
+        userRepository.deleteById(aliceId);
+
+        assertThat(cache.contains(User.class, aliceId)).isFalse();
+        assertThat(userRepository.findById(aliceId)).isEmpty();
+        assertThat(userRepository.loadByUsername("alice")).isEmpty();
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+}
@@ -0,0 +1,155 @@
+package com.microservices.user;
+
+import com.microservices.common.core.enums.ResponseCode;
+import com.microservices.common.core.exception.BusinessException;
+import com.microservices.user.dto.UserStatsResponse;
+import com.microservices.user.entity.Address;
+import com.microservices.user.entity.User;
+import com.microservices.user.repository.UserRepository;
+import com.microservices.user.stats.CountedUser;
+import com.microservices.user.stats.UserStatsCounters;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Counters load from grouped counts, move only when a write commits, and replay writes that commit while a
+ * reconcile is reading exactly once. Every write commits for real, as it would behind the service.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserStatsCountersTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        userRepository.save(user("alice", "DE", true, User.Role.USER, User.Role.ADMIN));
+        userRepository.save(user("bob", "DE", true, User.Role.USER));
+        userRepository.save(user("carol", "FR", false, User.Role.USER));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void snapshot_ShouldAnswerUnavailableUntilTheInitialLoad() {
+        UserStatsCounters stats = new UserStatsCounters(new JdbcTemplate(dataSource), transactionManager);
+
+        assertThatThrownBy(stats::snapshot)
+                .isInstanceOfSatisfying(BusinessException.class,
+                        e -> assertThat(e.getResponseCode()).isEqualTo(ResponseCode.SERVICE_UNAVAILABLE));
+
+        stats.loadOnStartup();
+        UserStatsResponse snapshot = stats.snapshot();
+        assertThat(snapshot.getTotalUsers()).isEqualTo(3);
+        assertThat(snapshot.getActiveUsers()).isEqualTo(2);
+        assertThat(snapshot.getUsersByRole()).containsEntry("USER", 3L).containsEntry("ADMIN", 1L);
+        assertThat(snapshot.getUsersByCountry()).containsExactly(
+                Map.entry("DE", 2L), Map.entry("FR", 1L));
+        assertThat(snapshot.getNewUsersThisMonth()).isEqualTo(3);
+    }
+
+    @Test
+    void applyAfterCommit_ShouldMoveCountersOnlyWhenTheWriteCommits() {
+        UserStatsCounters stats = new UserStatsCounters(new JdbcTemplate(dataSource), transactionManager);
+        stats.reconcile();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User dave = userRepository.save(user("dave", "FR", true, User.Role.USER));
+            stats.applyAfterCommit(null, CountedUser.from(dave));
+            assertThat(stats.snapshot().getTotalUsers()).isEqualTo(3);
+        });
+        assertThat(stats.snapshot().getTotalUsers()).isEqualTo(4);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            stats.applyAfterCommit(null, CountedUser.from(user("erin", "FR", true, User.Role.USER)));
+            status.setRollbackOnly();
+        });
+        assertThat(stats.snapshot().getTotalUsers()).isEqualTo(4);
+    }
+
+    @Test
+    void reconcile_ShouldReplayWritesCommittedDuringTheSnapshotOnce() {
+        HookedJdbcTemplate jdbcTemplate = new HookedJdbcTemplate(dataSource);
+        UserStatsCounters stats = new UserStatsCounters(jdbcTemplate, transactionManager);
+        stats.reconcile();
+
+        // A signup commits on another thread after the totals were read, before the reconcile finishes
+        jdbcTemplate.beforeRoles = () -> CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            User dave = userRepository.save(user("dave", "FR", true, User.Role.USER));
+            stats.applyAfterCommit(null, CountedUser.from(dave));
+        })).join();
+        stats.reconcile();
+
+        assertThat(userRepository.count()).isEqualTo(4);
+        assertThat(stats.snapshot().getTotalUsers()).isEqualTo(4);
+        assertThat(stats.snapshot().getActiveUsers()).isEqualTo(3);
+
+        // Once the write is part of the snapshot it is not replayed again
+        stats.reconcile();
+        assertThat(stats.snapshot().getTotalUsers()).isEqualTo(4);
+    }
+
+    private static User user(String username, String country, boolean active, User.Role... roles) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setActive(active);
+        user.setRoles(Set.of(roles));
+        Address address = new Address();
+        address.setCountry(country);
+        user.setAddress(address);
+        return user;
+    }
+
+    private static final class HookedJdbcTemplate extends JdbcTemplate {
+
+        private Runnable beforeRoles;
+
+        private HookedJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler rch) {
+            if (beforeRoles != null && sql.contains("FROM user_roles")) {
+                Runnable hook = beforeRoles;
+                beforeRoles = null;
+                hook.run();
+            }
+            super.query(sql, rch);
+        }
+    }
+}